@@ -0,0 +1,48 @@
+package com.mobilise.BookManagementSystem.benchmark;
+
+import com.mobilise.BookManagementSystem.dto.request.BookRequest;
+import com.mobilise.BookManagementSystem.dto.response.BookResponse;
+import com.mobilise.BookManagementSystem.entity.BookLibrary;
+
+import java.time.Year;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Deterministic sample data shared by the benchmarks, so every run measures the same catalog.
+ */
+final class BenchmarkBooks {
+    private static final String[] AUTHORS = {"J.J Bennett", "Ada Obi", "Craig Walls", "Joshua Bloch", "Brian Goetz"};
+
+    private BenchmarkBooks() {
+    }
+
+    static String title(int index) {
+        return "Benchmark Book " + index;
+    }
+
+    static String author(int index) {
+        return AUTHORS[index % AUTHORS.length];
+    }
+
+    // Spreads the catalog over the publication years accepted by BookInfoValidations.
+    static Year publicationYear(int index) {
+        return Year.of(2001 + index % 20);
+    }
+
+    static BookRequest request(int index) {
+        return new BookRequest(title(index), author(index), "ISBN" + index, index % 50, publicationYear(index));
+    }
+
+    static BookLibrary entity(int index) {
+        return new BookLibrary((long) index + 1, title(index), author(index), "ISBN" + index, index % 50, publicationYear(index));
+    }
+
+    static List<BookResponse> responses(int count) {
+        List<BookResponse> responses = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            responses.add(new BookResponse((long) i + 1, title(i), author(i), "ISBN" + i, i % 50, publicationYear(i)));
+        }
+        return responses;
+    }
+}
@@ -0,0 +1,107 @@
+package com.mobilise.BookManagementSystem.benchmark;
+
+import com.mobilise.BookManagementSystem.BookManagementSystemApplication;
+import com.mobilise.BookManagementSystem.dto.request.BookRequest;
+import com.mobilise.BookManagementSystem.dto.response.BookResponse;
+import com.mobilise.BookManagementSystem.dto.response.PaginatedBookResponse;
+import com.mobilise.BookManagementSystem.service.BookServices;
+import com.mobilise.BookManagementSystem.service.pagination.BookCursor;
+import com.mobilise.BookManagementSystem.service.pagination.BookSortKey;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * End-to-end BookServiceImpl calls against an embedded H2 database seeded with catalogSize books.
+ * The application context is started without the web layer, so only the service, repository and mapping costs are measured.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class BookServiceBenchmark {
+    private static final int SEED_BATCH_SIZE = 5000;
+    private static final int PAGE_SIZE = 20;
+
+    @Param({"1000", "100000"})
+    private int catalogSize;
+
+    private ConfigurableApplicationContext context;
+    private BookServices bookServices;
+    private String deepCursor;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = new SpringApplicationBuilder(BookManagementSystemApplication.class)
+                .web(WebApplicationType.NONE)
+                .properties(
+                        "spring.datasource.url=jdbc:h2:mem:benchmark;DB_CLOSE_DELAY=-1",
+                        "spring.main.banner-mode=off",
+                        "logging.level.root=WARN",
+                        "logging.level.com.mobilise=OFF")
+                .run();
+        bookServices = context.getBean(BookServices.class);
+        for (int from = 0; from < catalogSize; from += SEED_BATCH_SIZE) {
+            List<BookRequest> batch = new ArrayList<>(SEED_BATCH_SIZE);
+            for (int i = from; i < Math.min(from + SEED_BATCH_SIZE, catalogSize); i++) {
+                batch.add(BenchmarkBooks.request(i));
+            }
+            bookServices.addNewBooks(batch);
+        }
+        // Walk to the middle of the catalog once, so the cursor benchmark measures a deep page
+        PaginatedBookResponse middle = bookServices.getAllBooksWithPagination(catalogSize / PAGE_SIZE / 2 - 1, PAGE_SIZE);
+        BookResponse last = middle.getContents().get(middle.getContents().size() - 1);
+        deepCursor = BookCursor.after(last, BookSortKey.ID).encode();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    // Ids are generated from 1 by the pooled sequence of a fresh database
+    @Benchmark
+    public BookResponse getBookById() {
+        return bookServices.getBookById(ThreadLocalRandom.current().nextLong(1, catalogSize + 1));
+    }
+
+    @Benchmark
+    public PaginatedBookResponse getAllBooksWithPaginationDeepPage() {
+        return bookServices.getAllBooksWithPagination(catalogSize / PAGE_SIZE / 2, PAGE_SIZE);
+    }
+
+    @Benchmark
+    public PaginatedBookResponse getAllBooksWithCursorDeepPage() {
+        return bookServices.getAllBooksWithCursor(deepCursor, PAGE_SIZE, "id");
+    }
+
+    @Benchmark
+    public List<BookResponse> searchBookByTitleOrAuthorOrIsbn() {
+        return bookServices.searchBookByTitleOrAuthorOrIsbn(BenchmarkBooks.title(ThreadLocalRandom.current().nextInt(catalogSize)));
+    }
+
+    @Benchmark
+    public List<BookResponse> searchBookByPublicationYear() {
+        return bookServices.searchBookByPublicationYear(BenchmarkBooks.publicationYear(ThreadLocalRandom.current().nextInt(20)));
+    }
+}
@@ -0,0 +1,189 @@
+package com.mobilise.BookManagementSystem.benchmark;
+
+import com.mobilise.BookManagementSystem.BookManagementSystemApplication;
+import com.mobilise.BookManagementSystem.dto.request.BookRequest;
+import com.mobilise.BookManagementSystem.service.BookServices;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Closed-loop HTTP load test comparing the platform-thread and virtual-thread request execution modes.
+ * For each mode, the application is started on a random port against a fresh embedded H2 database, seeded, and then
+ * driven by an increasing number of concurrent clients reading random pages of /book/get/all.
+ * Every JDBC connection checkout is delayed by latency-ms to stand in for the network round trip of a remote database,
+ * which is where request threads sit blocked in production.
+ * Each mode runs with its own configured connection pool (the "virtual" profile for virtual threads, see
+ * application-virtual.properties), so the comparison is the one a deployment gets; pool-size overrides both.
+ * <p>
+ * Run with: {@code mvn -Pbenchmark test-compile exec:exec
+ * -Dbenchmark.main=com.mobilise.BookManagementSystem.benchmark.ExecutionModeLoadBenchmark
+ * -Dbenchmark.args="--concurrency=50,200,800 --duration=10 --latency-ms=10 [--pool-size=N]"}
+ */
+public class ExecutionModeLoadBenchmark {
+    private static final int PAGE_SIZE = 20;
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = parseOptions(args);
+        int[] concurrencyLevels = Arrays.stream(options.getOrDefault("concurrency", "50,200,800").split(","))
+                .mapToInt(Integer::parseInt).toArray();
+        int durationSeconds = Integer.parseInt(options.getOrDefault("duration", "10"));
+        int catalogSize = Integer.parseInt(options.getOrDefault("catalog", "10000"));
+        long latencyMillis = Long.parseLong(options.getOrDefault("latency-ms", "10"));
+        String poolSize = options.get("pool-size");
+
+        List<String> report = new ArrayList<>();
+        report.add(String.format("%-8s %5s %11s %12s %10s %10s %10s %8s", "mode", "pool", "concurrency", "requests/s", "p50 ms", "p99 ms", "p99.9 ms", "errors"));
+        for (boolean virtualThreads : new boolean[]{false, true}) {
+            try (ConfigurableApplicationContext context = start(virtualThreads, catalogSize, latencyMillis, poolSize)) {
+                String baseUrl = "http://localhost:" + context.getEnvironment().getProperty("local.server.port") + "/api/v1/book/get/all";
+                String pool = context.getEnvironment().getProperty("spring.datasource.hikari.maximum-pool-size");
+                int pageCount = catalogSize / PAGE_SIZE;
+                // Short warm-up so the JIT and the connection pool are hot before measuring
+                runLoad(baseUrl, pageCount, concurrencyLevels[0], 3);
+                for (int concurrency : concurrencyLevels) {
+                    LoadResult result = runLoad(baseUrl, pageCount, concurrency, durationSeconds);
+                    report.add(String.format("%-8s %5s %11d %12.0f %10.2f %10.2f %10.2f %8d", virtualThreads ? "virtual" : "platform",
+                            pool, concurrency, result.requestsPerSecond(), result.percentileMillis(0.50),
+                            result.percentileMillis(0.99), result.percentileMillis(0.999), result.errors()));
+                }
+            }
+        }
+        System.out.println();
+        report.forEach(System.out::println);
+    }
+
+    private static ConfigurableApplicationContext start(boolean virtualThreads, int catalogSize, long latencyMillis, String poolSize) {
+        // Passed as command line arguments so they take precedence over application.properties
+        List<String> args = new ArrayList<>(List.of("--server.port=0",
+                "--spring.profiles.active=" + (virtualThreads ? "virtual" : "default"),
+                "--spring.threads.virtual.enabled=" + virtualThreads,
+                "--spring.datasource.url=jdbc:h2:mem:load-" + (virtualThreads ? "virtual" : "platform") + ";DB_CLOSE_DELAY=-1",
+                "--server.tomcat.max-connections=10000",
+                // Admission control would shed the paged reads past its search limit and measure the limiter
+                "--book.admission.enabled=false",
+                "--spring.main.banner-mode=off",
+                "--logging.level.root=WARN",
+                "--logging.level.com.mobilise=OFF"));
+        if (poolSize != null) {
+            args.add("--spring.datasource.hikari.maximum-pool-size=" + poolSize);
+        }
+        ConfigurableApplicationContext context = new SpringApplicationBuilder(BookManagementSystemApplication.class)
+                .initializers(applicationContext -> applicationContext.getBeanFactory().addBeanPostProcessor(new BeanPostProcessor() {
+                    @Override
+                    public Object postProcessAfterInitialization(Object bean, String beanName) {
+                        return bean instanceof DataSource dataSource ? new SlowDataSource(dataSource, latencyMillis) : bean;
+                    }
+                }))
+                .run(args.toArray(String[]::new));
+        BookServices bookServices = context.getBean(BookServices.class);
+        List<BookRequest> batch = new ArrayList<>(catalogSize);
+        for (int i = 0; i < catalogSize; i++) {
+            batch.add(BenchmarkBooks.request(i));
+        }
+        bookServices.addNewBooks(batch);
+        return context;
+    }
+
+    private static LoadResult runLoad(String baseUrl, int pageCount, int concurrency, int durationSeconds) throws Exception {
+        long deadline = System.nanoTime() + Duration.ofSeconds(durationSeconds).toNanos();
+        AtomicLong errors = new AtomicLong();
+        try (ExecutorService clients = Executors.newVirtualThreadPerTaskExecutor()) {
+            HttpClient httpClient = HttpClient.newBuilder().executor(clients).connectTimeout(Duration.ofSeconds(10)).build();
+            List<Future<long[]>> workers = new ArrayList<>();
+            for (int i = 0; i < concurrency; i++) {
+                workers.add(clients.submit(() -> {
+                    long[] latencies = new long[1024];
+                    int count = 0;
+                    while (System.nanoTime() < deadline) {
+                        URI uri = URI.create(baseUrl + "?pageSize=" + PAGE_SIZE + "&pageNo=" + ThreadLocalRandom.current().nextInt(pageCount));
+                        long start = System.nanoTime();
+                        try {
+                            HttpResponse<Void> response = httpClient.send(HttpRequest.newBuilder(uri).build(), HttpResponse.BodyHandlers.discarding());
+                            if (response.statusCode() != 200) {
+                                errors.incrementAndGet();
+                            }
+                        } catch (Exception e) {
+                            errors.incrementAndGet();
+                        }
+                        if (count == latencies.length) {
+                            latencies = Arrays.copyOf(latencies, count * 2);
+                        }
+                        latencies[count++] = System.nanoTime() - start;
+                    }
+                    return Arrays.copyOf(latencies, count);
+                }));
+            }
+            List<long[]> results = new ArrayList<>();
+            for (Future<long[]> worker : workers) {
+                results.add(worker.get());
+            }
+            long[] all = results.stream().flatMapToLong(Arrays::stream).sorted().toArray();
+            return new LoadResult(all, durationSeconds, errors.get());
+        }
+    }
+
+    private static Map<String, String> parseOptions(String[] args) {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            String[] pair = arg.replaceFirst("^--", "").split("=", 2);
+            options.put(pair[0], pair.length > 1 ? pair[1] : "true");
+        }
+        return options;
+    }
+
+    private record LoadResult(long[] sortedLatencies, int durationSeconds, long errors) {
+        double requestsPerSecond() {
+            return (double) sortedLatencies.length / durationSeconds;
+        }
+
+        double percentileMillis(double percentile) {
+            if (sortedLatencies.length == 0) {
+                return Double.NaN;
+            }
+            int index = (int) Math.min(sortedLatencies.length - 1, Math.ceil(percentile * sortedLatencies.length) - 1);
+            return sortedLatencies[Math.max(0, index)] / 1_000_000.0;
+        }
+    }
+
+    // Holds every checked-out connection for a fixed time, like the round trip to a remote database would.
+    private static class SlowDataSource extends DelegatingDataSource {
+        private final long latencyMillis;
+
+        SlowDataSource(DataSource target, long latencyMillis) {
+            super(target);
+            this.latencyMillis = latencyMillis;
+        }
+
+        @Override
+        public Connection getConnection() throws SQLException {
+            Connection connection = super.getConnection();
+            try {
+                Thread.sleep(latencyMillis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return connection;
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package com.mobilise.BookManagementSystem.benchmark;
+
+import com.mobilise.BookManagementSystem.dto.response.BookResponse;
+import com.mobilise.BookManagementSystem.entity.BookLibrary;
+import com.mobilise.BookManagementSystem.service.mapper.BookMapper;
+import com.mobilise.BookManagementSystem.service.mapper.BookMapperImpl;
+import org.modelmapper.ModelMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures mapping a BookLibrary entity to a BookResponse with the generated BookMapper against the reflective ModelMapper.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class MappingBenchmark {
+    private BookMapper bookMapper;
+    private ModelMapper modelMapper;
+    private BookLibrary bookLibrary;
+
+    @Setup
+    public void setUp() {
+        bookMapper = new BookMapperImpl();
+        modelMapper = new ModelMapper();
+        bookLibrary = BenchmarkBooks.entity(42);
+    }
+
+    @Benchmark
+    public BookResponse bookMapper() {
+        return bookMapper.mapBookLibraryToBookResponse(bookLibrary);
+    }
+
+    @Benchmark
+    public BookResponse modelMapper() {
+        return modelMapper.map(bookLibrary, BookResponse.class);
+    }
+}
@@ -0,0 +1,89 @@
+package com.mobilise.BookManagementSystem.benchmark;
+
+import com.mobilise.BookManagementSystem.exception.NotFoundException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the cost of reporting a missing book from below stackDepth frames, roughly the depth of a request
+ * that has gone through the servlet filters, Spring MVC, the @Timed aspect and the service:
+ * the previous flow (a miss thrown with a stack trace, caught by the service and rethrown as a second exception
+ * with its own stack trace), the current stackless NotFoundException thrown once, and an empty result value.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class NotFoundBenchmark {
+    @Param({"20", "100", "200"})
+    private int stackDepth;
+
+    private long id = 42;
+
+    @Benchmark
+    public String wrappedStackfulMiss() {
+        try {
+            return descend(stackDepth, this::rethrowWrapped);
+        } catch (StackfulNotFoundException ex) {
+            return ex.getMessage();
+        }
+    }
+
+    @Benchmark
+    public String stacklessMiss() {
+        try {
+            return descend(stackDepth, this::throwStackless);
+        } catch (NotFoundException ex) {
+            return ex.getMessage();
+        }
+    }
+
+    @Benchmark
+    public String emptyResult() {
+        return descend(stackDepth, () -> findBook().orElse("Book with id " + id + " does not exist"));
+    }
+
+    private String rethrowWrapped() {
+        try {
+            return findBook().orElseThrow(() -> new StackfulNotFoundException("Book with id " + id + " does not exist"));
+        } catch (Exception ex) {
+            throw new StackfulNotFoundException("Error Occurred while retrieving Book: " + ex.getMessage());
+        }
+    }
+
+    private String throwStackless() {
+        return findBook().orElseThrow(() -> new NotFoundException("Error Occurred while retrieving Book: Book with id " + id + " does not exist"));
+    }
+
+    private Optional<String> findBook() {
+        return Optional.empty();
+    }
+
+    private static String descend(int remaining, Lookup lookup) {
+        return remaining == 0 ? lookup.run() : descend(remaining - 1, lookup);
+    }
+
+    private interface Lookup {
+        String run();
+    }
+
+    // NotFoundException as it was before it stopped capturing stack traces
+    private static class StackfulNotFoundException extends RuntimeException {
+        private StackfulNotFoundException(String message) {
+            super(message);
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package com.mobilise.BookManagementSystem.benchmark;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.mobilise.BookManagementSystem.config.SerializationConfig;
+import com.mobilise.BookManagementSystem.dto.response.ApiResponse;
+import com.mobilise.BookManagementSystem.dto.response.PaginatedBookResponse;
+import com.mobilise.BookManagementSystem.util.ApiResponseUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the Jackson serialization of an ApiResponse wrapping a PaginatedBookResponse, as written by the controller.
+ * The bean format uses the reflective bean serializers; json and cbor use the hand-written book serializers
+ * registered by SerializationConfig, as the application context does.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SerializationBenchmark {
+    @Param({"10", "100", "1000"})
+    private int pageSize;
+    @Param({"bean", "json", "cbor"})
+    private String format;
+
+    private ObjectMapper objectMapper;
+    private ApiResponse apiResponse;
+
+    @Setup
+    public void setUp() {
+        // Same Jackson defaults as the application context
+        Jackson2ObjectMapperBuilder builder = Jackson2ObjectMapperBuilder.json()
+                .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        if (!format.equals("bean")) {
+            builder.modulesToInstall(new SerializationConfig().bookSerializationModule());
+        }
+        if (format.equals("cbor")) {
+            builder.factory(new CBORFactory());
+        }
+        objectMapper = builder.build();
+        PaginatedBookResponse page = PaginatedBookResponse.builder()
+                .contents(BenchmarkBooks.responses(pageSize))
+                .pageElementCount(pageSize)
+                .pageSize(pageSize)
+                .build();
+        apiResponse = ApiResponseUtils.buildSuccessResponse(page, HttpStatus.OK);
+    }
+
+    @Benchmark
+    public byte[] serializePage() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(apiResponse);
+    }
+}
@@ -0,0 +1,52 @@
+package com.mobilise.BookManagementSystem.benchmark;
+
+import com.mobilise.BookManagementSystem.exception.ValidTitleException;
+import com.mobilise.BookManagementSystem.validator.BookInfoValidations;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+/**
+ * Measures BookInfoValidations.validateTitle, whose String.matches call compiles the title regex on every call,
+ * against the same check done with a precompiled Pattern.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ValidationBenchmark {
+    private static final Pattern TITLE_PATTERN = Pattern.compile("^[a-zA-Z0-9 ]+$");
+
+    private BookInfoValidations bookInfoValidations;
+    private String title;
+
+    @Setup
+    public void setUp() {
+        // validateTitle only inspects its argument, so no repository or title filter is needed
+        bookInfoValidations = new BookInfoValidations(null, null);
+        title = "Mobilise 100Plus Success";
+    }
+
+    @Benchmark
+    public String validateTitle() throws ValidTitleException {
+        bookInfoValidations.validateTitle(title);
+        return title;
+    }
+
+    @Benchmark
+    public boolean precompiledTitlePattern() {
+        return title.length() >= 2 && title.length() <= 50 && TITLE_PATTERN.matcher(title).matches();
+    }
+}
@@ -0,0 +1,67 @@
+package com.mobilise.BookManagementSystem.config;
+
+import com.mobilise.BookManagementSystem.service.cache.CatalogVersion;
+import com.mobilise.BookManagementSystem.service.replica.LocalReplica;
+import com.mobilise.BookManagementSystem.service.replica.ReadWriteRoutingDataSource;
+import com.mobilise.BookManagementSystem.service.replica.ReplicaRouting;
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+
+@Configuration
+@ConditionalOnProperty(name = "book.datasource.replica.enabled", havingValue = "true")
+public class DataSourceRoutingConfig {
+    // The primary pool, configured by the spring.datasource properties, which receives every write.
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        dataSource.setPoolName("primary");
+        return dataSource;
+    }
+
+    // The read pool, configured by the book.datasource.replica properties, which receives read-only transactions.
+    @Bean
+    public HikariDataSource replicaDataSource(@Value("${book.datasource.replica.url}") String url,
+                                              @Value("${book.datasource.replica.username:sa}") String username,
+                                              @Value("${book.datasource.replica.password:}") String password,
+                                              @Value("${book.datasource.replica.maximum-pool-size:10}") int maximumPoolSize) {
+        HikariDataSource dataSource = DataSourceBuilder.create().type(HikariDataSource.class)
+                .url(url).username(username).password(password).build();
+        dataSource.setPoolName("replica");
+        dataSource.setMaximumPoolSize(maximumPoolSize);
+        return dataSource;
+    }
+
+    // The DataSource used by JPA and JdbcTemplate; the lazy proxy defers the routing decision until the transaction is set up.
+    @Bean
+    @Primary
+    public DataSource dataSource(@Qualifier("primaryDataSource") DataSource primaryDataSource,
+                                 @Qualifier("replicaDataSource") DataSource replicaDataSource,
+                                 ReplicaRouting replicaRouting) {
+        ReadWriteRoutingDataSource routingDataSource = new ReadWriteRoutingDataSource(primaryDataSource, replicaDataSource, replicaRouting);
+        routingDataSource.afterPropertiesSet();
+        return new LazyConnectionDataSourceProxy(routingDataSource);
+    }
+
+    @Bean
+    public LocalReplica localReplica(@Qualifier("replicaDataSource") DataSource replicaDataSource,
+                                     DataSourceProperties properties,
+                                     CatalogVersion catalogVersion,
+                                     ReplicaRouting replicaRouting,
+                                     @Value("${book.datasource.replica.sync-interval:500ms}") Duration syncInterval) {
+        return new LocalReplica(replicaDataSource, properties.determineUrl(), properties.determineUsername(),
+                properties.determinePassword(), catalogVersion, replicaRouting, syncInterval);
+    }
+}
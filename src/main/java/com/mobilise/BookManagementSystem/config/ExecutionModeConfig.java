@@ -0,0 +1,40 @@
+package com.mobilise.BookManagementSystem.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.event.EventListener;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+
+@Slf4j
+@Configuration
+public class ExecutionModeConfig {
+    @Value("${spring.threads.virtual.enabled:false}")
+    private boolean virtualThreads;
+    @Value("${server.tomcat.threads.max:200}")
+    private int maxPlatformThreads;
+
+    // Logs the selected request execution mode next to the connection pool size that bounds concurrent JDBC work.
+    @EventListener(ApplicationReadyEvent.class)
+    public void logExecutionMode(ApplicationReadyEvent event) {
+        DataSource dataSource = event.getApplicationContext().getBean(DataSource.class);
+        String poolSize = "unknown";
+        try {
+            // Unwraps the primary pool when reads and writes are routed to separate pools
+            if (dataSource.isWrapperFor(HikariDataSource.class)) {
+                poolSize = String.valueOf(dataSource.unwrap(HikariDataSource.class).getMaximumPoolSize());
+            }
+        } catch (SQLException e) {
+            log.debug("Could not determine the connection pool size: {}", e.getMessage());
+        }
+        if (virtualThreads) {
+            log.info("Requests run on virtual threads; concurrent JDBC work is bounded by the connection pool of {}", poolSize);
+        } else {
+            log.info("Requests run on up to {} platform threads sharing a connection pool of {}", maxPlatformThreads, poolSize);
+        }
+    }
+}
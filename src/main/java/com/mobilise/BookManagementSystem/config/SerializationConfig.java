@@ -0,0 +1,31 @@
+package com.mobilise.BookManagementSystem.config;
+
+import com.fasterxml.jackson.databind.Module;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.mobilise.BookManagementSystem.dto.response.BookResponse;
+import com.mobilise.BookManagementSystem.dto.response.PaginatedBookResponse;
+import com.mobilise.BookManagementSystem.dto.serializer.BookResponseSerializer;
+import com.mobilise.BookManagementSystem.dto.serializer.PaginatedBookResponseSerializer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+@Configuration
+public class SerializationConfig {
+    // Registered with every ObjectMapper built by Spring Boot, so the book payloads skip bean introspection in every format.
+    @Bean
+    public Module bookSerializationModule() {
+        return new SimpleModule("BookSerializationModule")
+                .addSerializer(BookResponse.class, new BookResponseSerializer())
+                .addSerializer(PaginatedBookResponse.class, new PaginatedBookResponseSerializer());
+    }
+
+    // Serves Accept: application/cbor with the same modules and features as the JSON converter.
+    // It is ordered after the JSON converter, so clients that accept anything still get JSON.
+    @Bean
+    public MappingJackson2CborHttpMessageConverter cborHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+        return new MappingJackson2CborHttpMessageConverter(builder.factory(new CBORFactory()).build());
+    }
+}
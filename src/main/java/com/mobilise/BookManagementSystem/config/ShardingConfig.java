@@ -0,0 +1,23 @@
+package com.mobilise.BookManagementSystem.config;
+
+import com.mobilise.BookManagementSystem.service.shard.BookShards;
+import com.mobilise.BookManagementSystem.service.shard.ShardConnectionProvider;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@ConditionalOnExpression("${book.sharding.shard-count:1} > 1")
+public class ShardingConfig {
+    // Makes every shard a Hibernate tenant, so each session uses the connections of the shard selected by BookShards
+    // and the pooled id generator hands out a separate block of ids per shard, each within that shard's range.
+    @Bean
+    public HibernatePropertiesCustomizer shardTenancyCustomizer(BookShards bookShards) {
+        return properties -> {
+            properties.put(AvailableSettings.MULTI_TENANT_CONNECTION_PROVIDER, new ShardConnectionProvider(bookShards));
+            properties.put(AvailableSettings.MULTI_TENANT_IDENTIFIER_RESOLVER, bookShards);
+        };
+    }
+}
@@ -0,0 +1,15 @@
+package com.mobilise.BookManagementSystem.controller;
+
+import com.mobilise.BookManagementSystem.service.admission.EndpointClass;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+// Puts a controller method under the concurrency limit of the given endpoint class, see AdmissionControlInterceptor.
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface AdmissionClass {
+    EndpointClass value();
+}
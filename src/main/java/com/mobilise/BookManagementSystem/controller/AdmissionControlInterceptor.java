@@ -0,0 +1,49 @@
+package com.mobilise.BookManagementSystem.controller;
+
+import com.mobilise.BookManagementSystem.service.admission.AdmissionControl;
+import com.mobilise.BookManagementSystem.service.admission.EndpointClass;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+/**
+ * Admits the requests of controller methods annotated with AdmissionClass through AdmissionControl.
+ * A rejected request never reaches the controller: the OverloadedException is turned into a 503 response with a
+ * Retry-After header by the GlobalExceptionHandler. Admitted requests report their latency once completed, and count
+ * as failed when they end with a server error. Methods without the annotation, such as the long-lived export and
+ * change stream, are not limited.
+ */
+@Component
+@RequiredArgsConstructor
+public class AdmissionControlInterceptor implements HandlerInterceptor {
+    private static final String ADMITTED_CLASS = AdmissionControlInterceptor.class.getName() + ".class";
+    private static final String ADMITTED_AT = AdmissionControlInterceptor.class.getName() + ".admittedAt";
+
+    private final AdmissionControl admissionControl;
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (!admissionControl.isEnabled() || !(handler instanceof HandlerMethod method)) {
+            return true;
+        }
+        AdmissionClass admissionClass = method.getMethodAnnotation(AdmissionClass.class);
+        if (admissionClass != null) {
+            admissionControl.acquire(admissionClass.value());
+            request.setAttribute(ADMITTED_CLASS, admissionClass.value());
+            request.setAttribute(ADMITTED_AT, System.nanoTime());
+        }
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        if (request.getAttribute(ADMITTED_CLASS) instanceof EndpointClass endpointClass) {
+            request.removeAttribute(ADMITTED_CLASS);
+            long admittedAt = (Long) request.getAttribute(ADMITTED_AT);
+            admissionControl.release(endpointClass, admittedAt, System.nanoTime() - admittedAt, ex != null || response.getStatus() >= 500);
+        }
+    }
+}
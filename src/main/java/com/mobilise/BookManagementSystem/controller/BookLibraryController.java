@@ -2,19 +2,41 @@ package com.mobilise.BookManagementSystem.controller;
 
 import com.mobilise.BookManagementSystem.dto.request.BookRequest;
 import com.mobilise.BookManagementSystem.dto.response.ApiResponse;
+import com.mobilise.BookManagementSystem.dto.response.BatchBookResponse;
+import com.mobilise.BookManagementSystem.dto.response.BookChangesResponse;
 import com.mobilise.BookManagementSystem.dto.response.BookResponse;
+import com.mobilise.BookManagementSystem.dto.response.BulkDeleteResponse;
+import com.mobilise.BookManagementSystem.dto.response.CacheStatsResponse;
+import com.mobilise.BookManagementSystem.dto.response.FacetResponse;
+import com.mobilise.BookManagementSystem.dto.response.MultiGetBookResponse;
 import com.mobilise.BookManagementSystem.dto.response.PaginatedBookResponse;
+import com.mobilise.BookManagementSystem.dto.response.SnapshotResponse;
+import com.mobilise.BookManagementSystem.dto.response.StockResponse;
+import com.mobilise.BookManagementSystem.exception.ValidTitleException;
 import com.mobilise.BookManagementSystem.service.BookServices;
+import com.mobilise.BookManagementSystem.service.admission.EndpointClass;
+import com.mobilise.BookManagementSystem.service.cache.VersionedBookResponse;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import java.io.IOException;
+import java.time.Instant;
+import java.time.LocalDateTime;
 import java.time.Year;
+import java.time.ZoneId;
+import java.time.temporal.ChronoUnit;
 import java.util.List;
 
 import static com.mobilise.BookManagementSystem.util.ApiResponseUtils.buildSuccessResponse;
@@ -36,42 +58,96 @@ public class BookLibraryController {
             description = "This REST API is used to Add a New Book to a Database"
     )
     @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "200", description = "HTTP Status 200 OK")
+    @AdmissionClass(EndpointClass.WRITE)
     @PostMapping("/add")
     public ResponseEntity<ApiResponse> addNewBook(@RequestBody BookRequest bookRequest) {
             BookResponse response = bookServices.addNewBook(bookRequest);
             return ResponseEntity.status(HttpStatus.OK).body(buildSuccessResponse(response, HttpStatus.OK));
         }
 
+    @Operation(
+            summary = "Add New Books in Batch REST API",
+            description = "This REST API is used to Add a List of New Books to a Database and report the result of every item"
+    )
+    @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "200", description = "HTTP Status 200 OK")
+    @AdmissionClass(EndpointClass.WRITE)
+    @PostMapping("/add/batch")
+    public ResponseEntity<ApiResponse> addNewBooks(@RequestBody List<BookRequest> bookRequests) {
+        BatchBookResponse response = bookServices.addNewBooks(bookRequests);
+        return ResponseEntity.status(HttpStatus.OK).body(buildSuccessResponse(response, HttpStatus.OK));
+    }
+
     @Operation(
             summary = "Get All Books with Pagination REST API",
-            description = "This REST API is used to Retrieve All Books with Pagination"
+            description = "This REST API is used to Retrieve All Books with Pagination. Pass a cursor (empty for the first slice) to use keyset pagination"
     )
     @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "200", description = "HTTP Status 200 OK")
+    @AdmissionClass(EndpointClass.SEARCH)
     @GetMapping("/get/all")
-    public ResponseEntity<ApiResponse> getAllBooksWithPagination(@RequestParam(defaultValue = "0") int pageNo, @RequestParam(defaultValue = "10") int pageSize) {
-            PaginatedBookResponse response = bookServices.getAllBooksWithPagination(pageNo, pageSize);
-            return ResponseEntity.status(HttpStatus.OK).body(buildSuccessResponse(response, HttpStatus.OK));
+    public ResponseEntity<ApiResponse> getAllBooksWithPagination(@RequestParam(defaultValue = "0") int pageNo, @RequestParam(defaultValue = "10") int pageSize,
+                                                                 @RequestParam(required = false) String cursor, @RequestParam(defaultValue = "id") String sortBy,
+                                                                 WebRequest webRequest) {
+            if (isCatalogNotModified(webRequest)) {
+                return null;
+            }
+            // Passing a cursor (an empty one for the first slice) switches to keyset pagination
+            PaginatedBookResponse response = cursor != null
+                    ? bookServices.getAllBooksWithCursor(cursor, pageSize, sortBy)
+                    : bookServices.getAllBooksWithPagination(pageNo, pageSize);
+            return ResponseEntity.status(HttpStatus.OK).cacheControl(CacheControl.noCache()).body(buildSuccessResponse(response, HttpStatus.OK));
         }
+    @Operation(
+            summary = "Export All Books REST API",
+            description = "This REST API is used to Stream the whole Book catalog as newline-delimited JSON"
+    )
+    @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "200", description = "HTTP Status 200 OK")
+    @GetMapping(value = "/export", produces = "application/x-ndjson")
+    public void exportCatalog(HttpServletResponse response) throws IOException {
+        response.setContentType("application/x-ndjson");
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"books.ndjson\"");
+        bookServices.exportCatalog(response.getOutputStream());
+    }
+
     @Operation(
             summary = "Get Book by ID REST API",
             description = "This REST API is used to Retrieve a Book by ID"
     )
     @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "200", description = "HTTP Status 200 OK")
+        @AdmissionClass(EndpointClass.POINT_READ)
         @GetMapping("/get/by/id/{id}")
-        public ResponseEntity<ApiResponse> getBookById(@PathVariable Long id) {
-            BookResponse response = bookServices.getBookById(id);
-            return ResponseEntity.status(HttpStatus.OK).body(buildSuccessResponse(response, HttpStatus.OK));
+        public ResponseEntity<ApiResponse> getBookById(@PathVariable Long id, WebRequest webRequest) {
+            VersionedBookResponse book = bookServices.getVersionedBookById(id);
+            if (book.getUpdatedDate() != null && isBookNotModified(webRequest, id, book.getUpdatedDate())) {
+                return null;
+            }
+            return ResponseEntity.status(HttpStatus.OK).cacheControl(CacheControl.noCache()).body(buildSuccessResponse(book.getResponse(), HttpStatus.OK));
         }
 
+    @Operation(
+            summary = "Get Books by IDs REST API",
+            description = "This REST API is used to Retrieve up to 500 Books by ID in one call, in the order of the IDs, marking the IDs without a Book as not found"
+    )
+    @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "200", description = "HTTP Status 200 OK")
+    @AdmissionClass(EndpointClass.POINT_READ)
+    @GetMapping("/get/by/ids")
+    public ResponseEntity<ApiResponse> getBooksByIds(@RequestParam List<Long> ids) {
+        MultiGetBookResponse response = bookServices.getBooksByIds(ids);
+        return ResponseEntity.status(HttpStatus.OK).body(buildSuccessResponse(response, HttpStatus.OK));
+    }
+
     @Operation(
             summary = "Search Books by Title or Author or ISBN REST API",
             description = "This REST API is used to Search Books by Title, Author or ISBN"
     )
     @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "200", description = "HTTP Status 200 OK")
+    @AdmissionClass(EndpointClass.SEARCH)
     @GetMapping("/search/by/searchText/{searchText}")
-    public ResponseEntity<ApiResponse> searchBookByTitleOrAuthorOrIsbn(@PathVariable String searchText) {
+    public ResponseEntity<ApiResponse> searchBookByTitleOrAuthorOrIsbn(@PathVariable String searchText, WebRequest webRequest) {
+            if (isCatalogNotModified(webRequest)) {
+                return null;
+            }
             List<BookResponse> response = bookServices.searchBookByTitleOrAuthorOrIsbn(searchText);
-            return ResponseEntity.status(HttpStatus.OK).body(buildSuccessResponse(response, HttpStatus.OK));
+            return ResponseEntity.status(HttpStatus.OK).cacheControl(CacheControl.noCache()).body(buildSuccessResponse(response, HttpStatus.OK));
         }
 
     @Operation(
@@ -79,10 +155,28 @@ public class BookLibraryController {
             description = "This REST API is used to Search Books by Publication Year"
     )
     @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "200", description = "HTTP Status 200 OK")
+    @AdmissionClass(EndpointClass.SEARCH)
     @GetMapping("search/by/publicationYear/{publicationYear}")
-    public ResponseEntity<ApiResponse> searchBookByPublicationYear(@PathVariable Year publicationYear) {
+    public ResponseEntity<ApiResponse> searchBookByPublicationYear(@PathVariable Year publicationYear, WebRequest webRequest) {
+        if (isCatalogNotModified(webRequest)) {
+            return null;
+        }
         List<BookResponse> response = bookServices.searchBookByPublicationYear(publicationYear);
-        return ResponseEntity.status(HttpStatus.OK).body(buildSuccessResponse(response, HttpStatus.OK));
+        return ResponseEntity.status(HttpStatus.OK).cacheControl(CacheControl.noCache()).body(buildSuccessResponse(response, HttpStatus.OK));
+    }
+
+    @Operation(
+            summary = "Get Book Facets REST API",
+            description = "This REST API is used to Retrieve the Number of Books per Publication Year and per Author"
+    )
+    @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "200", description = "HTTP Status 200 OK")
+    @GetMapping("/facets")
+    public ResponseEntity<ApiResponse> getBookFacets(@RequestParam(defaultValue = "50") int authorLimit, WebRequest webRequest) {
+        if (isCatalogNotModified(webRequest)) {
+            return null;
+        }
+        FacetResponse response = bookServices.getBookFacets(authorLimit);
+        return ResponseEntity.status(HttpStatus.OK).cacheControl(CacheControl.noCache()).body(buildSuccessResponse(response, HttpStatus.OK));
     }
 
     @Operation(
@@ -90,20 +184,146 @@ public class BookLibraryController {
             description = "This REST API is used to Update Book Details by ID"
     )
     @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "200", description = "HTTP Status 200 OK")
+    @AdmissionClass(EndpointClass.WRITE)
     @PutMapping("/update/by/id/{id}")
-    public ResponseEntity<ApiResponse> updateBookDetails(@PathVariable Long id, @Valid @RequestBody BookRequest updateRequest) {
+    public ResponseEntity<ApiResponse> updateBookDetails(@PathVariable Long id, @Valid @RequestBody BookRequest updateRequest) throws ValidTitleException {
             BookResponse response = bookServices.updateBook(id, updateRequest);
             return ResponseEntity.status(HttpStatus.OK).body(buildSuccessResponse(response, HttpStatus.OK));
         }
 
+    @Operation(
+            summary = "Patch Book Details by ID REST API",
+            description = "This REST API is used to Update only the Given Book Details by ID, writing only the Changed Columns"
+    )
+    @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "200", description = "HTTP Status 200 OK")
+    @AdmissionClass(EndpointClass.WRITE)
+    @PatchMapping("/update/by/id/{id}")
+    public ResponseEntity<ApiResponse> patchBookDetails(@PathVariable Long id, @RequestBody BookRequest patchRequest) throws ValidTitleException {
+        BookResponse response = bookServices.patchBook(id, patchRequest);
+        return ResponseEntity.status(HttpStatus.OK).body(buildSuccessResponse(response, HttpStatus.OK));
+    }
+
+    @Operation(
+            summary = "Checkout Book Copies by ID REST API",
+            description = "This REST API is used to Lend Copies of a Book and return the Remaining Stock, without ever letting it drop below zero"
+    )
+    @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "200", description = "HTTP Status 200 OK")
+    @AdmissionClass(EndpointClass.WRITE)
+    @PostMapping("/checkout/by/id/{id}")
+    public ResponseEntity<ApiResponse> checkoutBook(@PathVariable Long id, @RequestParam(defaultValue = "1") int copies) {
+        StockResponse response = bookServices.checkoutBook(id, copies);
+        return ResponseEntity.status(HttpStatus.OK).body(buildSuccessResponse(response, HttpStatus.OK));
+    }
+
+    @Operation(
+            summary = "Return Book Copies by ID REST API",
+            description = "This REST API is used to Return Copies of a Book to the Stock and return the Remaining Stock"
+    )
+    @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "200", description = "HTTP Status 200 OK")
+    @AdmissionClass(EndpointClass.WRITE)
+    @PostMapping("/return/by/id/{id}")
+    public ResponseEntity<ApiResponse> returnBook(@PathVariable Long id, @RequestParam(defaultValue = "1") int copies) {
+        StockResponse response = bookServices.returnBook(id, copies);
+        return ResponseEntity.status(HttpStatus.OK).body(buildSuccessResponse(response, HttpStatus.OK));
+    }
+
     @Operation(
             summary = "Delete Book by ID REST API",
             description = "This REST API is used to Delete a Book by ID"
     )
     @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "200", description = "HTTP Status 200 OK")
+    @AdmissionClass(EndpointClass.WRITE)
     @DeleteMapping("/delete/by/id/{id}")
     public ResponseEntity<ApiResponse> deleteBookById(@PathVariable Long id) {
         ApiResponse response = bookServices.deleteBookById(id);
         return ResponseEntity.status(HttpStatus.OK).body(buildSuccessResponse(response, HttpStatus.OK));
         }
+
+    @Operation(
+            summary = "Delete Books in Batch by ID REST API",
+            description = "This REST API is used to Delete a List of Books by ID and report how many were Deleted"
+    )
+    @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "200", description = "HTTP Status 200 OK")
+    @AdmissionClass(EndpointClass.WRITE)
+    @DeleteMapping("/delete/batch")
+    public ResponseEntity<ApiResponse> deleteBooksByIds(@RequestBody List<Long> ids) {
+        BulkDeleteResponse response = bookServices.deleteBooksByIds(ids);
+        return ResponseEntity.status(HttpStatus.OK).body(buildSuccessResponse(response, HttpStatus.OK));
+    }
+
+    @Operation(
+            summary = "Delete Books by Publication Year and/or Author REST API",
+            description = "This REST API is used to Delete every Book matching a Publication Year, an Author, or both, and report how many were Deleted"
+    )
+    @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "200", description = "HTTP Status 200 OK")
+    @AdmissionClass(EndpointClass.WRITE)
+    @DeleteMapping("/delete/by/predicate")
+    public ResponseEntity<ApiResponse> deleteBooksByPredicate(@RequestParam(required = false) Year publicationYear,
+                                                              @RequestParam(required = false) String author) {
+        BulkDeleteResponse response = bookServices.deleteBooksByPredicate(publicationYear, author);
+        return ResponseEntity.status(HttpStatus.OK).body(buildSuccessResponse(response, HttpStatus.OK));
+    }
+
+    @Operation(
+            summary = "Get Book Changes REST API",
+            description = "This REST API is used to Retrieve the Books Added, Updated or Deleted after a Cursor. Pass the nextCursor of the previous call (empty for a full sync)"
+    )
+    @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "200", description = "HTTP Status 200 OK")
+    @AdmissionClass(EndpointClass.SEARCH)
+    @GetMapping("/changes")
+    public ResponseEntity<ApiResponse> getChangesSince(@RequestParam(required = false) String cursor,
+                                                       @RequestParam(defaultValue = "500") int limit) {
+        BookChangesResponse response = bookServices.getChangesSince(cursor, limit);
+        return ResponseEntity.status(HttpStatus.OK).body(buildSuccessResponse(response, HttpStatus.OK));
+    }
+
+    @Operation(
+            summary = "Stream Book Changes REST API",
+            description = "This REST API is used to Subscribe to Server-Sent Events for every Book Added, Updated or Deleted, resuming after the Last-Event-ID header"
+    )
+    @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "200", description = "HTTP Status 200 OK")
+    @GetMapping(value = "/changes/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamChanges(@RequestHeader(value = "Last-Event-ID", required = false) String lastEventId) {
+        return bookServices.streamChanges(lastEventId);
+    }
+
+    @Operation(
+            summary = "Save Catalog Snapshot REST API",
+            description = "This REST API is used to Write the whole Catalog to the Snapshot File that is Restored on the next Start"
+    )
+    @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "200", description = "HTTP Status 200 OK")
+    @PostMapping("/snapshot")
+    public ResponseEntity<ApiResponse> saveCatalogSnapshot() {
+        SnapshotResponse response = bookServices.saveCatalogSnapshot();
+        return ResponseEntity.status(HttpStatus.OK).body(buildSuccessResponse(response, HttpStatus.OK));
+    }
+
+    @Operation(
+            summary = "Get Book Cache Statistics REST API",
+            description = "This REST API is used to Retrieve the hit, miss and eviction counters of the Get Book by ID cache"
+    )
+    @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "200", description = "HTTP Status 200 OK")
+    @GetMapping("/cache/stats")
+    public ResponseEntity<ApiResponse> getBookCacheStats() {
+        CacheStatsResponse response = bookServices.getBookCacheStats();
+        return ResponseEntity.status(HttpStatus.OK).body(buildSuccessResponse(response, HttpStatus.OK));
+    }
+
+    /**
+     * Checks the conditional request headers against the updatedDate of a book.
+     * The ETag and Last-Modified headers are set on the response either way; when the client copy is current,
+     * the response status is set to 304 and the caller must return without a body.
+     * Last-Modified has a one-second resolution, so clients should prefer If-None-Match.
+     */
+    private static boolean isBookNotModified(WebRequest webRequest, Long id, LocalDateTime updatedDate) {
+        Instant instant = updatedDate.atZone(ZoneId.systemDefault()).toInstant();
+        String eTag = "\"book-" + id + "-" + ChronoUnit.MICROS.between(Instant.EPOCH, instant) + "\"";
+        return webRequest.checkNotModified(eTag, instant.toEpochMilli());
+    }
+
+    // Same as isBookNotModified, for responses spanning several books, using the catalog version as the validator.
+    private boolean isCatalogNotModified(WebRequest webRequest) {
+        long version = bookServices.getCatalogVersion();
+        return webRequest.checkNotModified("\"catalog-" + version + "\"", version);
     }
+}
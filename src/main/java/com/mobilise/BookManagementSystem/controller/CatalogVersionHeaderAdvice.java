@@ -0,0 +1,40 @@
+package com.mobilise.BookManagementSystem.controller;
+
+import com.mobilise.BookManagementSystem.service.cache.CatalogVersion;
+import com.mobilise.BookManagementSystem.service.replica.ReplicaRouting;
+import lombok.RequiredArgsConstructor;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyAdvice;
+
+/**
+ * Adds the X-Catalog-Version header to the responses of write requests while read/write routing is enabled,
+ * so clients can send it back on later requests to read their own writes, see ReplicaRoutingFilter.
+ * The version is read after the write has been committed and counted, so it is never older than the write.
+ */
+@ControllerAdvice
+@RequiredArgsConstructor
+public class CatalogVersionHeaderAdvice implements ResponseBodyAdvice<Object> {
+    private final ReplicaRouting replicaRouting;
+    private final CatalogVersion catalogVersion;
+
+    @Override
+    public boolean supports(MethodParameter returnType, Class<? extends HttpMessageConverter<?>> converterType) {
+        return replicaRouting.isEnabled();
+    }
+
+    @Override
+    public Object beforeBodyWrite(Object body, MethodParameter returnType, MediaType selectedContentType,
+                                  Class<? extends HttpMessageConverter<?>> selectedConverterType,
+                                  ServerHttpRequest request, ServerHttpResponse response) {
+        if (!HttpMethod.GET.equals(request.getMethod()) && !HttpMethod.HEAD.equals(request.getMethod())) {
+            response.getHeaders().set(ReplicaRouting.CATALOG_VERSION_HEADER, String.valueOf(catalogVersion.current()));
+        }
+        return body;
+    }
+}
@@ -0,0 +1,50 @@
+package com.mobilise.BookManagementSystem.controller;
+
+import com.mobilise.BookManagementSystem.service.replica.ReplicaRouting;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpMethod;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+/**
+ * Scopes the read-your-writes state of ReplicaRouting to one request.
+ * Write requests (anything but GET and HEAD) read from the primary from the start, so a book is never updated
+ * from a stale replica copy. A client that sends back the X-Catalog-Version of one of its writes only reads
+ * from the replica once the replica has applied that version.
+ */
+@Component
+@RequiredArgsConstructor
+public class ReplicaRoutingFilter extends OncePerRequestFilter {
+    private final ReplicaRouting replicaRouting;
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        if (!replicaRouting.isEnabled()) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+        try {
+            if (!HttpMethod.GET.matches(request.getMethod()) && !HttpMethod.HEAD.matches(request.getMethod())) {
+                replicaRouting.markWritten();
+            }
+            String version = request.getHeader(ReplicaRouting.CATALOG_VERSION_HEADER);
+            if (version != null) {
+                try {
+                    replicaRouting.requireVersion(Long.parseLong(version.trim()));
+                } catch (NumberFormatException ignored) {
+                    // A malformed version is ignored, so the request reads whatever the routing allows
+                }
+            }
+            filterChain.doFilter(request, response);
+        } finally {
+            replicaRouting.clear();
+        }
+    }
+}
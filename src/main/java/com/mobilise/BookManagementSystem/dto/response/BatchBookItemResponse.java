@@ -0,0 +1,19 @@
+package com.mobilise.BookManagementSystem.dto.response;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class BatchBookItemResponse {
+    private int index;
+    private boolean created;
+    private BookResponse book;
+    private String error;
+}
@@ -0,0 +1,15 @@
+package com.mobilise.BookManagementSystem.dto.response;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+@Builder
+public class BatchBookResponse {
+    private int requestedCount;
+    private int createdCount;
+    private int failedCount;
+    private List<BatchBookItemResponse> items;
+}
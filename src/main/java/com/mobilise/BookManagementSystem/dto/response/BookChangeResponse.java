@@ -0,0 +1,45 @@
+package com.mobilise.BookManagementSystem.dto.response;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.time.Year;
+
+/**
+ * One change of the catalog, as returned by the changes API and pushed by the change feed.
+ * UPDATED and CREATED carry the book as it is after the change, STOCK_CHANGED only the new quantity,
+ * and DELETED only the id of the book that no longer exists.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class BookChangeResponse {
+    public enum ChangeType { CREATED, UPDATED, STOCK_CHANGED, DELETED }
+
+    private ChangeType type;
+    private Long bookId;
+    private BookResponse book;
+    private Integer quantity;
+    private LocalDateTime changedAt;
+
+    // Projection of a BookLibrary row changed since a watermark; the changes API reports every such row as UPDATED.
+    public BookChangeResponse(Long id, String title, String author, String isbn, Integer quantity, Year publicationYear,
+                              LocalDateTime updatedDate) {
+        this(ChangeType.UPDATED, id, new BookResponse(id, title, author, isbn, quantity, publicationYear), null, updatedDate);
+    }
+
+    // Projection of a BookTombstone row.
+    public BookChangeResponse(Long bookId, LocalDateTime deletedDate) {
+        this(ChangeType.DELETED, bookId, null, null, deletedDate);
+    }
+
+    public static BookChangeResponse of(ChangeType type, BookResponse book, LocalDateTime changedAt) {
+        return new BookChangeResponse(type, book.getId(), book, null, changedAt);
+    }
+}
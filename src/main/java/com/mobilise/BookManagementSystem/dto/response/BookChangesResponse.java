@@ -0,0 +1,16 @@
+package com.mobilise.BookManagementSystem.dto.response;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+@Builder
+public class BookChangesResponse {
+    private List<BookChangeResponse> changes;
+    private int changeCount;
+    // Pass it back as the cursor of the next call; it is returned even when there were no changes
+    private String nextCursor;
+    private boolean hasMore;
+}
@@ -0,0 +1,11 @@
+package com.mobilise.BookManagementSystem.dto.response;
+
+import lombok.Builder;
+import lombok.Data;
+
+@Data
+@Builder
+public class BulkDeleteResponse {
+    private int requestedCount;
+    private int deletedCount;
+}
@@ -0,0 +1,15 @@
+package com.mobilise.BookManagementSystem.dto.response;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.time.Year;
+import java.util.Map;
+
+@Data
+@Builder
+public class FacetResponse {
+    private long totalBooks;
+    private Map<Year, Long> publicationYears;
+    private Map<String, Long> authors;
+}
@@ -0,0 +1,18 @@
+package com.mobilise.BookManagementSystem.dto.response;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class MultiGetBookItemResponse {
+    private Long id;
+    private boolean found;
+    private BookResponse book;
+}
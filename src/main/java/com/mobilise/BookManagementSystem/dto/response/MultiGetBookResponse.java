@@ -0,0 +1,15 @@
+package com.mobilise.BookManagementSystem.dto.response;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+@Builder
+public class MultiGetBookResponse {
+    private int requestedCount;
+    private int foundCount;
+    private int missingCount;
+    private List<MultiGetBookItemResponse> items;
+}
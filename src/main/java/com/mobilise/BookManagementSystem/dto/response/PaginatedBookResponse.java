@@ -1,5 +1,6 @@
 package com.mobilise.BookManagementSystem.dto.response;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import lombok.Builder;
 import lombok.Data;
 
@@ -11,4 +12,6 @@ public class PaginatedBookResponse {
     private List<BookResponse> contents;
     private int pageElementCount;
     private int pageSize;
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private String nextCursor;
 }
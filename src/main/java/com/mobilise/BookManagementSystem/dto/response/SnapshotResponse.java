@@ -0,0 +1,13 @@
+package com.mobilise.BookManagementSystem.dto.response;
+
+import lombok.Builder;
+import lombok.Data;
+
+@Data
+@Builder
+public class SnapshotResponse {
+    private String path;
+    private long bookCount;
+    private long sizeBytes;
+    private long durationMillis;
+}
@@ -0,0 +1,12 @@
+package com.mobilise.BookManagementSystem.dto.response;
+
+import lombok.Builder;
+import lombok.Data;
+
+@Data
+@Builder
+public class StockResponse {
+    private Long bookId;
+    private int copies;
+    private int remainingQuantity;
+}
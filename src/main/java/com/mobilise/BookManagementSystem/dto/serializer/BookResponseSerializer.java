@@ -0,0 +1,67 @@
+package com.mobilise.BookManagementSystem.dto.serializer;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.ser.ResolvableSerializer;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+import com.mobilise.BookManagementSystem.dto.response.BookResponse;
+
+import java.io.IOException;
+import java.time.Year;
+
+/**
+ * Writes a BookResponse field by field, producing the same output as the reflective bean serializer
+ * (same property names, order and null handling) without introspecting the class or calling getters through reflection.
+ * Being token based, it serves every format of the ObjectMapper it is registered with, JSON and CBOR alike.
+ * The publicationYear is delegated to the Year serializer of the mapper, so it follows the configured date format.
+ */
+public class BookResponseSerializer extends StdSerializer<BookResponse> implements ResolvableSerializer {
+    private JsonSerializer<Object> yearSerializer;
+
+    public BookResponseSerializer() {
+        super(BookResponse.class);
+    }
+
+    @Override
+    public void resolve(SerializerProvider provider) throws JsonMappingException {
+        yearSerializer = provider.findValueSerializer(Year.class);
+    }
+
+    @Override
+    public void serialize(BookResponse book, JsonGenerator generator, SerializerProvider provider) throws IOException {
+        generator.writeStartObject(book);
+        writeFields(book, generator, provider);
+        generator.writeEndObject();
+    }
+
+    // Writes the properties of the book into the object the generator is currently in.
+    void writeFields(BookResponse book, JsonGenerator generator, SerializerProvider provider) throws IOException {
+        generator.writeFieldName("id");
+        if (book.getId() == null) {
+            generator.writeNull();
+        } else {
+            generator.writeNumber(book.getId());
+        }
+        generator.writeStringField("title", book.getTitle());
+        generator.writeStringField("author", book.getAuthor());
+        generator.writeStringField("isbn", book.getIsbn());
+        generator.writeFieldName("quantity");
+        if (book.getQuantity() == null) {
+            generator.writeNull();
+        } else {
+            generator.writeNumber(book.getQuantity());
+        }
+        generator.writeFieldName("publicationYear");
+        if (book.getPublicationYear() == null) {
+            generator.writeNull();
+        } else {
+            yearSerializer(provider).serialize(book.getPublicationYear(), generator, provider);
+        }
+    }
+
+    private JsonSerializer<Object> yearSerializer(SerializerProvider provider) throws JsonMappingException {
+        return yearSerializer != null ? yearSerializer : provider.findValueSerializer(Year.class);
+    }
+}
@@ -0,0 +1,57 @@
+package com.mobilise.BookManagementSystem.dto.serializer;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.ser.ResolvableSerializer;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+import com.mobilise.BookManagementSystem.dto.response.BookResponse;
+import com.mobilise.BookManagementSystem.dto.response.PaginatedBookResponse;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Writes a PaginatedBookResponse field by field, with the same output as the reflective bean serializer.
+ * Every book of the page is written by one shared BookResponseSerializer, so no serializer lookup happens per element.
+ */
+public class PaginatedBookResponseSerializer extends StdSerializer<PaginatedBookResponse> implements ResolvableSerializer {
+    private final BookResponseSerializer bookResponseSerializer = new BookResponseSerializer();
+
+    public PaginatedBookResponseSerializer() {
+        super(PaginatedBookResponse.class);
+    }
+
+    @Override
+    public void resolve(SerializerProvider provider) throws JsonMappingException {
+        bookResponseSerializer.resolve(provider);
+    }
+
+    @Override
+    public void serialize(PaginatedBookResponse page, JsonGenerator generator, SerializerProvider provider) throws IOException {
+        generator.writeStartObject(page);
+        generator.writeFieldName("contents");
+        List<BookResponse> contents = page.getContents();
+        if (contents == null) {
+            generator.writeNull();
+        } else {
+            generator.writeStartArray(contents, contents.size());
+            for (BookResponse book : contents) {
+                if (book == null) {
+                    generator.writeNull();
+                } else {
+                    generator.writeStartObject(book);
+                    bookResponseSerializer.writeFields(book, generator, provider);
+                    generator.writeEndObject();
+                }
+            }
+            generator.writeEndArray();
+        }
+        generator.writeNumberField("pageElementCount", page.getPageElementCount());
+        generator.writeNumberField("pageSize", page.getPageSize());
+        if (page.getNextCursor() != null) {
+            generator.writeStringField("nextCursor", page.getNextCursor());
+        }
+        generator.writeEndObject();
+    }
+}
@@ -5,21 +5,35 @@ import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
 import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.DynamicUpdate;
 import org.hibernate.annotations.UpdateTimestamp;
 
 import java.time.LocalDateTime;
 import java.time.Year;
+import java.util.Locale;
 
 @NoArgsConstructor
 @Getter
 @Setter
 @Entity
+// Updates write only the changed columns, so an edit of other fields never overwrites a concurrent stock change
+@DynamicUpdate
+// (updatedDate, id) serves the keyset walk of the changes API
+@Table(indexes = {
+        @Index(name = "idx_book_publication_year_id", columnList = "publicationYear, id"),
+        @Index(name = "idx_book_updated_date_id", columnList = "updatedDate, id")
+})
 public class BookLibrary {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    // A pooled sequence (instead of IDENTITY) lets Hibernate batch inserts and pre-allocate ids in blocks
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "book_library_seq")
+    @SequenceGenerator(name = "book_library_seq", sequenceName = "book_library_seq", allocationSize = 50)
     private Long id;
     @Column(unique = true, nullable = false)
     private String title;
+    // Lower-cased title kept in sync by the entity lifecycle callbacks; its unique index serves case-insensitive duplicate checks
+    @Column(unique = true, nullable = false)
+    private String normalizedTitle;
     @Column(nullable = false)
     private String author;
     private String isbn;
@@ -39,4 +53,15 @@ public class BookLibrary {
         this.quantity = quantity;
         this.publicationYear = publicationYear;
     }
+
+    @PrePersist
+    @PreUpdate
+    void updateNormalizedTitle() {
+        this.normalizedTitle = normalizeTitle(title);
+    }
+
+    // Returns the case-insensitive lookup key of a title, as stored in the normalizedTitle column.
+    public static String normalizeTitle(String title) {
+        return title == null ? null : title.toLowerCase(Locale.ROOT);
+    }
 }
@@ -0,0 +1,24 @@
+package com.mobilise.BookManagementSystem.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+// Reserves a normalized title on a sharded catalog, where the unique index of one shard cannot see the titles of the others.
+// Every book holds the claim of its title on the shard the title hashes to (BookShards.shardForTitle), which is where the
+// book was created but no longer where it lives once renamed, so two books taking the same title always collide on the
+// primary key of one shard. Claims are only written while sharding is enabled, see BookTitleClaims.
+@NoArgsConstructor
+@Getter
+@Entity
+@Table(indexes = @Index(name = "idx_book_title_claim_book_id", columnList = "bookId"))
+public class BookTitleClaim {
+    @Id
+    private String normalizedTitle;
+    @Column(nullable = false)
+    private Long bookId;
+}
@@ -0,0 +1,25 @@
+package com.mobilise.BookManagementSystem.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+// Marks a deleted book, so the changes API can report the deletion to clients that copied the book before.
+// Book ids are never reused, so the id of the deleted book is the key; tombstones are written in the transaction
+// that deletes the book, on the same database, and purged once older than book.changes.tombstone-retention.
+@NoArgsConstructor
+@Getter
+@Entity
+@Table(indexes = @Index(name = "idx_book_tombstone_deleted_date_book_id", columnList = "deletedDate, bookId"))
+public class BookTombstone {
+    @Id
+    private Long bookId;
+    @Column(nullable = false)
+    private LocalDateTime deletedDate;
+}
@@ -0,0 +1,7 @@
+package com.mobilise.BookManagementSystem.exception;
+
+public class ChangeFeedFullException extends RuntimeException {
+    public ChangeFeedFullException(String message) {
+        super(message);
+    }
+}
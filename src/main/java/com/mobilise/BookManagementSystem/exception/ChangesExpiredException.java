@@ -0,0 +1,7 @@
+package com.mobilise.BookManagementSystem.exception;
+
+public class ChangesExpiredException extends RuntimeException {
+    public ChangesExpiredException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,7 @@
+package com.mobilise.BookManagementSystem.exception;
+
+public class DeleteCriteriaRequiredException extends RuntimeException{
+    public DeleteCriteriaRequiredException(String message){
+        super(message);
+    }
+}
@@ -0,0 +1,15 @@
+package com.mobilise.BookManagementSystem.exception;
+
+import lombok.Getter;
+
+// Facets are unavailable only while the histogram is built at startup, an expected and transient state,
+// so this exception captures no stack trace and tells the client when to retry.
+@Getter
+public class FacetsNotReadyException extends RuntimeException {
+    private final long retryAfterSeconds;
+
+    public FacetsNotReadyException(String message, long retryAfterSeconds) {
+        super(message, null, false, false);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+}
@@ -1,22 +1,32 @@
 package com.mobilise.BookManagementSystem.exception;
 
 import com.mobilise.BookManagementSystem.dto.response.ApiResponse;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.http.HttpServletRequest;
+import lombok.RequiredArgsConstructor;
+import org.springframework.dao.DataAccessException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import org.springframework.web.filter.ServerHttpObservationFilter;
 
 import static com.mobilise.BookManagementSystem.util.ApiResponseUtils.buildErrorResponse;
 
 @RestControllerAdvice
+@RequiredArgsConstructor
 public class GlobalExceptionHandler {
+    private final MeterRegistry meterRegistry;
 
     // Handling global BookCreationException
     // This is using an exception handler to catch BookCreationException and
     // return a response with a status of Bad Request along with an error message.
     @ExceptionHandler(BookCreationException.class)
     public ResponseEntity<ApiResponse> handleBookCreationException(BookCreationException ex){
-        return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(buildErrorResponse(ex.getMessage(), HttpStatus.BAD_REQUEST));
+        return recordError(ex, ResponseEntity.status(HttpStatus.BAD_REQUEST).body(buildErrorResponse(ex.getMessage(), HttpStatus.BAD_REQUEST)));
     }
     // Handling global NotFoundException
     // This handles a global exception called NotFoundException.
@@ -25,21 +35,21 @@ public class GlobalExceptionHandler {
     // ApiResponse body that contains an error message and the same HttpStatus.
     @ExceptionHandler(NotFoundException.class)
     public ResponseEntity<ApiResponse> handleNotFoundException(NotFoundException ex){
-        return ResponseEntity.status(HttpStatus.NOT_FOUND).body(buildErrorResponse(ex.getMessage(), HttpStatus.BAD_REQUEST));
+        return recordError(ex, ResponseEntity.status(HttpStatus.NOT_FOUND).body(buildErrorResponse(ex.getMessage(), HttpStatus.BAD_REQUEST)));
     }
     // Handling global AlreadyExistsException
     // This specifically handles the AlreadyExistsException by
     // returning a BAD_REQUEST response along with an error message.
     @ExceptionHandler(AlreadyExistsException.class)
     public ResponseEntity<ApiResponse> handleAlreadyExistsException(AlreadyExistsException ex){
-        return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(buildErrorResponse(ex.getMessage(), HttpStatus.BAD_REQUEST));
+        return recordError(ex, ResponseEntity.status(HttpStatus.BAD_REQUEST).body(buildErrorResponse(ex.getMessage(), HttpStatus.BAD_REQUEST)));
     }
     // Handling global ValidTitleException
     // This specifically handles the ValidTitleException by
     // returning a response entity with a Bad Request status and an error message extracted from the exception.
     @ExceptionHandler(ValidTitleException.class)
     public ResponseEntity<ApiResponse> handleValidTitleException(ValidTitleException ex){
-        return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(buildErrorResponse(ex.getMessage(), HttpStatus.BAD_REQUEST));
+        return recordError(ex, ResponseEntity.status(HttpStatus.BAD_REQUEST).body(buildErrorResponse(ex.getMessage(), HttpStatus.BAD_REQUEST)));
     }
 
     // Handling global ValidAuthorException
@@ -47,7 +57,7 @@ public class GlobalExceptionHandler {
     // returning a specific HTTP response with a custom error message.
     @ExceptionHandler(ValidAuthorException.class)
     public ResponseEntity<ApiResponse> handleValidAuthorException(ValidAuthorException ex){
-        return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(buildErrorResponse(ex.getMessage(), HttpStatus.BAD_REQUEST));
+        return recordError(ex, ResponseEntity.status(HttpStatus.BAD_REQUEST).body(buildErrorResponse(ex.getMessage(), HttpStatus.BAD_REQUEST)));
     }
 
     // Handling global ValidPublicationYearException
@@ -56,7 +66,7 @@ public class GlobalExceptionHandler {
     // an error response message based on the exception message.
     @ExceptionHandler(ValidPublicationYearException.class)
     public ResponseEntity<ApiResponse> handleValidPublicationYearException(ValidPublicationYearException ex){
-        return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(buildErrorResponse(ex.getMessage(), HttpStatus.BAD_REQUEST));
+        return recordError(ex, ResponseEntity.status(HttpStatus.BAD_REQUEST).body(buildErrorResponse(ex.getMessage(), HttpStatus.BAD_REQUEST)));
     }
 
     // Handling global TitleRequiredException
@@ -65,7 +75,7 @@ public class GlobalExceptionHandler {
     // a status of 400 (Bad Request) and includes an error message in the response body.
     @ExceptionHandler(TitleRequiredException.class)
     public ResponseEntity<ApiResponse> handleTitleRequiredException(TitleRequiredException ex){
-        return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(buildErrorResponse(ex.getMessage(), HttpStatus.BAD_REQUEST));
+        return recordError(ex, ResponseEntity.status(HttpStatus.BAD_REQUEST).body(buildErrorResponse(ex.getMessage(), HttpStatus.BAD_REQUEST)));
     }
 
     //Handling global AuthorRequiredException
@@ -75,7 +85,120 @@ public class GlobalExceptionHandler {
     // contains an error response message and the same HttpStatus.
     @ExceptionHandler(AuthorRequiredException.class)
     public ResponseEntity<ApiResponse> handleAuthorRequiredException(AuthorRequiredException ex){
-        return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(buildErrorResponse(ex.getMessage(), HttpStatus.BAD_REQUEST));
+        return recordError(ex, ResponseEntity.status(HttpStatus.BAD_REQUEST).body(buildErrorResponse(ex.getMessage(), HttpStatus.BAD_REQUEST)));
+    }
+
+    // Handling global InvalidCursorException
+    // This handles a malformed or tampered pagination cursor, or an unsupported sort key,
+    // by returning a BAD_REQUEST response along with an error message.
+    @ExceptionHandler(InvalidCursorException.class)
+    public ResponseEntity<ApiResponse> handleInvalidCursorException(InvalidCursorException ex){
+        return recordError(ex, ResponseEntity.status(HttpStatus.BAD_REQUEST).body(buildErrorResponse(ex.getMessage(), HttpStatus.BAD_REQUEST)));
+    }
+
+    // Handling global OutOfStockException
+    // This handles a checkout asking for more copies than are in stock
+    // by returning a CONFLICT response along with an error message.
+    @ExceptionHandler(OutOfStockException.class)
+    public ResponseEntity<ApiResponse> handleOutOfStockException(OutOfStockException ex){
+        return recordError(ex, ResponseEntity.status(HttpStatus.CONFLICT).body(buildErrorResponse(ex.getMessage(), HttpStatus.CONFLICT)));
+    }
+
+    // Handling global ConcurrentUpdateException
+    // This handles a patch that lost every retry to concurrent changes of the same book
+    // by returning a CONFLICT response along with an error message, so the client can retry it.
+    @ExceptionHandler(ConcurrentUpdateException.class)
+    public ResponseEntity<ApiResponse> handleConcurrentUpdateException(ConcurrentUpdateException ex){
+        return recordError(ex, ResponseEntity.status(HttpStatus.CONFLICT).body(buildErrorResponse(ex.getMessage(), HttpStatus.CONFLICT)));
+    }
+
+    // Handling global InvalidQuantityException
+    // This handles a checkout or return of less than one copy
+    // by returning a BAD_REQUEST response along with an error message.
+    @ExceptionHandler(InvalidQuantityException.class)
+    public ResponseEntity<ApiResponse> handleInvalidQuantityException(InvalidQuantityException ex){
+        return recordError(ex, ResponseEntity.status(HttpStatus.BAD_REQUEST).body(buildErrorResponse(ex.getMessage(), HttpStatus.BAD_REQUEST)));
+    }
+
+    // Handling global DeleteCriteriaRequiredException
+    // This handles a delete by predicate that names no criteria, which would otherwise delete the whole catalog,
+    // by returning a BAD_REQUEST response along with an error message.
+    @ExceptionHandler(DeleteCriteriaRequiredException.class)
+    public ResponseEntity<ApiResponse> handleDeleteCriteriaRequiredException(DeleteCriteriaRequiredException ex){
+        return recordError(ex, ResponseEntity.status(HttpStatus.BAD_REQUEST).body(buildErrorResponse(ex.getMessage(), HttpStatus.BAD_REQUEST)));
+    }
+
+    // Handling global TooManyIdsException
+    // This handles a multi-get asking for more books than one request may return
+    // by returning a BAD_REQUEST response along with an error message.
+    @ExceptionHandler(TooManyIdsException.class)
+    public ResponseEntity<ApiResponse> handleTooManyIdsException(TooManyIdsException ex){
+        return recordError(ex, ResponseEntity.status(HttpStatus.BAD_REQUEST).body(buildErrorResponse(ex.getMessage(), HttpStatus.BAD_REQUEST)));
+    }
+
+    // Handling global SnapshotException
+    // This handles a catalog snapshot that is disabled or cannot be written
+    // by returning an INTERNAL_SERVER_ERROR response along with an error message.
+    @ExceptionHandler(SnapshotException.class)
+    public ResponseEntity<ApiResponse> handleSnapshotException(SnapshotException ex){
+        return recordError(ex, ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(buildErrorResponse(ex.getMessage(), HttpStatus.INTERNAL_SERVER_ERROR)));
+    }
+
+    // Handling global DataAccessException
+    // This handles a failing database behind any endpoint by returning an INTERNAL_SERVER_ERROR response
+    // along with an error message, so the failure is counted as a server error and never mistaken for a miss.
+    @ExceptionHandler(DataAccessException.class)
+    public ResponseEntity<ApiResponse> handleDataAccessException(DataAccessException ex){
+        return recordError(ex, ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(buildErrorResponse(ex.getMessage(), HttpStatus.INTERNAL_SERVER_ERROR)));
+    }
+
+    // Handling global ChangesExpiredException
+    // This handles a changes cursor older than the retained deletions, which the client can only recover from
+    // with a full re-sync, by returning a GONE response along with an error message.
+    @ExceptionHandler(ChangesExpiredException.class)
+    public ResponseEntity<ApiResponse> handleChangesExpiredException(ChangesExpiredException ex){
+        return recordError(ex, ResponseEntity.status(HttpStatus.GONE).body(buildErrorResponse(ex.getMessage(), HttpStatus.GONE)));
+    }
+
+    // Handling global ChangeFeedFullException
+    // This handles a change feed subscription beyond the subscriber limit
+    // by returning a SERVICE_UNAVAILABLE response along with an error message.
+    @ExceptionHandler(ChangeFeedFullException.class)
+    public ResponseEntity<ApiResponse> handleChangeFeedFullException(ChangeFeedFullException ex){
+        return recordError(ex, ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(buildErrorResponse(ex.getMessage(), HttpStatus.SERVICE_UNAVAILABLE)));
+    }
+
+    // Handling global OverloadedException
+    // This handles a request shed by the admission control
+    // by returning a SERVICE_UNAVAILABLE response with a Retry-After header along with an error message.
+    @ExceptionHandler(OverloadedException.class)
+    public ResponseEntity<ApiResponse> handleOverloadedException(OverloadedException ex){
+        return recordError(ex, ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, Long.toString(ex.getRetryAfterSeconds()))
+                .body(buildErrorResponse(ex.getMessage(), HttpStatus.SERVICE_UNAVAILABLE)));
+    }
+
+    // Handling global FacetsNotReadyException
+    // This handles a facets request made while the facet histogram is still being built at startup
+    // by returning a SERVICE_UNAVAILABLE response with a Retry-After header along with an error message.
+    @ExceptionHandler(FacetsNotReadyException.class)
+    public ResponseEntity<ApiResponse> handleFacetsNotReadyException(FacetsNotReadyException ex){
+        return recordError(ex, ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, Long.toString(ex.getRetryAfterSeconds()))
+                .body(buildErrorResponse(ex.getMessage(), HttpStatus.SERVICE_UNAVAILABLE)));
+    }
+
+    // Counts every handled exception in book.api.errors, tagged with its type and response status,
+    // and attaches it to the current HTTP observation so that http.server.requests is tagged with it too.
+    private ResponseEntity<ApiResponse> recordError(Exception ex, ResponseEntity<ApiResponse> response) {
+        meterRegistry.counter("book.api.errors",
+                "exception", ex.getClass().getSimpleName(),
+                "status", String.valueOf(response.getStatusCode().value())).increment();
+        if (RequestContextHolder.getRequestAttributes() instanceof ServletRequestAttributes attributes) {
+            HttpServletRequest request = attributes.getRequest();
+            ServerHttpObservationFilter.findObservationContext(request).ifPresent(context -> context.setError(ex));
+        }
+        return response;
     }
 
 }
@@ -0,0 +1,8 @@
+package com.mobilise.BookManagementSystem.exception;
+
+public class InvalidQuantityException extends RuntimeException{
+
+    public InvalidQuantityException(String message) {
+        super(message);
+    }
+}
@@ -1,8 +1,10 @@
 package com.mobilise.BookManagementSystem.exception;
 
+// A miss is an expected outcome, not a failure, so this exception captures no stack trace:
+// creating and throwing it costs about as much as returning a value, however deep the call stack is.
 public class NotFoundException extends RuntimeException{
 
     public NotFoundException(String message) {
-        super(message);
+        super(message, null, false, false);
     }
 }
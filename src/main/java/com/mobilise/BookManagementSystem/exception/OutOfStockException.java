@@ -0,0 +1,8 @@
+package com.mobilise.BookManagementSystem.exception;
+
+public class OutOfStockException extends RuntimeException{
+
+    public OutOfStockException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,14 @@
+package com.mobilise.BookManagementSystem.exception;
+
+import lombok.Getter;
+
+// A shed request must be rejected quickly under load, so this exception captures no stack trace.
+@Getter
+public class OverloadedException extends RuntimeException {
+    private final long retryAfterSeconds;
+
+    public OverloadedException(String message, long retryAfterSeconds) {
+        super(message, null, false, false);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+}
@@ -0,0 +1,8 @@
+package com.mobilise.BookManagementSystem.exception;
+
+public class SnapshotException extends RuntimeException{
+
+    public SnapshotException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -0,0 +1,17 @@
+package com.mobilise.BookManagementSystem.repository;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+
+public interface BookPatchRepository {
+    /**
+     * Writes the given columns of a book in one UPDATE statement, leaving every other column untouched.
+     * The row is only written if its updatedDate still equals expectedUpdatedDate, so a patch computed from a stale
+     * copy of the book never overwrites a concurrent change.
+     * @param  id                   the id of the book
+     * @param  expectedUpdatedDate  the updatedDate of the copy the changes were computed from
+     * @param  changes              the new value of every changed BookLibrary attribute, keyed by attribute name
+     * @return                      1 if the row was written, 0 if the book does not exist or has changed since
+     */
+    int patchChangedColumns(Long id, LocalDateTime expectedUpdatedDate, Map<String, Object> changes);
+}
@@ -0,0 +1,31 @@
+package com.mobilise.BookManagementSystem.repository;
+
+import com.mobilise.BookManagementSystem.entity.BookLibrary;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaUpdate;
+import jakarta.persistence.criteria.Root;
+import lombok.RequiredArgsConstructor;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+
+// Fragment of BookRepository that builds the SET clause of a partial update from the changed attributes only.
+@RequiredArgsConstructor
+public class BookPatchRepositoryImpl implements BookPatchRepository {
+    private final EntityManager entityManager;
+
+    @Override
+    @Transactional
+    public int patchChangedColumns(Long id, LocalDateTime expectedUpdatedDate, Map<String, Object> changes) {
+        CriteriaBuilder builder = entityManager.getCriteriaBuilder();
+        CriteriaUpdate<BookLibrary> update = builder.createCriteriaUpdate(BookLibrary.class);
+        Root<BookLibrary> book = update.from(BookLibrary.class);
+        changes.forEach(update::set);
+        update.where(builder.equal(book.get("id"), id), expectedUpdatedDate == null
+                ? builder.isNull(book.get("updatedDate"))
+                : builder.equal(book.get("updatedDate"), expectedUpdatedDate));
+        return entityManager.createQuery(update).executeUpdate();
+    }
+}
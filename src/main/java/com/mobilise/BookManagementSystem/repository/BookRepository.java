@@ -1,15 +1,56 @@
 package com.mobilise.BookManagementSystem.repository;
 
+import com.mobilise.BookManagementSystem.dto.response.BookChangeResponse;
+import com.mobilise.BookManagementSystem.dto.response.BookResponse;
 import com.mobilise.BookManagementSystem.entity.BookLibrary;
+import com.mobilise.BookManagementSystem.service.facet.FacetDocument;
+import com.mobilise.BookManagementSystem.service.search.SearchDocument;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
 import java.time.Year;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
-public interface BookRepository extends JpaRepository<BookLibrary, Long> {
+import static org.hibernate.jpa.HibernateHints.HINT_CACHEABLE;
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.HibernateHints.HINT_READ_ONLY;
+
+public interface BookRepository extends JpaRepository<BookLibrary, Long>, BookPatchRepository {
+
+    // JPQL constructor expression that projects a BookLibrary row aliased "b" straight into a BookResponse,
+    // so the queries using it skip entity hydration, dirty-check snapshots and the created/updated dates.
+    String BOOK_RESPONSE_PROJECTION = "new com.mobilise.BookManagementSystem.dto.response.BookResponse(" +
+            "b.id, b.title, b.author, b.isbn, b.quantity, b.publicationYear)";
+
+    /**
+     * Atomically adds delta (negative to take copies out) to the stock of a book, unless removing copies would drop it below zero.
+     * The check and the write are one conditional UPDATE, so concurrent callers can never lose an update,
+     * and the row stays locked until the surrounding transaction commits. A missing quantity counts as zero.
+     * @param  id           the id of the book
+     * @param  delta        the number of copies to add, or to remove when negative
+     * @param  updatedDate  the updatedDate to stamp the book with, so the caller knows the time it wrote
+     * @return              1 if the stock was changed, 0 if the book does not exist or has too few copies
+     */
+    @Modifying
+    @Query("UPDATE BookLibrary b SET b.quantity = COALESCE(b.quantity, 0) + :delta, b.updatedDate = :updatedDate " +
+            "WHERE b.id = :id AND (:delta >= 0 OR COALESCE(b.quantity, 0) + :delta >= 0)")
+    int adjustQuantity(@Param("id") Long id, @Param("delta") int delta, @Param("updatedDate") LocalDateTime updatedDate);
+
+    @Query("SELECT COALESCE(b.quantity, 0) FROM BookLibrary b WHERE b.id = :id")
+    Optional<Integer> findQuantityById(@Param("id") Long id);
 
     /**
      * Find a book in the library by title ignoring case.
@@ -22,15 +63,188 @@ public interface BookRepository extends JpaRepository<BookLibrary, Long> {
      */
     Optional<BookLibrary> findBookByTitleIgnoreCase(String bookTitle);
 
+    /**
+     * Check whether a book with the given normalized title exists in the library.
+     * Unlike findBookByTitleIgnoreCase, which compares upper(title) and cannot use an index,
+     * this query is resolved on the unique index of the normalizedTitle column and loads no entity.
+     * @param  normalizedTitle  the normalized title, see BookLibrary.normalizeTitle
+     * @return                  true if a book with this title exists, false otherwise
+     */
+    boolean existsByNormalizedTitle(String normalizedTitle);
+
+    /**
+     * Find which of the given normalized titles already exist in the library.
+     * This is a set-based duplicate check used by the batch creation API, so a whole chunk of titles
+     * is checked with a single indexed query instead of one findBookByTitleIgnoreCase round trip per book.
+     * @param  normalizedTitles  the normalized titles to look for
+     * @return                   the normalized titles that already exist
+     */
+    @Query("SELECT b.normalizedTitle FROM BookLibrary b WHERE b.normalizedTitle IN :normalizedTitles")
+    List<String> findExistingTitles(@Param("normalizedTitles") Collection<String> normalizedTitles);
+
+    /**
+     * Streams the normalized title of every book in the library.
+     * This is used to rebuild the in-memory title filter at startup; the stream must be consumed inside a transaction.
+     * @return  a stream of all normalized titles
+     */
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "1000"))
+    @Query("SELECT b.normalizedTitle FROM BookLibrary b")
+    Stream<String> streamNormalizedTitles();
+
+    /**
+     * Locks the books with the given ids that still exist until the end of the surrounding transaction,
+     * so that a delete in the same transaction removes exactly these books.
+     * @param  ids  the ids of the books to delete
+     * @return      the ids of the books that exist, in id order
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT b.id FROM BookLibrary b WHERE b.id IN :ids ORDER BY b.id")
+    List<Long> lockExistingIds(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Deletes the books with the given ids in one set-based DELETE statement.
+     * Unlike deleteById, no entity is loaded first; ids that do not exist are ignored.
+     * @param  ids  the ids of the books to delete
+     * @return      the number of books deleted
+     */
+    @Modifying
+    @Query("DELETE FROM BookLibrary b WHERE b.id IN :ids")
+    int deleteAllByIdIn(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Records a BookTombstone for each of the given ids that still exists, to be called in the transaction that
+     * deletes them, before the delete. The rows are copied with one INSERT ... SELECT statement.
+     * @param  ids          the ids of the books about to be deleted
+     * @param  deletedDate  the deletion time reported by the changes API
+     * @return              the number of tombstones written
+     */
+    @Modifying
+    @Query("INSERT INTO BookTombstone (bookId, deletedDate) SELECT b.id, :deletedDate FROM BookLibrary b WHERE b.id IN :ids")
+    int insertTombstones(@Param("ids") Collection<Long> ids, @Param("deletedDate") LocalDateTime deletedDate);
+
+    /**
+     * Claims the titles of newly created books (see BookTitleClaim), to be called in the transaction that creates them.
+     * The claims are copied from the rows with one INSERT ... SELECT statement; this only holds for books that still
+     * carry the title they were created with, whose claim shard is the shard they live on.
+     * @param  ids  the ids of the created books
+     * @return      the number of claims written
+     */
+    @Modifying
+    @Query("INSERT INTO BookTitleClaim (normalizedTitle, bookId) SELECT b.normalizedTitle, b.id FROM BookLibrary b WHERE b.id IN :ids")
+    int insertTitleClaims(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Claims a title for a book about to be renamed, on the shard of the title.
+     * Fails with a DataIntegrityViolationException if another book already holds the title.
+     * @param  normalizedTitle  the normalized title to claim
+     * @param  bookId           the id of the renamed book
+     * @return                  the number of claims written
+     */
+    @Modifying
+    @Query(value = "INSERT INTO book_title_claim (normalized_title, book_id) VALUES (:normalizedTitle, :bookId)", nativeQuery = true)
+    int insertTitleClaim(@Param("normalizedTitle") String normalizedTitle, @Param("bookId") Long bookId);
+
+    /**
+     * Releases the claim of a title, if it is held by the given book.
+     * @param  normalizedTitle  the normalized title to release
+     * @param  bookId           the id of the book holding the claim
+     * @return                  the number of claims deleted
+     */
+    @Modifying
+    @Query("DELETE FROM BookTitleClaim c WHERE c.normalizedTitle = :normalizedTitle AND c.bookId = :bookId")
+    int deleteTitleClaim(@Param("normalizedTitle") String normalizedTitle, @Param("bookId") Long bookId);
+
+    /**
+     * Releases the title claims held by deleted books. Runs in its own transaction, since the claims of renamed books
+     * can be on any shard.
+     * @param  ids  the ids of the deleted books
+     * @return      the number of claims deleted
+     */
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM BookTitleClaim c WHERE c.bookId IN :ids")
+    int deleteTitleClaimsByBookIdIn(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Deletes the tombstones older than the given time, in its own transaction.
+     * @param  cutoff  the deletion time before which tombstones are dropped
+     * @return         the number of tombstones deleted
+     */
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM BookTombstone t WHERE t.deletedDate < :cutoff")
+    int deleteTombstonesBefore(@Param("cutoff") LocalDateTime cutoff);
+
+    /**
+     * Returns the books changed after the given (updatedDate, id) position and at or before the until time,
+     * in (updatedDate, id) order. The seek predicate is resolved on the (updatedDate, id) index.
+     * @param  since     the updatedDate of the last change already seen
+     * @param  id        the id of the last change already seen
+     * @param  until     the latest updatedDate to return
+     * @param  pageable  the maximum number of changes
+     * @return           the next slice of changed books, each reported as UPDATED
+     */
+    @Query("SELECT new com.mobilise.BookManagementSystem.dto.response.BookChangeResponse(" +
+            "b.id, b.title, b.author, b.isbn, b.quantity, b.publicationYear, b.updatedDate) FROM BookLibrary b " +
+            "WHERE b.updatedDate <= :until AND (b.updatedDate > :since OR (b.updatedDate = :since AND b.id > :id)) " +
+            "ORDER BY b.updatedDate, b.id")
+    Slice<BookChangeResponse> findChangedSince(@Param("since") LocalDateTime since, @Param("id") Long id,
+                                               @Param("until") LocalDateTime until, Pageable pageable);
+
+    // Same as findChangedSince, for the tombstones of deleted books, each reported as DELETED.
+    @Query("SELECT new com.mobilise.BookManagementSystem.dto.response.BookChangeResponse(t.bookId, t.deletedDate) " +
+            "FROM BookTombstone t WHERE t.deletedDate <= :until " +
+            "AND (t.deletedDate > :since OR (t.deletedDate = :since AND t.bookId > :id)) ORDER BY t.deletedDate, t.bookId")
+    Slice<BookChangeResponse> findDeletedSince(@Param("since") LocalDateTime since, @Param("id") Long id,
+                                               @Param("until") LocalDateTime until, Pageable pageable);
+
+    @Query("SELECT b.id FROM BookLibrary b WHERE b.publicationYear = :publicationYear ORDER BY b.id")
+    List<Long> findIdsByPublicationYear(@Param("publicationYear") Year publicationYear);
+
+    @Query("SELECT b.id FROM BookLibrary b WHERE LOWER(b.author) = LOWER(:author) ORDER BY b.id")
+    List<Long> findIdsByAuthor(@Param("author") String author);
+
+    @Query("SELECT b.id FROM BookLibrary b WHERE b.publicationYear = :publicationYear AND LOWER(b.author) = LOWER(:author) ORDER BY b.id")
+    List<Long> findIdsByPublicationYearAndAuthor(@Param("publicationYear") Year publicationYear, @Param("author") String author);
+
     /**
      * Find all books in the library by publication year.
      * This is a query that finds all books in a library based on their publication year.
-     * The method takes the publication year as input and returns a list of BookLibrary objects
-     * that match the provided publication year.
+     * The method takes the publication year as input and returns a list of BookResponse objects,
+     * projected straight from the matching rows, that match the provided publication year.
      * @param  publicationYear   the year of publication to search for
-     * @return                   a list of BookLibrary objects matching the publication year
+     * @return                   a list of BookResponse objects matching the publication year, ordered by id
      */
-    List<BookLibrary> findAllBooksByPublicationYear(Year publicationYear);
+    @Query("SELECT " + BOOK_RESPONSE_PROJECTION + " FROM BookLibrary b WHERE b.publicationYear = :publicationYear ORDER BY b.id")
+    List<BookResponse> findAllBooksByPublicationYear(@Param("publicationYear") Year publicationYear);
+
+    /**
+     * Find the books with the given ids, projected straight into BookResponse objects.
+     * This is used to load the rows resolved by the search index; callers should keep the id list to a bounded chunk.
+     * @param  ids  the ids of the books to load
+     * @return      a list of BookResponse objects for the ids that exist, ordered by id
+     */
+    @Query("SELECT " + BOOK_RESPONSE_PROJECTION + " FROM BookLibrary b WHERE b.id IN :ids ORDER BY b.id")
+    List<BookResponse> findBookResponsesByIdIn(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Find the books with the given ids.
+     * Unlike findBookResponsesByIdIn, this loads the entities, so the multi-get can cache every book with its updatedDate
+     * like getBookById; callers should keep the id list to a bounded chunk.
+     * @param  ids  the ids of the books to load
+     * @return      the books for the ids that exist, ordered by id
+     */
+    @Query("SELECT b FROM BookLibrary b WHERE b.id IN :ids ORDER BY b.id")
+    List<BookLibrary> findAllByIdIn(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Returns one page of books, projected straight into BookResponse objects.
+     * A Slice return type fetches one extra row to detect the next page instead of issuing a COUNT query.
+     * @param  pageable  the page number and page size
+     * @return           the requested slice of books
+     */
+    @Query("SELECT " + BOOK_RESPONSE_PROJECTION + " FROM BookLibrary b")
+    Slice<BookResponse> findAllBookResponses(Pageable pageable);
 
 
     /**
@@ -41,11 +255,86 @@ public interface BookRepository extends JpaRepository<BookLibrary, Long> {
      * @param  title    parameter used to search for books by title
      * @param  author  parameter used to search for books by author
      * @param  isbn    parameter used to search for books by ISBN
-     * @return  a list of books that match the search criteria
+     * @return  a list of BookResponse objects, projected straight from the rows, that match the search criteria
+     */
+    @Query("SELECT " + BOOK_RESPONSE_PROJECTION + " FROM BookLibrary b WHERE LOWER(b.title) LIKE CONCAT('%', COALESCE(LOWER(:title), ''), '%') " +
+            "OR LOWER(b.author) LIKE CONCAT('%', COALESCE(LOWER(:author), ''), '%') " +
+            "OR LOWER(b.isbn) LIKE CONCAT('%', COALESCE(LOWER(:isbn), ''), '%')")
+    List<BookResponse> searchByTitleOrAuthorOrIsbn(@Param("title") String title, @Param("author") String author, @Param("isbn") String isbn);
+
+    /**
+     * Streams the searchable columns of every book as SearchDocument projections.
+     * This is used to build the in-memory search index at startup without hydrating BookLibrary entities.
+     * The stream holds an open database cursor, so it must be consumed inside a transaction and closed afterwards.
+     * @return  a stream of SearchDocument objects for all books
+     */
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "1000"))
+    @Query("SELECT new com.mobilise.BookManagementSystem.service.search.SearchDocument(b.id, b.title, b.author, b.isbn) FROM BookLibrary b")
+    Stream<SearchDocument> streamSearchDocuments();
+
+    /**
+     * Streams the faceted columns of every book as FacetDocument projections.
+     * This is used to build the in-memory facet histogram at startup without hydrating BookLibrary entities.
+     * The stream holds an open database cursor, so it must be consumed inside a transaction and closed afterwards.
+     * @return  a stream of FacetDocument objects for all books
+     */
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "1000"))
+    @Query("SELECT new com.mobilise.BookManagementSystem.service.facet.FacetDocument(b.id, b.author, b.publicationYear) FROM BookLibrary b")
+    Stream<FacetDocument> streamFacetDocuments();
+
+    /**
+     * Streams every book of the library in id order over a forward-only database cursor.
+     * Rows are fetched from the database in blocks of the fetch size and loaded read-only, so no dirty-check
+     * snapshots are kept. The stream must be consumed inside a transaction and closed afterwards, and callers
+     * should detach every entity once it has been processed so that memory use stays flat.
+     * @return  a stream of all BookLibrary entities ordered by id
+     */
+    @QueryHints({
+            @QueryHint(name = HINT_FETCH_SIZE, value = "1000"),
+            @QueryHint(name = HINT_READ_ONLY, value = "true"),
+            @QueryHint(name = HINT_CACHEABLE, value = "false")
+    })
+    @Query("SELECT b FROM BookLibrary b ORDER BY b.id")
+    Stream<BookLibrary> streamAllBooks();
+
+    /**
+     * Returns the first slice of a keyset walk over the catalog, ordered by the Sort of the given Pageable.
+     * A Slice return type only fetches one extra row to detect the next page, so no COUNT query is issued.
+     * @param  pageable  the page size and the sort order of the walk
+     * @return           the first slice of books
+     */
+    @Query("SELECT " + BOOK_RESPONSE_PROJECTION + " FROM BookLibrary b")
+    Slice<BookResponse> findFirstSlice(Pageable pageable);
+
+    /**
+     * Returns the slice of books that follows the given id in id order.
+     * The seek predicate is resolved on the primary key index, so deep slices cost the same as the first one.
+     * @param  id        the id of the last book of the previous slice
+     * @param  pageable  the page size of the slice
+     * @return           the next slice of books
+     */
+    @Query("SELECT " + BOOK_RESPONSE_PROJECTION + " FROM BookLibrary b WHERE b.id > :id ORDER BY b.id")
+    Slice<BookResponse> findNextById(@Param("id") Long id, Pageable pageable);
+
+    /**
+     * Returns the slice of books that follows the given (title, id) position in title order.
+     * @param  title     the title of the last book of the previous slice
+     * @param  id        the id of the last book of the previous slice
+     * @param  pageable  the page size of the slice
+     * @return           the next slice of books
+     */
+    @Query("SELECT " + BOOK_RESPONSE_PROJECTION + " FROM BookLibrary b WHERE b.title > :title OR (b.title = :title AND b.id > :id) ORDER BY b.title, b.id")
+    Slice<BookResponse> findNextByTitle(@Param("title") String title, @Param("id") Long id, Pageable pageable);
+
+    /**
+     * Returns the slice of books that follows the given (publicationYear, id) position in publication year order.
+     * @param  publicationYear  the publication year of the last book of the previous slice
+     * @param  id               the id of the last book of the previous slice
+     * @param  pageable         the page size of the slice
+     * @return                  the next slice of books
      */
-    @Query("SELECT ic FROM BookLibrary ic WHERE LOWER(ic.title) LIKE CONCAT('%', COALESCE(LOWER(:title), ''), '%') " +
-            "OR LOWER(ic.author) LIKE CONCAT('%', COALESCE(LOWER(:author), ''), '%') " +
-            "OR LOWER(ic.isbn) LIKE CONCAT('%', COALESCE(LOWER(:isbn), ''), '%')")
-    List<BookLibrary> searchByTitleOrAuthorOrIsbn(@Param("title") String title, @Param("author") String author, @Param("isbn") String isbn);
+    @Query("SELECT " + BOOK_RESPONSE_PROJECTION + " FROM BookLibrary b WHERE b.publicationYear > :publicationYear " +
+            "OR (b.publicationYear = :publicationYear AND b.id > :id) ORDER BY b.publicationYear, b.id")
+    Slice<BookResponse> findNextByPublicationYear(@Param("publicationYear") Year publicationYear, @Param("id") Long id, Pageable pageable);
 
 }
@@ -0,0 +1,314 @@
+package com.mobilise.BookManagementSystem.repository;
+
+import com.mobilise.BookManagementSystem.dto.response.BookChangeResponse;
+import com.mobilise.BookManagementSystem.dto.response.BookResponse;
+import com.mobilise.BookManagementSystem.entity.BookLibrary;
+import com.mobilise.BookManagementSystem.service.pagination.BookSortKey;
+import com.mobilise.BookManagementSystem.service.shard.BookShards;
+import jakarta.persistence.EntityManager;
+import lombok.RequiredArgsConstructor;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.hibernate.Session;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.DefaultTransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.lang.reflect.UndeclaredThrowableException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Optional;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * The sharding layer of BookRepository: routes every repository call to the shards that hold its rows.
+ * Point operations run on the shard owning the id, new books on the shard chosen by their title, and queries over
+ * the whole catalog run on every shard in parallel, with the per-shard results merged in the order the query defines.
+ * Pages are merged by asking every shard for all rows up to the end of the page; keyset slices only need one slice
+ * per shard. Streams are read shard after shard, which keeps id order because the shards hold consecutive id ranges.
+ * <p>
+ * A call made inside a transaction bound to another shard runs in its own transaction on the target shard, so a
+ * transaction spanning several shards commits per shard and is not atomic across them. Calls made while a shard is
+ * already selected (see BookShards.callOn) are not routed again.
+ * Only active with more than one shard; repository methods it does not know fail instead of reading a single shard.
+ */
+@Aspect
+@Component
+@RequiredArgsConstructor
+@ConditionalOnExpression("${book.sharding.shard-count:1} > 1")
+public class ShardRoutingAspect {
+    private final BookShards bookShards;
+    // The shared EntityManager, used to find the shard of the surrounding transaction
+    private final EntityManager entityManager;
+    private final PlatformTransactionManager transactionManager;
+
+    @Around("target(com.mobilise.BookManagementSystem.repository.BookRepository)")
+    public Object route(ProceedingJoinPoint joinPoint) throws Throwable {
+        if (bookShards.currentShard() != null) {
+            return joinPoint.proceed();
+        }
+        Object[] args = joinPoint.getArgs();
+        return switch (joinPoint.getSignature().getName()) {
+            case "findById", "existsById", "deleteById", "findQuantityById", "adjustQuantity",
+                 "patchChangedColumns" -> onShard(bookShards.shardOf((Long) args[0]), joinPoint, args);
+            case "save" -> onShard(shardOf((BookLibrary) args[0]), joinPoint, args);
+            case "saveAll" -> saveAll(joinPoint, args);
+            case "count" -> this.<Long>fanOut(joinPoint, args).stream().mapToLong(Long::longValue).sum();
+            case "existsByNormalizedTitle" -> this.<Boolean>fanOut(joinPoint, args).contains(true);
+            case "findBookByTitleIgnoreCase" -> this.<Optional<BookLibrary>>fanOut(joinPoint, args).stream()
+                    .flatMap(Optional::stream).findFirst();
+            case "findExistingTitles" -> this.<List<String>>fanOut(joinPoint, args).stream().flatMap(List::stream).toList();
+            case "findIdsByPublicationYear", "findIdsByAuthor", "findIdsByPublicationYearAndAuthor" ->
+                    merge(this.<List<Long>>fanOut(joinPoint, args), Comparator.<Long>naturalOrder());
+            case "findAllBooksByPublicationYear", "searchByTitleOrAuthorOrIsbn" ->
+                    merge(this.<List<BookResponse>>fanOut(joinPoint, args), Comparator.comparing(BookResponse::getId));
+            case "findBookResponsesByIdIn" -> findByIds(joinPoint, (Collection<?>) args[0], Comparator.comparing(BookResponse::getId));
+            case "findAllByIdIn" -> findByIds(joinPoint, (Collection<?>) args[0], Comparator.comparing(BookLibrary::getId));
+            case "deleteAllByIdIn", "insertTombstones", "insertTitleClaims" -> onShardsOfIds(joinPoint, args);
+            case "lockExistingIds" -> merge(this.<Long>onShardsOfIdsToLists(joinPoint, args), Comparator.naturalOrder());
+            case "insertTitleClaim", "deleteTitleClaim" -> onShard(bookShards.shardForTitle((String) args[0]), joinPoint, args);
+            case "deleteTitleClaimsByBookIdIn" -> this.<Integer>fanOut(joinPoint, args).stream().mapToInt(Integer::intValue).sum();
+            case "deleteTombstonesBefore" -> this.<Integer>fanOut(joinPoint, args).stream().mapToInt(Integer::intValue).sum();
+            case "findAllBookResponses", "findFirstSlice" -> pageAcrossShards(joinPoint, (Pageable) args[0]);
+            case "findNextById" -> nextSlice(joinPoint, args, comparator(Sort.by("id")));
+            case "findNextByTitle" -> nextSlice(joinPoint, args, comparator(Sort.by("title", "id")));
+            case "findNextByPublicationYear" -> nextSlice(joinPoint, args, comparator(Sort.by("publicationYear", "id")));
+            case "findChangedSince", "findDeletedSince" -> nextSlice(joinPoint, args,
+                    Comparator.comparing(BookChangeResponse::getChangedAt).thenComparing(BookChangeResponse::getBookId));
+            case "streamSearchDocuments", "streamFacetDocuments", "streamNormalizedTitles", "streamAllBooks" ->
+                    streamAcrossShards(joinPoint, args);
+            case "toString", "hashCode", "equals" -> joinPoint.proceed();
+            default -> throw new UnsupportedOperationException("BookRepository." + joinPoint.getSignature().getName()
+                    + " is not supported on a sharded catalog");
+        };
+    }
+
+    // Existing books stay on the shard of their id; new books go to the shard of their title.
+    private int shardOf(BookLibrary book) {
+        return book.getId() != null ? bookShards.shardOf(book.getId())
+                : bookShards.shardForTitle(BookLibrary.normalizeTitle(book.getTitle()));
+    }
+
+    // Runs the call on one shard, in its own transaction if the surrounding transaction is bound to another shard.
+    private Object onShard(int shard, ProceedingJoinPoint joinPoint, Object[] args) {
+        if (TransactionSynchronizationManager.isActualTransactionActive() && shard != transactionShard()) {
+            TransactionTemplate ownTransaction = new TransactionTemplate(transactionManager);
+            ownTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+            ownTransaction.setReadOnly(TransactionSynchronizationManager.isCurrentTransactionReadOnly());
+            return bookShards.callOn(shard, () -> ownTransaction.execute(status -> proceed(joinPoint, args)));
+        }
+        return bookShards.callOn(shard, () -> proceed(joinPoint, args));
+    }
+
+    private int transactionShard() {
+        return Integer.parseInt(entityManager.unwrap(Session.class).getTenantIdentifier());
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> List<T> fanOut(ProceedingJoinPoint joinPoint, Object[] args) {
+        return bookShards.fanOut(shard -> (T) proceed(joinPoint, args));
+    }
+
+    // Each shard returns its rows in order, so merging is sorting a few presorted runs.
+    private static <T> List<T> merge(List<List<T>> perShard, Comparator<T> order) {
+        return perShard.stream().flatMap(List::stream).sorted(order).toList();
+    }
+
+    // Saves every group of books on its shard, and returns the saved books in the order they were given.
+    @SuppressWarnings("unchecked")
+    private List<BookLibrary> saveAll(ProceedingJoinPoint joinPoint, Object[] args) {
+        List<BookLibrary> books = new ArrayList<>();
+        ((Iterable<BookLibrary>) args[0]).forEach(books::add);
+        Map<Integer, List<Integer>> positionsByShard = new LinkedHashMap<>();
+        for (int i = 0; i < books.size(); i++) {
+            positionsByShard.computeIfAbsent(shardOf(books.get(i)), shard -> new ArrayList<>()).add(i);
+        }
+        BookLibrary[] saved = new BookLibrary[books.size()];
+        positionsByShard.forEach((shard, positions) -> {
+            List<BookLibrary> group = positions.stream().map(books::get).toList();
+            List<BookLibrary> savedGroup = (List<BookLibrary>) onShard(shard, joinPoint, new Object[]{group});
+            for (int i = 0; i < positions.size(); i++) {
+                saved[positions.get(i)] = savedGroup.get(i);
+            }
+        });
+        return List.of(saved);
+    }
+
+    private Map<Integer, List<Long>> idsByShard(Collection<?> ids) {
+        Map<Integer, List<Long>> idsByShard = new LinkedHashMap<>();
+        for (Object id : ids) {
+            idsByShard.computeIfAbsent(bookShards.shardOf((Long) id), shard -> new ArrayList<>()).add((Long) id);
+        }
+        return idsByShard;
+    }
+
+    // Asks only the shards owning some of the ids, each for its own ids.
+    @SuppressWarnings("unchecked")
+    private <T> List<T> findByIds(ProceedingJoinPoint joinPoint, Collection<?> ids, Comparator<T> order) {
+        Map<Integer, List<Long>> idsByShard = idsByShard(ids);
+        if (idsByShard.isEmpty()) {
+            return List.of();
+        }
+        List<List<T>> perShard = bookShards.fanOut(idsByShard.keySet(),
+                shard -> (List<T>) proceed(joinPoint, new Object[]{idsByShard.get(shard)}));
+        return merge(perShard, order);
+    }
+
+    // Writes on one shard after the other, so each write can join the surrounding transaction of its shard.
+    private int onShardsOfIds(ProceedingJoinPoint joinPoint, Object[] args) {
+        int written = 0;
+        for (Map.Entry<Integer, List<Long>> group : idsByShard((Collection<?>) args[0]).entrySet()) {
+            Object[] shardArgs = args.clone();
+            shardArgs[0] = group.getValue();
+            written += (Integer) onShard(group.getKey(), joinPoint, shardArgs);
+        }
+        return written;
+    }
+
+    // Reads on one shard after the other, so each read can join the surrounding transaction of its shard.
+    @SuppressWarnings("unchecked")
+    private <T> List<List<T>> onShardsOfIdsToLists(ProceedingJoinPoint joinPoint, Object[] args) {
+        List<List<T>> perShard = new ArrayList<>();
+        for (Map.Entry<Integer, List<Long>> group : idsByShard((Collection<?>) args[0]).entrySet()) {
+            perShard.add((List<T>) onShard(group.getKey(), joinPoint, new Object[]{group.getValue()}));
+        }
+        return perShard;
+    }
+
+    // Asks every shard for the rows up to the end of the page, in page order, then skips to the page in the merged rows.
+    @SuppressWarnings("unchecked")
+    private Slice<BookResponse> pageAcrossShards(ProceedingJoinPoint joinPoint, Pageable pageable) {
+        Sort sort = pageable.getSort().isSorted() ? pageable.getSort() : Sort.by("id");
+        long end = pageable.getOffset() + pageable.getPageSize();
+        Pageable perShardPage = PageRequest.of(0, (int) Math.min(Integer.MAX_VALUE, end), sort);
+        List<Slice<BookResponse>> slices = bookShards.fanOut(
+                shard -> (Slice<BookResponse>) proceed(joinPoint, new Object[]{perShardPage}));
+        List<BookResponse> merged = merge(slices.stream().map(Slice::getContent).toList(), comparator(sort));
+        boolean hasNext = merged.size() > end || slices.stream().anyMatch(Slice::hasNext);
+        int from = (int) Math.min(pageable.getOffset(), merged.size());
+        int to = (int) Math.min(end, merged.size());
+        return new SliceImpl<>(merged.subList(from, to), pageable, hasNext);
+    }
+
+    // Every shard returns the slice following the same keyset position, and the merged slice takes the first rows.
+    @SuppressWarnings("unchecked")
+    private <T> Slice<T> nextSlice(ProceedingJoinPoint joinPoint, Object[] args, Comparator<T> order) {
+        Pageable pageable = (Pageable) args[args.length - 1];
+        List<Slice<T>> slices = bookShards.fanOut(shard -> (Slice<T>) proceed(joinPoint, args));
+        List<T> merged = merge(slices.stream().map(Slice::getContent).toList(), order);
+        boolean hasNext = merged.size() > pageable.getPageSize() || slices.stream().anyMatch(Slice::hasNext);
+        return new SliceImpl<>(merged.subList(0, Math.min(pageable.getPageSize(), merged.size())), pageable, hasNext);
+    }
+
+    private static Comparator<BookResponse> comparator(Sort sort) {
+        Comparator<BookResponse> comparator = null;
+        for (Sort.Order order : sort) {
+            Comparator<BookResponse> byProperty = switch (BookSortKey.fromProperty(order.getProperty())) {
+                case ID -> Comparator.comparing(BookResponse::getId);
+                case TITLE -> Comparator.comparing(BookResponse::getTitle);
+                case PUBLICATION_YEAR -> Comparator.comparing(BookResponse::getPublicationYear);
+            };
+            byProperty = order.isDescending() ? byProperty.reversed() : byProperty;
+            comparator = comparator == null ? byProperty : comparator.thenComparing(byProperty);
+        }
+        return comparator == null ? Comparator.comparing(BookResponse::getId) : comparator;
+    }
+
+    /**
+     * Concatenates the streams of every shard, opening the next shard's stream only once the previous one is
+     * exhausted and closed. The stream of a shard other than the one of the surrounding transaction is read in its
+     * own read-only transaction, committed when that stream is closed.
+     */
+    private Stream<Object> streamAcrossShards(ProceedingJoinPoint joinPoint, Object[] args) {
+        ShardRows rows = new ShardRows(joinPoint, args);
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(rows, Spliterator.ORDERED), false)
+                .onClose(rows::close);
+    }
+
+    private Stream<?> openStream(int shard, ProceedingJoinPoint joinPoint, Object[] args) {
+        if (TransactionSynchronizationManager.isActualTransactionActive() && shard == transactionShard()) {
+            return (Stream<?>) bookShards.callOn(shard, () -> proceed(joinPoint, args));
+        }
+        DefaultTransactionDefinition definition = new DefaultTransactionDefinition(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        definition.setReadOnly(true);
+        TransactionStatus status = bookShards.callOn(shard, () -> transactionManager.getTransaction(definition));
+        try {
+            Stream<?> stream = (Stream<?>) bookShards.callOn(shard, () -> proceed(joinPoint, args));
+            return stream.onClose(() -> transactionManager.commit(status));
+        } catch (RuntimeException e) {
+            transactionManager.rollback(status);
+            throw e;
+        }
+    }
+
+    // Iterates the rows of one shard after the other, keeping only the stream of the current shard open.
+    private class ShardRows implements Iterator<Object> {
+        private final ProceedingJoinPoint joinPoint;
+        private final Object[] args;
+        private int nextShard;
+        private Stream<?> current;
+        private Iterator<?> currentRows;
+
+        private ShardRows(ProceedingJoinPoint joinPoint, Object[] args) {
+            this.joinPoint = joinPoint;
+            this.args = args;
+        }
+
+        @Override
+        public boolean hasNext() {
+            while ((currentRows == null || !currentRows.hasNext()) && nextShard < bookShards.getShardCount()) {
+                close();
+                current = openStream(nextShard++, joinPoint, args);
+                currentRows = current.iterator();
+            }
+            return currentRows != null && currentRows.hasNext();
+        }
+
+        @Override
+        public Object next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            return currentRows.next();
+        }
+
+        private void close() {
+            if (current != null) {
+                Stream<?> closing = current;
+                current = null;
+                currentRows = null;
+                closing.close();
+            }
+        }
+    }
+
+    private static Object proceed(ProceedingJoinPoint joinPoint, Object[] args) {
+        try {
+            return joinPoint.proceed(args);
+        } catch (RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new UndeclaredThrowableException(e);
+        }
+    }
+}
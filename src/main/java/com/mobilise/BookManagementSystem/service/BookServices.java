@@ -2,9 +2,21 @@ package com.mobilise.BookManagementSystem.service;
 
 import com.mobilise.BookManagementSystem.dto.request.BookRequest;
 import com.mobilise.BookManagementSystem.dto.response.ApiResponse;
+import com.mobilise.BookManagementSystem.dto.response.BatchBookResponse;
+import com.mobilise.BookManagementSystem.dto.response.BookChangesResponse;
 import com.mobilise.BookManagementSystem.dto.response.BookResponse;
+import com.mobilise.BookManagementSystem.dto.response.BulkDeleteResponse;
+import com.mobilise.BookManagementSystem.dto.response.CacheStatsResponse;
+import com.mobilise.BookManagementSystem.dto.response.FacetResponse;
+import com.mobilise.BookManagementSystem.dto.response.MultiGetBookResponse;
 import com.mobilise.BookManagementSystem.dto.response.PaginatedBookResponse;
+import com.mobilise.BookManagementSystem.dto.response.SnapshotResponse;
+import com.mobilise.BookManagementSystem.dto.response.StockResponse;
+import com.mobilise.BookManagementSystem.exception.ValidTitleException;
+import com.mobilise.BookManagementSystem.service.cache.VersionedBookResponse;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import java.io.OutputStream;
 import java.time.Year;
 import java.util.List;
 
@@ -12,16 +24,39 @@ public interface BookServices {
 
     // Add
     BookResponse addNewBook(BookRequest bookRequest);
+    BatchBookResponse addNewBooks(List<BookRequest> bookRequests);
     // Retrieve with Pagination
     PaginatedBookResponse getAllBooksWithPagination(int pageNo, int pageSize);
+    PaginatedBookResponse getAllBooksWithCursor(String cursor, int pageSize, String sortBy);
+    // Export
+    void exportCatalog(OutputStream outputStream);
     // Search
     BookResponse getBookById(Long id);
+    VersionedBookResponse getVersionedBookById(Long id);
+    MultiGetBookResponse getBooksByIds(List<Long> ids);
     // Search
     List<BookResponse> searchBookByTitleOrAuthorOrIsbn(String searchText);
     List<BookResponse> searchBookByPublicationYear(Year publicationYear);
+    // Facets
+    FacetResponse getBookFacets(int authorLimit);
     // Update
-    BookResponse updateBook(Long id, BookRequest bookRequest);
+    BookResponse updateBook(Long id, BookRequest bookRequest) throws ValidTitleException;
+    BookResponse patchBook(Long id, BookRequest bookRequest) throws ValidTitleException;
+    // Inventory
+    StockResponse checkoutBook(Long id, int copies);
+    StockResponse returnBook(Long id, int copies);
     // Delete
     ApiResponse deleteBookById(Long id);
+    BulkDeleteResponse deleteBooksByIds(List<Long> ids);
+    BulkDeleteResponse deleteBooksByPredicate(Year publicationYear, String author);
+    // Changes
+    BookChangesResponse getChangesSince(String cursor, int limit);
+    SseEmitter streamChanges(String lastEventId);
+    // Snapshot
+    SnapshotResponse saveCatalogSnapshot();
+    // Cache statistics
+    CacheStatsResponse getBookCacheStats();
+    // Conditional GET validators
+    long getCatalogVersion();
 
 }
@@ -0,0 +1,107 @@
+package com.mobilise.BookManagementSystem.service.admission;
+
+import com.mobilise.BookManagementSystem.exception.OverloadedException;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Admission control in front of the controller: every endpoint class has its own adaptive concurrency limit
+ * (see AimdLimit), and requests beyond it are rejected at once with an OverloadedException instead of queueing
+ * until they time out. When the database slows down, the latency of the admitted requests rises, the limits shrink,
+ * and the excess load is shed while the requests still admitted keep a usable latency.
+ * <p>
+ * The classes are shed in the reverse order of EndpointClass: a class is also rejected while a cheaper class has
+ * all of its slots in use, so expensive searches make room for book lookups first.
+ */
+@Component
+public class AdmissionControl implements MeterBinder {
+    private final boolean enabled;
+    private final long retryAfterSeconds;
+    private final Map<EndpointClass, AimdLimit> limits = new EnumMap<>(EndpointClass.class);
+
+    public AdmissionControl(@Value("${book.admission.enabled:true}") boolean enabled,
+                            @Value("${book.admission.point-read.max-limit:200}") int pointReadMaxLimit,
+                            @Value("${book.admission.point-read.latency-threshold:100ms}") Duration pointReadLatencyThreshold,
+                            @Value("${book.admission.write.max-limit:100}") int writeMaxLimit,
+                            @Value("${book.admission.write.latency-threshold:500ms}") Duration writeLatencyThreshold,
+                            @Value("${book.admission.search.max-limit:50}") int searchMaxLimit,
+                            @Value("${book.admission.search.latency-threshold:1s}") Duration searchLatencyThreshold,
+                            @Value("${book.admission.backoff-ratio:0.9}") double backoffRatio,
+                            @Value("${book.admission.retry-after:1s}") Duration retryAfter) {
+        this.enabled = enabled;
+        this.retryAfterSeconds = Math.max(1, retryAfter.toSeconds());
+        limits.put(EndpointClass.POINT_READ, new AimdLimit(pointReadMaxLimit, pointReadLatencyThreshold.toNanos(), backoffRatio));
+        limits.put(EndpointClass.WRITE, new AimdLimit(writeMaxLimit, writeLatencyThreshold.toNanos(), backoffRatio));
+        limits.put(EndpointClass.SEARCH, new AimdLimit(searchMaxLimit, searchLatencyThreshold.toNanos(), backoffRatio));
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Admits a request of the given class, which must then be completed with release.
+     * @param  endpointClass  the class of the requested endpoint
+     * @throws OverloadedException  if the class is at its limit or a cheaper class is congested
+     */
+    public void acquire(EndpointClass endpointClass) {
+        AimdLimit limit = limits.get(endpointClass);
+        if (isCheaperClassCongested(endpointClass) || !limit.tryAcquire()) {
+            limit.recordRejection();
+            throw new OverloadedException("The service is overloaded, please retry in " + retryAfterSeconds
+                    + " seconds", retryAfterSeconds);
+        }
+    }
+
+    /**
+     * Completes an admitted request and adapts the limit of its class.
+     * @param  endpointClass    the class the request was admitted in
+     * @param  admittedAtNanos  the System.nanoTime at which the request was admitted
+     * @param  latencyNanos     the time the request took
+     * @param  failed           true if the request failed with a server error
+     */
+    public void release(EndpointClass endpointClass, long admittedAtNanos, long latencyNanos, boolean failed) {
+        limits.get(endpointClass).release(admittedAtNanos, latencyNanos, failed);
+    }
+
+    private boolean isCheaperClassCongested(EndpointClass endpointClass) {
+        for (EndpointClass cheaper : EndpointClass.values()) {
+            if (cheaper == endpointClass) {
+                return false;
+            }
+            if (limits.get(cheaper).isCongested()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // Publishes the limit and the in-flight requests of every class as gauges, and its rejections as a counter.
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        limits.forEach((endpointClass, limit) -> {
+            String tag = endpointClass.name().toLowerCase(Locale.ROOT);
+            Gauge.builder("book.admission.limit", limit, AimdLimit::getLimit)
+                    .description("Current concurrency limit of the endpoint class")
+                    .tag("class", tag)
+                    .register(registry);
+            Gauge.builder("book.admission.in.flight", limit, AimdLimit::getInFlight)
+                    .description("Requests of the endpoint class currently admitted")
+                    .tag("class", tag)
+                    .register(registry);
+            FunctionCounter.builder("book.admission.rejected", limit, AimdLimit::getRejected)
+                    .description("Requests of the endpoint class rejected with 503 Service Unavailable")
+                    .tag("class", tag)
+                    .register(registry);
+        });
+    }
+}
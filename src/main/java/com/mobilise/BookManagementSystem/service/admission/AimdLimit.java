@@ -0,0 +1,85 @@
+package com.mobilise.BookManagementSystem.service.admission;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Concurrency limit of one endpoint class, adapted with additive increase and multiplicative decrease (AIMD)
+ * from the latency of the requests it admits.
+ * A request slower than the latency threshold, or failing with a server error, multiplies the limit by the backoff
+ * ratio, at most once per latency window: only a request admitted after the last decrease can decrease the limit again,
+ * so a burst of requests slowed down together by one stall (a GC pause, a lock) shrinks it once instead of collapsing it.
+ * A fast request made while at least half of the limit was in use raises it by one, up to the maximum.
+ * The limit starts at the maximum, so it only shrinks once the latency degrades.
+ */
+class AimdLimit {
+    private static final int MIN_LIMIT = 1;
+
+    private final int maxLimit;
+    private final long latencyThresholdNanos;
+    private final double backoffRatio;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final LongAdder rejected = new LongAdder();
+    // Guarded by this for updates; read without the lock when admitting
+    private volatile double limit;
+    // Admission time of the requests that can no longer decrease the limit, guarded by this
+    private long lastDecreaseNanos;
+    private boolean decreased;
+
+    AimdLimit(int maxLimit, long latencyThresholdNanos, double backoffRatio) {
+        this.maxLimit = maxLimit;
+        this.latencyThresholdNanos = latencyThresholdNanos;
+        this.backoffRatio = backoffRatio;
+        this.limit = maxLimit;
+    }
+
+    // Takes a slot if fewer requests than the limit are in flight; every successful call must be followed by release.
+    boolean tryAcquire() {
+        int current;
+        do {
+            current = inFlight.get();
+            if (current >= (int) limit) {
+                return false;
+            }
+        } while (!inFlight.compareAndSet(current, current + 1));
+        return true;
+    }
+
+    // Frees the slot of a completed request and adapts the limit to how it went.
+    void release(long admittedAtNanos, long latencyNanos, boolean failed) {
+        int inFlightBefore = inFlight.getAndDecrement();
+        synchronized (this) {
+            if (failed || latencyNanos > latencyThresholdNanos) {
+                // Requests admitted before the last decrease saw the old limit, so they already took part in it
+                if (!decreased || admittedAtNanos - lastDecreaseNanos > 0) {
+                    limit = Math.max(MIN_LIMIT, limit * backoffRatio);
+                    lastDecreaseNanos = System.nanoTime();
+                    decreased = true;
+                }
+            } else if (inFlightBefore * 2 >= limit) {
+                limit = Math.min(maxLimit, limit + 1);
+            }
+        }
+    }
+
+    void recordRejection() {
+        rejected.increment();
+    }
+
+    // True while every slot is taken, which sheds the endpoint classes of a lower priority.
+    boolean isCongested() {
+        return inFlight.get() >= (int) limit;
+    }
+
+    int getLimit() {
+        return (int) limit;
+    }
+
+    int getInFlight() {
+        return inFlight.get();
+    }
+
+    long getRejected() {
+        return rejected.sum();
+    }
+}
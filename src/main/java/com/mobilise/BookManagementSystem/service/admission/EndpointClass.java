@@ -0,0 +1,11 @@
+package com.mobilise.BookManagementSystem.service.admission;
+
+// The classes of endpoints that share a concurrency limit, from the cheapest to the most expensive.
+public enum EndpointClass {
+    // Lookups of one book by id, mostly served from the book cache
+    POINT_READ,
+    // Requests that add, change or delete books
+    WRITE,
+    // Searches, pages and change walks that may scan large parts of the catalog; shed first
+    SEARCH
+}
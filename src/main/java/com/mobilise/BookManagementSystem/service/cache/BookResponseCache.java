@@ -0,0 +1,94 @@
+package com.mobilise.BookManagementSystem.service.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.mobilise.BookManagementSystem.dto.response.CacheStatsResponse;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Size-bounded, TTL-aware read-through cache of mapped BookResponse objects, with their updatedDate, keyed by book id.
+ * Entries are evicted by a frequency-aware policy once the maximum size is reached and expire after the configured TTL.
+ * Writes must call invalidate with the id of the changed book after incrementing the CatalogVersion,
+ * so the next read loads the committed state, also when it is served by the read replica.
+ */
+@Component
+public class BookResponseCache implements MeterBinder {
+    private final long maximumSize;
+    private final Cache<Long, VersionedBookResponse> cache;
+
+    public BookResponseCache(@Value("${book.cache.by-id.maximum-size:10000}") long maximumSize,
+                             @Value("${book.cache.by-id.expire-after-write:10m}") Duration expireAfterWrite) {
+        this.maximumSize = maximumSize;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(expireAfterWrite)
+                .recordStats()
+                .build();
+    }
+
+    /**
+     * Returns the cached response of the book, loading it on a miss.
+     * Concurrent misses for the same id share one load. A load that returns null (a book that does not exist)
+     * or throws caches nothing, and the null or the exception is passed on to the caller.
+     * @param  id      the id of the book
+     * @param  loader  loads and maps the book on a miss
+     * @return         the cached or freshly loaded response, or null if the loader found no book
+     */
+    public VersionedBookResponse get(Long id, Function<Long, VersionedBookResponse> loader) {
+        return cache.get(id, loader);
+    }
+
+    // Returns the cached responses of the given books that are present, counting a hit or a miss for every id.
+    public Map<Long, VersionedBookResponse> getAllPresent(Collection<Long> ids) {
+        return cache.getAllPresent(ids);
+    }
+
+    /**
+     * Caches a response loaded outside of get, unless the book is cached already.
+     * Unlike get, nothing stops a write from invalidating the book between the load and this call, so callers must
+     * check afterwards that no write happened since the load, and invalidate the book otherwise.
+     * @param  id        the id of the book
+     * @param  response  the loaded response
+     */
+    public void putIfAbsent(Long id, VersionedBookResponse response) {
+        cache.asMap().putIfAbsent(id, response);
+    }
+
+    // Returns the cached entry of the book, or null, without counting a hit or a miss in the statistics.
+    public VersionedBookResponse peek(Long id) {
+        return cache.asMap().get(id);
+    }
+
+    public void invalidate(Long id) {
+        cache.invalidate(id);
+    }
+
+    // Publishes the cache counters as cache.gets, cache.evictions and cache.size metrics tagged cache=bookById.
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, cache, "bookById");
+    }
+
+    public CacheStatsResponse stats() {
+        CacheStats stats = cache.stats();
+        return CacheStatsResponse.builder()
+                .estimatedSize(cache.estimatedSize())
+                .maximumSize(maximumSize)
+                .hitCount(stats.hitCount())
+                .missCount(stats.missCount())
+                .hitRate(stats.hitRate())
+                .evictionCount(stats.evictionCount())
+                .loadFailureCount(stats.loadFailureCount())
+                .build();
+    }
+}
@@ -0,0 +1,25 @@
+package com.mobilise.BookManagementSystem.service.cache;
+
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Version of the whole catalog, used as the validator of responses that depend on more than one book
+ * (pages and search results). Every write must call increment once it has been committed, so that a version
+ * read before a query never labels data older than that version.
+ * The version is an epoch-millisecond timestamp that strictly increases on every write and is seeded from the
+ * startup time, so it doubles as the Last-Modified time of the catalog and never repeats across restarts.
+ */
+@Component
+public class CatalogVersion {
+    private final AtomicLong version = new AtomicLong(System.currentTimeMillis());
+
+    public long current() {
+        return version.get();
+    }
+
+    public long increment() {
+        return version.updateAndGet(current -> Math.max(current + 1, System.currentTimeMillis()));
+    }
+}
@@ -0,0 +1,118 @@
+package com.mobilise.BookManagementSystem.service.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.mobilise.BookManagementSystem.dto.response.BookResponse;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Year;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Bounded cache of search results, so repeated searches are answered without running them again.
+ * Every entry is keyed by its normalized query plus a version stamp, and is never invalidated one by one: a write
+ * moves the stamp, after which the old entries are unreachable and age out of the cache.
+ * <p>
+ * Text searches are stamped with the catalog version, so any write invalidates all of them at once.
+ * Publication year searches are stamped with the catalog version of the last write to their year, so a write only
+ * invalidates the results of the years of the book it changed; writes must report those years with
+ * publicationYearsChanged. A result is only cached if it was read at a catalog version at least as new as its stamp,
+ * so a result read from a lagging replica never outlives the write it missed.
+ * The cache is bounded by the total number of books held by its results.
+ */
+@Component
+public class SearchResultCache implements MeterBinder {
+    private final Cache<Object, List<BookResponse>> cache;
+    // Catalog version of the last write to each publication year
+    private final Map<Year, Long> yearVersions = new ConcurrentHashMap<>();
+    // Catalog version of the last write to a book of unknown publication year, which stamps every year
+    private final AtomicLong allYearsVersion = new AtomicLong();
+
+    public SearchResultCache(@Value("${book.cache.search.maximum-books:100000}") long maximumBooks,
+                             @Value("${book.cache.search.expire-after-write:1m}") Duration expireAfterWrite) {
+        this.cache = Caffeine.newBuilder()
+                .maximumWeight(maximumBooks)
+                .<Object, List<BookResponse>>weigher((key, books) -> books.size() + 1)
+                .expireAfterWrite(expireAfterWrite)
+                .recordStats()
+                .build();
+    }
+
+    /**
+     * Returns the cached result of a text search, or runs the search and caches its result.
+     * @param  query           the normalized search text
+     * @param  catalogVersion  the catalog version the caller reads, see ReplicaRouting.readableCatalogVersion
+     * @param  search          runs the search on a miss
+     * @return                 the cached or fresh result
+     */
+    public List<BookResponse> getBySearchText(String query, long catalogVersion, Supplier<List<BookResponse>> search) {
+        return get(new SearchTextKey(query, catalogVersion), catalogVersion, catalogVersion, search);
+    }
+
+    // Same as getBySearchText, for a publication year search stamped with the version of its year.
+    public List<BookResponse> getByPublicationYear(Year publicationYear, long catalogVersion, Supplier<List<BookResponse>> search) {
+        long yearVersion = Math.max(yearVersions.getOrDefault(publicationYear, 0L), allYearsVersion.get());
+        return get(new PublicationYearKey(publicationYear, yearVersion), yearVersion, catalogVersion, search);
+    }
+
+    private List<BookResponse> get(Object key, long stamp, long catalogVersion, Supplier<List<BookResponse>> search) {
+        List<BookResponse> cached = cache.getIfPresent(key);
+        if (cached != null) {
+            return cached;
+        }
+        List<BookResponse> result = search.get();
+        if (catalogVersion >= stamp) {
+            cache.put(key, result);
+        }
+        return result;
+    }
+
+    /**
+     * Stamps the publication year results of the given years with a new version, which invalidates them.
+     * Must be called after the write has been committed, with the version returned by CatalogVersion.increment.
+     * @param  version  the catalog version of the write
+     * @param  years    the publication years of the changed books before and after the write; a null year,
+     *                  for a book whose year is unknown, invalidates the results of every year
+     */
+    public void publicationYearsChanged(long version, Collection<Year> years) {
+        for (Year year : years) {
+            if (year == null) {
+                allYearsVersion.accumulateAndGet(version, Math::max);
+            } else {
+                yearVersions.merge(year, version, Math::max);
+            }
+        }
+    }
+
+    // Publishes the cache counters as cache.gets, cache.evictions and cache.size metrics tagged cache=bookSearch.
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, cache, "bookSearch");
+    }
+
+    @EqualsAndHashCode
+    @AllArgsConstructor
+    private static class SearchTextKey {
+        private final String query;
+        private final long catalogVersion;
+    }
+
+    @EqualsAndHashCode
+    @AllArgsConstructor
+    private static class PublicationYearKey {
+        private final Year publicationYear;
+        private final long yearVersion;
+    }
+}
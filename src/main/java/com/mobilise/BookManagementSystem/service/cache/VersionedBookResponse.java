@@ -0,0 +1,18 @@
+package com.mobilise.BookManagementSystem.service.cache;
+
+import com.mobilise.BookManagementSystem.dto.response.BookResponse;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.time.LocalDateTime;
+
+/**
+ * A cached BookResponse together with the updatedDate of the row it was mapped from.
+ * Keeping both in one entry means the ETag served for a book always describes the body served with it.
+ */
+@Getter
+@AllArgsConstructor
+public class VersionedBookResponse {
+    private BookResponse response;
+    private LocalDateTime updatedDate;
+}
@@ -0,0 +1,227 @@
+package com.mobilise.BookManagementSystem.service.changes;
+
+import com.mobilise.BookManagementSystem.dto.response.BookChangeResponse;
+import com.mobilise.BookManagementSystem.exception.ChangeFeedFullException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Pushes every committed change of the catalog to server-sent-event subscribers.
+ * Changes are kept in a ring of book.changes.feed.capacity entries, numbered by a sequence, and every subscriber only
+ * holds its position in the ring, so a slow subscriber never makes the feed buffer more than the ring.
+ * A subscriber that falls more than the ring behind skips to the newest change and receives an "overflow" event,
+ * after which it has to catch up through the changes API (see BookChangeLog), as after a restart of the application.
+ * <p>
+ * Every "change" event has the id feedId-sequence, so a reconnecting EventSource resumes from its Last-Event-ID
+ * as long as that change is still in the ring. Events are written by a drain task per subscriber, never by the thread
+ * that published the change, so a blocked connection only ever holds up its own subscriber.
+ */
+@Slf4j
+@Component
+public class BookChangeFeed implements DisposableBean {
+    // Changes written to a subscriber before the ring is read again
+    private static final int DRAIN_BATCH_SIZE = 256;
+    // Idle subscribers receive a comment this often, so proxies do not close quiet connections
+    private static final long HEARTBEAT_SECONDS = 15;
+
+    // Identifies this run of the application in event ids, so ids from before a restart are never resumed
+    private final String feedId = Long.toString(System.currentTimeMillis());
+    private final BookChangeResponse[] ring;
+    private final int maxSubscribers;
+    private final Duration timeout;
+    private final List<Subscriber> subscribers = new CopyOnWriteArrayList<>();
+    private final ExecutorService drainExecutor = Executors.newCachedThreadPool(runnable -> {
+        Thread thread = new Thread(runnable, "book-change-feed");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final ScheduledExecutorService heartbeats = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "book-change-feed-heartbeat");
+        thread.setDaemon(true);
+        return thread;
+    });
+    // Sequence of the next published change, guarded by this; sequences start at 1
+    private long nextSequence = 1;
+
+    public BookChangeFeed(@Value("${book.changes.feed.capacity:4096}") int capacity,
+                          @Value("${book.changes.feed.max-subscribers:100}") int maxSubscribers,
+                          @Value("${book.changes.feed.timeout:30m}") Duration timeout) {
+        this.ring = new BookChangeResponse[capacity];
+        this.maxSubscribers = maxSubscribers;
+        this.timeout = timeout;
+        heartbeats.scheduleWithFixedDelay(this::requestHeartbeats, HEARTBEAT_SECONDS, HEARTBEAT_SECONDS, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Appends a committed change to the ring, overwriting the oldest one once the ring is full, and wakes up the
+     * subscribers. Never blocks on a subscriber.
+     * @param  change  the change, to be published after the transaction making it has committed
+     */
+    public void publish(BookChangeResponse change) {
+        synchronized (this) {
+            ring[(int) (nextSequence % ring.length)] = change;
+            nextSequence++;
+        }
+        subscribers.forEach(this::scheduleDrain);
+    }
+
+    /**
+     * Opens a new subscription, starting after the given Last-Event-ID when it is still in the ring, otherwise with
+     * the next published change. A Last-Event-ID that can no longer be resumed first receives an "overflow" event.
+     * @param  lastEventId  the id of the last event received before reconnecting, or null for a new subscriber
+     * @return              the emitter the events are written to
+     * @throws ChangeFeedFullException  if book.changes.feed.max-subscribers subscribers are already connected
+     */
+    public SseEmitter subscribe(String lastEventId) {
+        SseEmitter emitter = new SseEmitter(timeout.toMillis());
+        Subscriber subscriber = new Subscriber(emitter);
+        synchronized (this) {
+            if (subscribers.size() >= maxSubscribers) {
+                throw new ChangeFeedFullException("The change feed already has " + maxSubscribers
+                        + " subscribers, please retry later or poll the changes API");
+            }
+            subscriber.next = nextSequence;
+            subscriber.overflowed = lastEventId != null && !lastEventId.isBlank() && !resume(subscriber, lastEventId);
+            subscribers.add(subscriber);
+        }
+        emitter.onCompletion(() -> subscribers.remove(subscriber));
+        emitter.onTimeout(emitter::complete);
+        emitter.onError(ex -> subscribers.remove(subscriber));
+        scheduleDrain(subscriber);
+        log.debug("Change feed subscriber added, {} connected", subscribers.size());
+        return emitter;
+    }
+
+    public int getSubscriberCount() {
+        return subscribers.size();
+    }
+
+    // Moves the subscriber just after the given event if it is from this feed and still in the ring; called under the lock.
+    private boolean resume(Subscriber subscriber, String lastEventId) {
+        int separator = lastEventId.lastIndexOf('-');
+        if (separator <= 0 || !lastEventId.substring(0, separator).equals(feedId)) {
+            return false;
+        }
+        try {
+            long sequence = Long.parseLong(lastEventId.substring(separator + 1));
+            if (sequence + 1 < oldestSequence() || sequence >= nextSequence) {
+                return false;
+            }
+            subscriber.next = sequence + 1;
+            return true;
+        } catch (NumberFormatException ex) {
+            return false;
+        }
+    }
+
+    // The oldest sequence still in the ring; called under the lock.
+    private long oldestSequence() {
+        return Math.max(1, nextSequence - ring.length);
+    }
+
+    private synchronized long head() {
+        return nextSequence;
+    }
+
+    private void scheduleDrain(Subscriber subscriber) {
+        if (subscriber.draining.compareAndSet(false, true)) {
+            try {
+                drainExecutor.execute(() -> drain(subscriber));
+            } catch (RuntimeException ex) {
+                // The executor has been shut down
+                subscriber.draining.set(false);
+            }
+        }
+    }
+
+    // Writes the changes the subscriber has not received yet in batches, copying each batch out of the ring under the lock.
+    private void drain(Subscriber subscriber) {
+        BookChangeResponse[] batch = new BookChangeResponse[Math.min(DRAIN_BATCH_SIZE, ring.length)];
+        try {
+            if (subscriber.heartbeatDue) {
+                subscriber.heartbeatDue = false;
+                subscriber.emitter.send(SseEmitter.event().comment("heartbeat"));
+            }
+            while (true) {
+                long from;
+                int count;
+                synchronized (this) {
+                    if (subscriber.next < oldestSequence()) {
+                        subscriber.next = nextSequence;
+                        subscriber.overflowed = true;
+                    }
+                    from = subscriber.next;
+                    count = (int) Math.min(batch.length, nextSequence - from);
+                    for (int i = 0; i < count; i++) {
+                        batch[i] = ring[(int) ((from + i) % ring.length)];
+                    }
+                }
+                if (subscriber.overflowed) {
+                    subscriber.overflowed = false;
+                    subscriber.emitter.send(SseEmitter.event().id(feedId + "-" + (from - 1)).name("overflow")
+                            .data("Changes were missed, catch up through the changes API"));
+                }
+                if (count == 0) {
+                    break;
+                }
+                for (int i = 0; i < count; i++) {
+                    subscriber.emitter.send(SseEmitter.event().id(feedId + "-" + (from + i)).name("change")
+                            .data(batch[i], MediaType.APPLICATION_JSON));
+                }
+                subscriber.next = from + count;
+            }
+        } catch (IOException | IllegalStateException ex) {
+            // The connection is gone; the container completes the emitter, which is dropped right away
+            log.debug("Change feed subscriber dropped: {}", ex.getMessage());
+            subscribers.remove(subscriber);
+        } finally {
+            subscriber.draining.set(false);
+        }
+        // A change published or a heartbeat requested while the flag was still set would otherwise wait for the next one
+        if (subscribers.contains(subscriber) && (subscriber.next < head() || subscriber.heartbeatDue)) {
+            scheduleDrain(subscriber);
+        }
+    }
+
+    private void requestHeartbeats() {
+        for (Subscriber subscriber : subscribers) {
+            subscriber.heartbeatDue = true;
+            scheduleDrain(subscriber);
+        }
+    }
+
+    @Override
+    public void destroy() {
+        heartbeats.shutdownNow();
+        drainExecutor.shutdownNow();
+        subscribers.forEach(subscriber -> subscriber.emitter.complete());
+        subscribers.clear();
+    }
+
+    private static final class Subscriber {
+        private final SseEmitter emitter;
+        // Only one drain task runs per subscriber at a time; it owns next and overflowed
+        private final AtomicBoolean draining = new AtomicBoolean();
+        private long next;
+        private boolean overflowed;
+        private volatile boolean heartbeatDue;
+
+        private Subscriber(SseEmitter emitter) {
+            this.emitter = emitter;
+        }
+    }
+}
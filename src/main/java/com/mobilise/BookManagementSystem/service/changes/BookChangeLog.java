@@ -0,0 +1,127 @@
+package com.mobilise.BookManagementSystem.service.changes;
+
+import com.mobilise.BookManagementSystem.dto.response.BookChangeResponse;
+import com.mobilise.BookManagementSystem.dto.response.BookChangesResponse;
+import com.mobilise.BookManagementSystem.exception.ChangesExpiredException;
+import com.mobilise.BookManagementSystem.repository.BookRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.ContextClosedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Answers "what changed since my watermark" for clients that keep a copy of the catalog, so they no longer need to
+ * re-crawl it. Changed books are found by a keyset walk over the (updatedDate, id) index, deleted books through
+ * their BookTombstone, and both are merged in (changedAt, id) order.
+ * <p>
+ * updatedDate is set before the writing transaction commits, so a change only becomes visible slightly after its
+ * timestamp. The walk therefore stops book.changes.settle-time before now, and a client never moves its watermark
+ * past a change that could still become visible; the settle time must exceed the duration of every write transaction.
+ * Tombstones are kept for book.changes.tombstone-retention and are not part of catalog snapshots, so a watermark
+ * older than the retention, or older than the start of the application, is rejected with a ChangesExpiredException
+ * and the client has to re-sync from scratch.
+ * Changes are always read from the primary database, since a lagging replica would move watermarks past missing rows.
+ */
+@Slf4j
+@Component
+public class BookChangeLog {
+    private static final int MAX_LIMIT = 5000;
+    private static final long PURGE_INTERVAL_MINUTES = 60;
+    private static final Comparator<BookChangeResponse> CHANGE_ORDER =
+            Comparator.comparing(BookChangeResponse::getChangedAt).thenComparing(BookChangeResponse::getBookId);
+
+    private final BookRepository bookRepository;
+    private final Duration settleTime;
+    private final Duration tombstoneRetention;
+    // Tombstones written before this time were lost with the previous in-memory database
+    private final LocalDateTime startedAt = LocalDateTime.now();
+    private final ScheduledExecutorService purger = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "book-tombstone-purge");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public BookChangeLog(BookRepository bookRepository,
+                         @Value("${book.changes.settle-time:2s}") Duration settleTime,
+                         @Value("${book.changes.tombstone-retention:7d}") Duration tombstoneRetention) {
+        this.bookRepository = bookRepository;
+        this.settleTime = settleTime;
+        this.tombstoneRetention = tombstoneRetention;
+    }
+
+    /**
+     * Returns the changes made after the given watermark, oldest first.
+     * The next cursor points after the last returned change, or, once every settled change has been returned,
+     * after the settle horizon, so that clients polling a quiet catalog keep a fresh watermark.
+     * @param  cursor  the nextCursor of the previous call, or null to receive every book as a change
+     * @param  limit   the maximum number of changes to return
+     * @return         the changes, the next cursor and whether more changes are already available
+     * @throws ChangesExpiredException  if deletions after the watermark may no longer be known
+     */
+    public BookChangesResponse changesSince(String cursor, int limit) {
+        ChangeCursor since = ChangeCursor.decode(cursor);
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime horizon = now.minus(tombstoneRetention).isAfter(startedAt) ? now.minus(tombstoneRetention) : startedAt;
+        if (since != ChangeCursor.START && since.getChangedAt().isBefore(horizon)) {
+            throw new ChangesExpiredException("Changes before " + horizon + " are no longer tracked. "
+                    + "Re-sync the catalog by requesting the changes without a cursor");
+        }
+        int size = Math.max(1, Math.min(limit, MAX_LIMIT));
+        LocalDateTime until = now.minus(settleTime).truncatedTo(ChronoUnit.MICROS);
+        Pageable pageable = PageRequest.of(0, size);
+        Slice<BookChangeResponse> updated = bookRepository.findChangedSince(since.getChangedAt(), since.getBookId(), until, pageable);
+        Slice<BookChangeResponse> deleted = bookRepository.findDeletedSince(since.getChangedAt(), since.getBookId(), until, pageable);
+        List<BookChangeResponse> merged = Stream.concat(updated.stream(), deleted.stream()).sorted(CHANGE_ORDER).toList();
+        List<BookChangeResponse> changes = merged.subList(0, Math.min(size, merged.size()));
+        boolean hasMore = merged.size() > size || updated.hasNext() || deleted.hasNext();
+        ChangeCursor next;
+        if (hasMore) {
+            BookChangeResponse last = changes.get(changes.size() - 1);
+            next = new ChangeCursor(last.getChangedAt(), last.getBookId());
+        } else {
+            ChangeCursor settled = ChangeCursor.endOf(until);
+            next = settled.isAfter(since) ? settled : since;
+        }
+        return BookChangesResponse.builder()
+                .changes(changes)
+                .changeCount(changes.size())
+                .nextCursor(next.encode())
+                .hasMore(hasMore)
+                .build();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void startPurging() {
+        purger.scheduleWithFixedDelay(this::purgeTombstones, PURGE_INTERVAL_MINUTES, PURGE_INTERVAL_MINUTES, TimeUnit.MINUTES);
+    }
+
+    @EventListener(ContextClosedEvent.class)
+    public void stopPurging() {
+        purger.shutdownNow();
+    }
+
+    // Drops the tombstones no watermark can still need, see changesSince.
+    void purgeTombstones() {
+        try {
+            int purged = bookRepository.deleteTombstonesBefore(LocalDateTime.now().minus(tombstoneRetention));
+            log.debug("{} book tombstones purged", purged);
+        } catch (RuntimeException e) {
+            log.error("Error while purging book tombstones: {}", e.getMessage());
+        }
+    }
+}
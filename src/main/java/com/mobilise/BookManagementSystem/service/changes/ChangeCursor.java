@@ -0,0 +1,57 @@
+package com.mobilise.BookManagementSystem.service.changes;
+
+import com.mobilise.BookManagementSystem.exception.InvalidCursorException;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+
+/**
+ * Watermark of a client of the changes API: every change up to and including the (changedAt, bookId) position
+ * has been returned to it. It is exchanged with clients as an opaque URL-safe Base64 token, like BookCursor.
+ */
+@Getter
+@AllArgsConstructor
+public class ChangeCursor {
+    private static final String SEPARATOR = "\n";
+    // The position before every change, used when a client syncs for the first time
+    public static final ChangeCursor START = new ChangeCursor(LocalDateTime.of(1970, 1, 1, 0, 0), 0L);
+
+    private final LocalDateTime changedAt;
+    private final Long bookId;
+
+    // The position after every change made at or before the given time.
+    public static ChangeCursor endOf(LocalDateTime changedAt) {
+        return new ChangeCursor(changedAt, Long.MAX_VALUE);
+    }
+
+    public boolean isAfter(ChangeCursor other) {
+        int byTime = changedAt.compareTo(other.changedAt);
+        return byTime > 0 || (byTime == 0 && bookId > other.bookId);
+    }
+
+    /**
+     * Decodes a token previously returned as nextCursor; a missing token starts from the beginning.
+     * An invalid or tampered token results in an InvalidCursorException.
+     * @param  token  the opaque cursor token, or null
+     * @return        the decoded cursor
+     */
+    public static ChangeCursor decode(String token) {
+        if (token == null || token.isBlank()) {
+            return START;
+        }
+        try {
+            String[] parts = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8).split(SEPARATOR, 2);
+            return new ChangeCursor(LocalDateTime.parse(parts[0]), Long.valueOf(parts[1]));
+        } catch (RuntimeException e) {
+            throw new InvalidCursorException("Invalid changes cursor: " + token);
+        }
+    }
+
+    public String encode() {
+        String raw = changedAt + SEPARATOR + bookId;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,146 @@
+package com.mobilise.BookManagementSystem.service.facet;
+
+import com.mobilise.BookManagementSystem.dto.response.FacetResponse;
+import com.mobilise.BookManagementSystem.entity.BookLibrary;
+import com.mobilise.BookManagementSystem.repository.BookRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Year;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Stream;
+
+/**
+ * In-memory histogram of the number of books per publication year and per author.
+ * It is built once at startup and then kept current by index and remove, which the service calls on every write,
+ * so facet requests are answered without touching the database.
+ * The faceted values of every book are kept next to the counts, so a write only needs the new values of the book.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class BookFacetHistogram {
+    private final BookRepository bookRepository;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<Year, Long> yearCounts = new HashMap<>();
+    private final Map<String, Long> authorCounts = new HashMap<>();
+    // Book id -> the values the book is currently counted under
+    private final Map<Long, FacetDocument> documents = new HashMap<>();
+    private volatile boolean ready;
+
+    /**
+     * Builds the histogram from every BookLibrary row once the application has started.
+     * Rows are streamed as FacetDocument projections, so no entity is hydrated during the build.
+     * Until the build completes, isReady returns false.
+     */
+    @Transactional(readOnly = true)
+    @EventListener(ApplicationReadyEvent.class)
+    public void buildHistogram() {
+        lock.writeLock().lock();
+        try (Stream<FacetDocument> rows = bookRepository.streamFacetDocuments()) {
+            yearCounts.clear();
+            authorCounts.clear();
+            documents.clear();
+            rows.forEach(this::addDocument);
+            ready = true;
+            log.info("Book facet histogram built with {} books, {} years and {} authors",
+                    documents.size(), yearCounts.size(), authorCounts.size());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    // Counts a new book, or moves an existing one to its new publication year and author.
+    public void index(BookLibrary book) {
+        lock.writeLock().lock();
+        try {
+            addDocument(new FacetDocument(book.getId(), book.getAuthor(), book.getPublicationYear()));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Stops counting a deleted book. Unknown ids are ignored.
+    public void remove(Long id) {
+        lock.writeLock().lock();
+        try {
+            FacetDocument previous = documents.remove(id);
+            if (previous != null) {
+                decrement(yearCounts, previous.getPublicationYear());
+                decrement(authorCounts, previous.getAuthor());
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Returns the publication year a book is counted under, or null if the book is unknown or the histogram not built yet.
+    public Year publicationYearOf(Long id) {
+        lock.readLock().lock();
+        try {
+            FacetDocument document = documents.get(id);
+            return document == null ? null : document.getPublicationYear();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Returns a snapshot of the histogram.
+     * Years are listed in ascending order; authors are listed by descending count, then by name, and cut to authorLimit.
+     * Books without a publication year or an author count towards totalBooks only.
+     * @param  authorLimit  the maximum number of authors to return
+     * @return              the facet counts
+     */
+    public FacetResponse snapshot(int authorLimit) {
+        lock.readLock().lock();
+        try {
+            Map<String, Long> authors = new LinkedHashMap<>();
+            authorCounts.entrySet().stream()
+                    .sorted(Map.Entry.<String, Long>comparingByValue(Comparator.reverseOrder()).thenComparing(Map.Entry.comparingByKey()))
+                    .limit(Math.max(0, authorLimit))
+                    .forEach(entry -> authors.put(entry.getKey(), entry.getValue()));
+            return FacetResponse.builder()
+                    .totalBooks(documents.size())
+                    .publicationYears(new TreeMap<>(yearCounts))
+                    .authors(authors)
+                    .build();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void addDocument(FacetDocument document) {
+        FacetDocument previous = documents.put(document.getId(), document);
+        if (previous != null) {
+            decrement(yearCounts, previous.getPublicationYear());
+            decrement(authorCounts, previous.getAuthor());
+        }
+        if (document.getPublicationYear() != null) {
+            yearCounts.merge(document.getPublicationYear(), 1L, Long::sum);
+        }
+        if (document.getAuthor() != null) {
+            authorCounts.merge(document.getAuthor(), 1L, Long::sum);
+        }
+    }
+
+    // Removes the key once its count drops to zero, so the histogram never lists empty buckets.
+    private static <K> void decrement(Map<K, Long> counts, K key) {
+        if (key != null) {
+            counts.computeIfPresent(key, (k, count) -> count > 1 ? count - 1 : null);
+        }
+    }
+}
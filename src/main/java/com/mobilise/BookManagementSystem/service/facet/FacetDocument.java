@@ -0,0 +1,18 @@
+package com.mobilise.BookManagementSystem.service.facet;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.time.Year;
+
+/**
+ * Lightweight projection of the faceted columns of a BookLibrary row.
+ * It is used to build the facet histogram at startup without hydrating full entities.
+ */
+@Getter
+@AllArgsConstructor
+public class FacetDocument {
+    private Long id;
+    private String author;
+    private Year publicationYear;
+}
@@ -1,39 +1,129 @@
 package com.mobilise.BookManagementSystem.service.impl;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
 import com.mobilise.BookManagementSystem.dto.request.BookRequest;
 import com.mobilise.BookManagementSystem.dto.response.ApiResponse;
+import com.mobilise.BookManagementSystem.dto.response.BatchBookItemResponse;
+import com.mobilise.BookManagementSystem.dto.response.BatchBookResponse;
+import com.mobilise.BookManagementSystem.dto.response.BookChangeResponse;
+import com.mobilise.BookManagementSystem.dto.response.BookChangesResponse;
 import com.mobilise.BookManagementSystem.dto.response.BookResponse;
+import com.mobilise.BookManagementSystem.dto.response.BulkDeleteResponse;
+import com.mobilise.BookManagementSystem.dto.response.CacheStatsResponse;
+import com.mobilise.BookManagementSystem.dto.response.FacetResponse;
+import com.mobilise.BookManagementSystem.dto.response.MultiGetBookItemResponse;
+import com.mobilise.BookManagementSystem.dto.response.MultiGetBookResponse;
 import com.mobilise.BookManagementSystem.dto.response.PaginatedBookResponse;
+import com.mobilise.BookManagementSystem.dto.response.SnapshotResponse;
+import com.mobilise.BookManagementSystem.dto.response.StockResponse;
 import com.mobilise.BookManagementSystem.entity.BookLibrary;
 import com.mobilise.BookManagementSystem.exception.*;
 import com.mobilise.BookManagementSystem.repository.BookRepository;
 import com.mobilise.BookManagementSystem.service.BookServices;
+import com.mobilise.BookManagementSystem.service.cache.BookResponseCache;
+import com.mobilise.BookManagementSystem.service.cache.CatalogVersion;
+import com.mobilise.BookManagementSystem.service.cache.SearchResultCache;
+import com.mobilise.BookManagementSystem.service.cache.VersionedBookResponse;
+import com.mobilise.BookManagementSystem.service.changes.BookChangeFeed;
+import com.mobilise.BookManagementSystem.service.changes.BookChangeLog;
+import com.mobilise.BookManagementSystem.service.facet.BookFacetHistogram;
+import com.mobilise.BookManagementSystem.service.inventory.StockUpdate;
+import com.mobilise.BookManagementSystem.service.inventory.StockUpdateCombiner;
 import com.mobilise.BookManagementSystem.service.mapper.BookMapper;
+import com.mobilise.BookManagementSystem.service.pagination.BookCursor;
+import com.mobilise.BookManagementSystem.service.pagination.BookSortKey;
+import com.mobilise.BookManagementSystem.service.replica.ReplicaRouting;
+import com.mobilise.BookManagementSystem.service.search.BookSearchIndex;
+import com.mobilise.BookManagementSystem.service.search.SearchCoalescer;
+import com.mobilise.BookManagementSystem.service.shard.BookShards;
+import com.mobilise.BookManagementSystem.service.shard.BookTitleClaims;
+import com.mobilise.BookManagementSystem.service.snapshot.CatalogSnapshot;
 import com.mobilise.BookManagementSystem.validator.BookInfoValidations;
+import com.mobilise.BookManagementSystem.validator.TitleBloomFilter;
+import io.micrometer.core.annotation.Timed;
+import jakarta.persistence.EntityManager;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.modelmapper.ModelMapper;
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
 import java.time.LocalDateTime;
 import java.time.Year;
+import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Slf4j
 @Service
 @RequiredArgsConstructor
+@Timed(value = "book.service", description = "Time spent in BookServiceImpl methods, excluding HTTP serialization")
 public class BookServiceImpl implements BookServices {
+    // Titles checked per set-based duplicate query, kept well below database IN-list limits
+    private static final int DUPLICATE_CHECK_CHUNK_SIZE = 1000;
+    // Books inserted per transaction; Hibernate splits each chunk into JDBC batches of hibernate.jdbc.batch_size
+    private static final int INSERT_CHUNK_SIZE = 500;
+    // Ids loaded per projection query when hydrating the books resolved by the search index
+    private static final int ID_LOOKUP_CHUNK_SIZE = 1000;
+    // Ids a single multi-get may ask for, so one request cannot load an unbounded number of books
+    private static final int MULTI_GET_MAX_IDS = 500;
+    // Exported rows written between two flushes of the response output stream
+    private static final int EXPORT_FLUSH_INTERVAL = 1000;
+    // Ids removed per set-based DELETE statement, kept well below database IN-list limits
+    private static final int DELETE_CHUNK_SIZE = 1000;
+    // Times a partial update is recomputed when the book changed between reading and writing it
+    private static final int MAX_PATCH_ATTEMPTS = 3;
+    // Seconds a client is asked to wait for the facets while the histogram is still being built at startup
+    private static final long FACETS_RETRY_AFTER_SECONDS = 1;
+    // Copies a single checkout or return may move, so no change (nor a merged group of them) can overflow the stock
+    private static final int MAX_COPIES_PER_CHANGE = 10_000;
+
     private final BookRepository bookRepository;
     private final BookInfoValidations bookInfoValidations;
     private final BookMapper bookMapper;
-    private final ModelMapper modelMapper;
+    private final BookSearchIndex bookSearchIndex;
+    private final EntityManager entityManager;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+    private final BookResponseCache bookResponseCache;
+    private final TitleBloomFilter titleBloomFilter;
+    private final CatalogVersion catalogVersion;
+    private final StockUpdateCombiner stockUpdateCombiner;
+    private final BookFacetHistogram bookFacetHistogram;
+    private final CatalogSnapshot catalogSnapshot;
+    private final ReplicaRouting replicaRouting;
+    private final BookChangeLog bookChangeLog;
+    private final BookChangeFeed bookChangeFeed;
+    private final SearchCoalescer searchCoalescer;
+    private final SearchResultCache searchResultCache;
+    private final BookShards bookShards;
+    private final BookTitleClaims bookTitleClaims;
 
     /**
      * This is a method that adds a new book to a library.
@@ -58,9 +148,14 @@ public class BookServiceImpl implements BookServices {
             bookInfoValidations.validatePublicationYear(bookRequest.getPublicationYear());
             // Map and save BookLibrary entity
             BookLibrary bookLibrary = bookMapper.mapBookRequestToBookLibrary(bookRequest);
-            bookRepository.save(bookLibrary);
+            bookTitleClaims.create(List.of(bookLibrary), () -> bookRepository.save(bookLibrary));
+            bookSearchIndex.index(bookLibrary);
+            bookFacetHistogram.index(bookLibrary);
+            titleBloomFilter.put(bookLibrary.getNormalizedTitle());
+            searchResultCache.publicationYearsChanged(catalogVersion.increment(), List.of(bookLibrary.getPublicationYear()));
             // Map and return BookResponse
             BookResponse responseDTO = bookMapper.mapBookLibraryToBookResponse(bookLibrary);
+            bookChangeFeed.publish(BookChangeResponse.of(BookChangeResponse.ChangeType.CREATED, responseDTO, bookLibrary.getUpdatedDate()));
             log.info("New Book saved successfully");
             return responseDTO;
     }catch (AlreadyExistsException | ValidTitleException | ValidPublicationYearException
@@ -69,198 +164,870 @@ public class BookServiceImpl implements BookServices {
         }
     }
 
+    /**
+     * This is a method that adds a list of new books to a library in bulk.
+     * It validates the whole list in one pass with the same checks as addNewBook, rejects titles repeated within the list,
+     * and checks the remaining titles that the titleBloomFilter cannot rule out against the database
+     * with one set-based query per chunk.
+     * The valid books are then inserted in chunks, each in its own transaction, and Hibernate sends each chunk as JDBC batches.
+     * On a sharded catalog the books are first grouped by the shard their title is created on, so every chunk is
+     * inserted in one transaction on one shard and is created or rejected as a whole.
+     * A failure never aborts the whole request: every item of the returned response reports whether it was created,
+     * together with the created book or the error message.
+     * @param  bookRequests  the request objects containing information about the new books
+     * @return               the per-item result of the batch together with the created and failed counts
+     */
+    @Override
+    public BatchBookResponse addNewBooks(List<BookRequest> bookRequests) {
+        BatchBookItemResponse[] items = new BatchBookItemResponse[bookRequests.size()];
+        // Validate inputs in one pass, keeping the first index of every lower-cased title
+        Map<String, Integer> candidates = new LinkedHashMap<>();
+        for (int i = 0; i < bookRequests.size(); i++) {
+            BookRequest bookRequest = bookRequests.get(i);
+            try {
+                bookInfoValidations.requiredTitleField(bookRequest.getTitle());
+                bookInfoValidations.requiredAuthorField(bookRequest.getAuthor());
+                bookInfoValidations.validateTitle(bookRequest.getTitle());
+                bookInfoValidations.validateAuthor(bookRequest.getAuthor());
+                bookInfoValidations.validatePublicationYear(bookRequest.getPublicationYear());
+                if (candidates.putIfAbsent(BookLibrary.normalizeTitle(bookRequest.getTitle()), i) != null) {
+                    items[i] = failedItem(i, "Book with this title: " + bookRequest.getTitle() + " is repeated in the batch");
+                }
+            } catch (Exception e) {
+                items[i] = failedItem(i, e.getMessage());
+            }
+        }
+        // Check duplicate titles the filter cannot rule out with one set-based query per chunk
+        List<String> titles = candidates.keySet().stream()
+                .filter(titleBloomFilter::mightContain)
+                .collect(Collectors.toList());
+        for (int from = 0; from < titles.size(); from += DUPLICATE_CHECK_CHUNK_SIZE) {
+            List<String> chunk = titles.subList(from, Math.min(from + DUPLICATE_CHECK_CHUNK_SIZE, titles.size()));
+            for (String existingTitle : bookRepository.findExistingTitles(chunk)) {
+                Integer index = candidates.remove(existingTitle);
+                if (index != null) {
+                    items[index] = failedItem(index, "Book with this title: " + bookRequests.get(index).getTitle()
+                            + " already exists. Please use a different title");
+                }
+            }
+        }
+        // Group the books by the shard of their title, so no chunk commits on one shard and fails on another
+        Map<Integer, List<Integer>> pendingByShard = new LinkedHashMap<>();
+        candidates.forEach((normalizedTitle, index) -> pendingByShard
+                .computeIfAbsent(bookShards.shardForTitle(normalizedTitle), shard -> new ArrayList<>()).add(index));
+        // Map and save BookLibrary entities in chunks
+        for (List<Integer> pending : pendingByShard.values()) {
+            for (int from = 0; from < pending.size(); from += INSERT_CHUNK_SIZE) {
+                insertChunk(bookRequests, pending.subList(from, Math.min(from + INSERT_CHUNK_SIZE, pending.size())), items);
+            }
+        }
+        // Build and return BatchBookResponse
+        List<BatchBookItemResponse> results = List.of(items);
+        int createdCount = (int) results.stream().filter(BatchBookItemResponse::isCreated).count();
+        log.info("Batch of {} Books processed: {} created", bookRequests.size(), createdCount);
+        return BatchBookResponse.builder()
+                .requestedCount(bookRequests.size())
+                .createdCount(createdCount)
+                .failedCount(bookRequests.size() - createdCount)
+                .items(results)
+                .build();
+    }
+
+    // Inserts a chunk of books whose titles are all created on the same shard in one transaction on that shard,
+    // then indexes and publishes them; if the chunk fails, none of its books is created and every item reports the error.
+    private void insertChunk(List<BookRequest> bookRequests, List<Integer> chunk, BatchBookItemResponse[] items) {
+        List<BookLibrary> books = chunk.stream()
+                .map(index -> bookMapper.mapBookRequestToBookLibrary(bookRequests.get(index)))
+                .collect(Collectors.toList());
+        try {
+            bookTitleClaims.create(books, () -> transactionTemplate.executeWithoutResult(status -> {
+                bookRepository.saveAll(books);
+                entityManager.flush();
+                entityManager.clear();
+            }));
+            for (int j = 0; j < chunk.size(); j++) {
+                bookSearchIndex.index(books.get(j));
+                bookFacetHistogram.index(books.get(j));
+                titleBloomFilter.put(books.get(j).getNormalizedTitle());
+                items[chunk.get(j)] = BatchBookItemResponse.builder()
+                        .index(chunk.get(j))
+                        .created(true)
+                        .book(bookMapper.mapBookLibraryToBookResponse(books.get(j)))
+                        .build();
+            }
+            searchResultCache.publicationYearsChanged(catalogVersion.increment(),
+                    books.stream().map(BookLibrary::getPublicationYear).collect(Collectors.toSet()));
+            for (int j = 0; j < chunk.size(); j++) {
+                bookChangeFeed.publish(BookChangeResponse.of(BookChangeResponse.ChangeType.CREATED,
+                        items[chunk.get(j)].getBook(), books.get(j).getUpdatedDate()));
+            }
+        } catch (Exception e) {
+            log.error("Error while saving a chunk of {} Books: {}", chunk.size(), e.getMessage());
+            for (Integer index : chunk) {
+                items[index] = failedItem(index, e.getMessage());
+            }
+        }
+    }
+
+    private static BatchBookItemResponse failedItem(int index, String message) {
+        return BatchBookItemResponse.builder()
+                .index(index)
+                .created(false)
+                .error("Error Occurred while Adding New Book: " + message)
+                .build();
+    }
+
     /**
      * This is a method that retrieves a paginated list of books from a repository.
      * It takes two parameters: pageNo and pageSize, which determine the page number and size of the pagination.
      * Inside the method, it creates a Pageable object using the pageNo and pageSize parameters.
-     * Then it uses the findAll method of the bookRepository to retrieve a Page of BookLibrary objects based on the Pageable object.
-     * After that, it maps each BookLibrary object to a BookResponse object using a bookMapper and collects them into a list.
+     * Then it uses the findAllBookResponses method of the bookRepository to retrieve a Slice of BookResponse objects
+     * projected straight from the rows, so no entity is hydrated and no COUNT query is issued.
      * Finally, it builds and returns a PaginatedBookResponse object containing the mapped list, the number of elements per page, and the total page size.
-     * If any exception occurs during the process, it logs an error message and throws a NotFoundException with the error message.
+     * If any exception occurs during the process, it logs the error and propagates the exception.
      * @param  pageNo      the page number to retrieve
      * @param  pageSize    the number of books per page
      * @return             the paginated book response
      */
     @Override
+    @Transactional(readOnly = true)
     public PaginatedBookResponse getAllBooksWithPagination(int pageNo, int pageSize) {
         try {
             // Retrieve a List of Books with pagination
             Pageable pageable = PageRequest.of(pageNo, pageSize);
-            Page<BookLibrary> bookList = bookRepository.findAll(pageable);
+            Slice<BookResponse> bookList = bookRepository.findAllBookResponses(pageable);
             log.info("Book List successfully retrieved with Pagination");
-            // Map and return PaginatedBookResponse
-            List<BookResponse> collect = bookList.stream()
-                    .map(bookMapper::mapBookLibraryToBookResponse)
-                    .collect(Collectors.toList());
+            // Return PaginatedBookResponse
             return PaginatedBookResponse.builder()
-                    .contents(collect)
+                    .contents(bookList.getContent())
                     .pageElementCount(bookList.getNumberOfElements())
                     .pageSize(bookList.getSize())
                     .build();
-        }catch (Exception e) {
-            log.error("Error occurred while retrieving all Books with pagination: " + e.getMessage());
-            throw new NotFoundException("Error Occurred while retrieving Book List: " + e.getMessage());
+        }catch (RuntimeException e) {
+            log.error("Error occurred while retrieving all Books with pagination", e);
+            throw e;
+        }
+    }
+
+    /**
+     * This is a method that retrieves a slice of books using keyset (cursor) pagination.
+     * Instead of an OFFSET, it seeks past the last book of the previous slice with a predicate on the sort key and the id,
+     * so every slice costs the same no matter how deep the walk is, and no COUNT query is issued.
+     * An empty cursor starts a new walk ordered by the given sort key; otherwise the cursor decides the sort key.
+     * The returned nextCursor is null once the last slice has been reached.
+     * An invalid cursor or sort key results in an InvalidCursorException.
+     * @param  cursor      the opaque cursor returned by the previous slice, or an empty string for the first slice
+     * @param  pageSize    the number of books per slice
+     * @param  sortBy      the property to order a new walk by: id, title or publicationYear
+     * @return             the paginated book response containing the slice and the next cursor
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public PaginatedBookResponse getAllBooksWithCursor(String cursor, int pageSize, String sortBy) {
+        BookCursor position = cursor == null || cursor.isBlank() ? null : BookCursor.decode(cursor);
+        BookSortKey sortKey = position != null ? position.getSortKey() : BookSortKey.fromProperty(sortBy);
+        try {
+            // Retrieve the next slice of Books with a seek predicate
+            Pageable pageable = PageRequest.of(0, pageSize);
+            Slice<BookResponse> slice;
+            if (position == null) {
+                slice = bookRepository.findFirstSlice(PageRequest.of(0, pageSize, Sort.by(sortKey.getProperty(), "id")));
+            } else {
+                slice = switch (sortKey) {
+                    case ID -> bookRepository.findNextById(position.getLastId(), pageable);
+                    case TITLE -> bookRepository.findNextByTitle(position.getLastValue(), position.getLastId(), pageable);
+                    case PUBLICATION_YEAR -> bookRepository.findNextByPublicationYear(
+                            position.getLastPublicationYear(), position.getLastId(), pageable);
+                };
+            }
+            log.info("Book List successfully retrieved with Cursor Pagination");
+            // Return PaginatedBookResponse
+            List<BookResponse> books = slice.getContent();
+            String nextCursor = slice.hasNext()
+                    ? BookCursor.after(books.get(books.size() - 1), sortKey).encode()
+                    : null;
+            return PaginatedBookResponse.builder()
+                    .contents(books)
+                    .pageElementCount(slice.getNumberOfElements())
+                    .pageSize(slice.getSize())
+                    .nextCursor(nextCursor)
+                    .build();
+        }catch (RuntimeException e) {
+            log.error("Error occurred while retrieving all Books with cursor pagination", e);
+            throw e;
+        }
+    }
+
+    /**
+     * This is a method that exports the whole catalog as newline-delimited JSON (one BookResponse per line).
+     * It streams BookLibrary rows over a forward-only database cursor, maps each row with the bookMapper,
+     * writes it straight to the given output stream and detaches it from the persistence context,
+     * so memory use stays flat no matter how many books the catalog holds.
+     * If writing fails (for example when the client disconnects), it logs the error and throws an UncheckedIOException.
+     * @param  outputStream  the stream the NDJSON lines are written to; it is flushed but not closed
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public void exportCatalog(OutputStream outputStream) {
+        ObjectWriter writer = objectMapper.writer().without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        long exported = 0;
+        try (Stream<BookLibrary> books = bookRepository.streamAllBooks();
+             JsonGenerator generator = objectMapper.getFactory().createGenerator(outputStream)
+                     .disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET)
+                     .setRootValueSeparator(null)) {
+            for (BookLibrary book : (Iterable<BookLibrary>) books::iterator) {
+                writer.writeValue(generator, bookMapper.mapBookLibraryToBookResponse(book));
+                generator.writeRaw('\n');
+                entityManager.detach(book);
+                if (++exported % EXPORT_FLUSH_INTERVAL == 0) {
+                    generator.flush();
+                }
+            }
+            generator.flush();
+            log.info("Book catalog successfully exported: {} books", exported);
+        } catch (IOException ex) {
+            log.error("Error while exporting Book catalog after {} books: {}", exported, ex.getMessage());
+            throw new UncheckedIOException("Error Occurred while exporting Book catalog: " + ex.getMessage(), ex);
         }
     }
 
     /**
      * This is the getBookById method that retrieves a book from a library by its unique ID.
-     * It first tries to find the book using the ID from the bookRepository.
+     * It first looks the mapped book up in the bookResponseCache; on a miss it finds the book using the ID
+     * from the bookRepository and caches the mapped response together with the updatedDate of the row.
+     * The method itself opens no transaction, so cache hits never fetch a connection; a miss is loaded in the
+     * read-only transaction of findById, which may be served by the read replica.
      * If the book is not found, it throws a NotFoundException.
-     * If an exception occurs during the process, it logs the error and throws a NotFoundException with the error message.
+     * If an exception occurs during the process, it logs the error and propagates the exception.
      *
      * @param  id    the request parameter for the unique ID of the book
      * @return       the response object containing information about the retrieved book
      */
     @Override
     public BookResponse getBookById(Long id) {
+        return getVersionedBookById(id).getResponse();
+    }
+
+    /**
+     * Same as getBookById, returning the mapped book together with the updatedDate of the row it was mapped from.
+     * Both come from one bookResponseCache entry, so the ETag and Last-Modified derived from the date always
+     * describe the body served with them, and a conditional GET reads the book at most once.
+     * @param  id  the unique ID of the book
+     * @return     the cached response and updatedDate of the book
+     */
+    @Override
+    public VersionedBookResponse getVersionedBookById(Long id) {
+        VersionedBookResponse cached;
         try {
-            // Retrieve Book entity by UniqueId
-            BookLibrary book = bookRepository.findById(id)
-                    .orElseThrow(() -> new NotFoundException("Book with id " + id + " does not exist"));
-            // Map and return BookResponse
-            return bookMapper.mapBookLibraryToBookResponse(book);
-        } catch (Exception ex) {
+            // Retrieve Book entity by UniqueId on a cache miss, Map and return BookResponse
+            cached = bookResponseCache.get(id, this::loadVersionedBookResponse);
+        } catch (RuntimeException ex) {
             // Log the specific exception details
-            log.error("Error while retrieving Book: {}", ex.getMessage());
-            throw new NotFoundException("Error Occurred while retrieving Book: " + ex.getMessage());
+            log.error("Error while retrieving Book with id {}", id, ex);
+            throw ex;
         }
+        if (cached == null) {
+            log.debug("Book with id {} does not exist", id);
+            throw new NotFoundException("Error Occurred while retrieving Book: Book with id " + id + " does not exist");
+        }
+        return cached;
+    }
+
+    // Loads and maps a book for the bookResponseCache, or returns null (which is not cached) if it does not exist.
+    // The load may only use the read replica once it has applied every write counted so far, so no stale row is cached.
+    private VersionedBookResponse loadVersionedBookResponse(Long id) {
+        replicaRouting.requireVersion(catalogVersion.current());
+        return bookRepository.findById(id)
+                .map(book -> new VersionedBookResponse(bookMapper.mapBookLibraryToBookResponse(book), book.getUpdatedDate()))
+                .orElse(null);
+    }
+
+    /**
+     * This is a multi-get method that retrieves many books from a library by their unique IDs in one call.
+     * Books in the bookResponseCache are served from it, and all of the misses are loaded together with one
+     * IN query per chunk of ids, then cached like getBookById does. Unlike the load of getBookById, the bulk load is
+     * not shielded from writes by the cache, so its books are only cached if no write happened while they were loaded;
+     * otherwise they are returned without being cached.
+     * The items of the response follow the order of the requested ids, repeats included; an id without a book is
+     * reported as not found instead of throwing a NotFoundException, so one missing book never fails the whole list.
+     * If more than MULTI_GET_MAX_IDS ids are requested, it throws a TooManyIdsException.
+     * If an exception occurs while loading, it logs the error and propagates the exception.
+     * @param  ids   the unique IDs of the books, in the order they should be returned
+     * @return       one item per requested id, with the book or a not found marker, and the found and missing counts
+     */
+    @Override
+    public MultiGetBookResponse getBooksByIds(List<Long> ids) {
+        if (ids.size() > MULTI_GET_MAX_IDS) {
+            throw new TooManyIdsException("At most " + MULTI_GET_MAX_IDS + " Books can be retrieved in one call, "
+                    + ids.size() + " were requested");
+        }
+        Map<Long, VersionedBookResponse> found;
+        try {
+            // Retrieve the cached Books, then load all misses at once
+            Set<Long> distinctIds = ids.stream().filter(Objects::nonNull).collect(Collectors.toCollection(LinkedHashSet::new));
+            found = new HashMap<>(bookResponseCache.getAllPresent(distinctIds));
+            List<Long> missing = distinctIds.stream().filter(id -> !found.containsKey(id)).collect(Collectors.toList());
+            if (!missing.isEmpty()) {
+                found.putAll(loadAndCacheVersionedBookResponses(missing));
+            }
+        } catch (RuntimeException ex) {
+            // Log the specific exception details
+            log.error("Error while retrieving {} Books", ids.size(), ex);
+            throw ex;
+        }
+        List<MultiGetBookItemResponse> items = new ArrayList<>(ids.size());
+        int foundCount = 0;
+        for (Long id : ids) {
+            VersionedBookResponse book = id == null ? null : found.get(id);
+            if (book != null) {
+                foundCount++;
+            }
+            items.add(new MultiGetBookItemResponse(id, book != null, book == null ? null : book.getResponse()));
+        }
+        return MultiGetBookResponse.builder()
+                .requestedCount(ids.size())
+                .foundCount(foundCount)
+                .missingCount(ids.size() - foundCount)
+                .items(items)
+                .build();
+    }
+
+    // Same as loadVersionedBookResponse for every id the bookResponseCache missed, with one IN query per chunk of ids.
+    // Writes increment the catalog version before invalidating, so a version unchanged after caching the books proves
+    // that no write could have invalidated one of them before it was cached; otherwise they are dropped again.
+    private Map<Long, VersionedBookResponse> loadAndCacheVersionedBookResponses(List<Long> missing) {
+        long version = catalogVersion.current();
+        replicaRouting.requireVersion(version);
+        Map<Long, VersionedBookResponse> loaded = new HashMap<>();
+        for (int from = 0; from < missing.size(); from += ID_LOOKUP_CHUNK_SIZE) {
+            for (BookLibrary book : bookRepository.findAllByIdIn(missing.subList(from, Math.min(from + ID_LOOKUP_CHUNK_SIZE, missing.size())))) {
+                loaded.put(book.getId(), new VersionedBookResponse(bookMapper.mapBookLibraryToBookResponse(book), book.getUpdatedDate()));
+            }
+        }
+        if (catalogVersion.current() == version) {
+            loaded.forEach(bookResponseCache::putIfAbsent);
+            if (catalogVersion.current() != version) {
+                loaded.keySet().forEach(bookResponseCache::invalidate);
+            }
+        }
+        return loaded;
     }
 
     /**
      * This is a method that searches for books by title, author, ISBN  in a book library.
      * It takes a String parameter, searchText, and it searches by title, author, or ISBN.
-     * It then maps the results to a list of BookResponse objects and returns them.
-     * If no books are found, it throws a NotFoundException.
+     * Matching ids are resolved from the in-memory trigram index and only those rows are loaded;
+     * the database LIKE search is used only while the index is still being built at startup.
+     * Both paths project the rows straight into a list of BookResponse objects and return them.
+     * Results are cached until the next write to the catalog (see SearchResultCache), and concurrent searches for the
+     * same text, ignoring case, share one execution and one result (see SearchCoalescer), which runs in its own
+     * read-only transaction.
+     * If no books are found, it throws a NotFoundException; any other error is logged and propagated.
      * @param  searchText    the text to search for in the database
      * @return              a list of BookResponse objects containing the search results
      */
     @Override
     public List<BookResponse> searchBookByTitleOrAuthorOrIsbn(String searchText) {
+        List<BookResponse> bookResponses;
         try {
-            // Retrieve Book entity by SearchText
-            List<BookLibrary> book = bookRepository.searchByTitleOrAuthorOrIsbn(searchText, searchText, searchText);
-            // Map and return BookResponse
-            List<BookResponse> bookResponses = new ArrayList<>();
-            for (BookLibrary bookLibrary : book) {
-                BookResponse response = modelMapper.map(bookLibrary, BookResponse.class);
-                bookResponses.add(response);
-            }
-            // Check if Book exists
-            if (!bookResponses.isEmpty()) {
-                log.info("Book successfully retrieved from search text: " + searchText);
-                return bookResponses;
-            }
-            else {
-                throw new NotFoundException("Book with search text " + searchText + " does not exist");
-            }
-        }catch (Exception ex) {
+            // Retrieve Book entity by SearchText from the cache, or share a running identical search
+            String query = searchText.toLowerCase(Locale.ROOT);
+            long version = replicaRouting.readableCatalogVersion();
+            bookResponses = searchResultCache.getBySearchText(query, version, () ->
+                    searchCoalescer.execute(SearchCoalescer.SearchKind.SEARCH_TEXT, query, version, () -> bookSearchIndex.isReady()
+                            ? findBookResponsesByIds(bookSearchIndex.search(searchText))
+                            : bookRepository.searchByTitleOrAuthorOrIsbn(searchText, searchText, searchText)));
+        }catch (RuntimeException ex) {
             // Log the specific exception details
-            log.error("Error while searching Book: {}", ex.getMessage());
-            throw new NotFoundException("Error Occurred while searching Book: " + ex.getMessage());
+            log.error("Error while searching Book", ex);
+            throw ex;
+        }
+        // Check if Book exists
+        if (bookResponses.isEmpty()) {
+            log.debug("No Book found for search text: {}", searchText);
+            throw new NotFoundException("Error Occurred while searching Book: Book with search text " + searchText + " does not exist");
         }
+        log.info("Book successfully retrieved from search text: " + searchText);
+        return bookResponses;
     }
 
+    // Loads the books resolved by the search index with one projection query per chunk of ids.
+    private List<BookResponse> findBookResponsesByIds(List<Long> ids) {
+        List<BookResponse> bookResponses = new ArrayList<>(ids.size());
+        for (int from = 0; from < ids.size(); from += ID_LOOKUP_CHUNK_SIZE) {
+            bookResponses.addAll(bookRepository.findBookResponsesByIdIn(ids.subList(from, Math.min(from + ID_LOOKUP_CHUNK_SIZE, ids.size()))));
+        }
+        return bookResponses;
+    }
+
+    // Same as searchBookByTitleOrAuthorOrIsbn, except that cached results only expire with writes to books of the same year.
     @Override
     public List<BookResponse> searchBookByPublicationYear(Year publicationYear) {
+        List<BookResponse> bookResponses;
         try {
-            // Retrieve Book entity by SearchText
-            List<BookLibrary> book = bookRepository.findAllBooksByPublicationYear(publicationYear);
-            // Map and return BookResponse
-            List<BookResponse> bookResponses = new ArrayList<>();
-            for (BookLibrary bookLibrary : book) {
-                BookResponse response = modelMapper.map(bookLibrary, BookResponse.class);
-                bookResponses.add(response);
-            }
-            // Check if Book exists
-            if (!bookResponses.isEmpty()) {
-                log.info("Book successfully retrieved by publication year: " + publicationYear);
-                return bookResponses;
-            }
-            else {
-                throw new NotFoundException("Book with publication year " + publicationYear + " Not Found");
-            }
-        }catch (Exception ex) {
+            // Retrieve Book entity by publication year from the cache, or share a running identical search
+            long version = replicaRouting.readableCatalogVersion();
+            bookResponses = searchResultCache.getByPublicationYear(publicationYear, version, () ->
+                    searchCoalescer.execute(SearchCoalescer.SearchKind.PUBLICATION_YEAR, String.valueOf(publicationYear),
+                            version, () -> bookRepository.findAllBooksByPublicationYear(publicationYear)));
+        }catch (RuntimeException ex) {
             // Log the specific exception details
-            log.error("Error while searching Book: {}", ex.getMessage());
-            throw new NotFoundException("Error Occurred while searching Book: " + ex.getMessage());
+            log.error("Error while searching Book", ex);
+            throw ex;
+        }
+        // Check if Book exists
+        if (bookResponses.isEmpty()) {
+            log.debug("No Book found for publication year: {}", publicationYear);
+            throw new NotFoundException("Error Occurred while searching Book: Book with publication year " + publicationYear + " Not Found");
+        }
+        log.info("Book successfully retrieved by publication year: " + publicationYear);
+        return bookResponses;
+    }
+
+    /**
+     * This is a method that returns the number of books per publication year and per author, for filter UIs.
+     * The counts are served from the in-memory bookFacetHistogram, which is built at startup and updated
+     * on every add, update and delete, so no database query is issued.
+     * While the histogram is still being built at startup, it throws a FacetsNotReadyException.
+     * @param  authorLimit  the maximum number of authors to return, most frequent first
+     * @return              the response containing the counts per publication year and per author
+     */
+    @Override
+    public FacetResponse getBookFacets(int authorLimit) {
+        if (!bookFacetHistogram.isReady()) {
+            throw new FacetsNotReadyException("Book facets are not available yet, please retry shortly", FACETS_RETRY_AFTER_SECONDS);
         }
+        return bookFacetHistogram.snapshot(authorLimit);
     }
 
     /**
      * This is a method that updates a book in a book library system.
-     * It first checks if the book exists in the repository,
-     * validates the input data, updates the book entity with new values,
-     * saves the updated book, and returns a response with the updated book details.
-     * If the book does not exist, it throws a NotFoundException.
-     * Any errors that occur during the update process are logged and a NotFoundException is thrown with the error message.
+     * It first reads the book to validate the fields that change against it, then reads it again in a transaction on
+     * the shard of its id and applies the new values to that managed entity, so dirty checking writes only the changed
+     * columns and a concurrent stock change is never overwritten with a stale quantity.
+     * The transaction runs while holding the claim of the new title (see BookTitleClaims).
+     * If the title or the publication year changed between both reads, it throws a ConcurrentUpdateException.
+     * If the book does not exist, it throws a NotFoundException. Invalid fields and a taken title are reported with
+     * their own exceptions, and any other error is logged with its stack trace and propagated as it is.
      * @param  id           the ID of the book to be updated
      * @param  bookRequest  the details of the book to update
      * @return             the response containing the updated book details
      */
     @Override
-    public BookResponse updateBook(Long id, BookRequest bookRequest) {
+    public BookResponse updateBook(Long id, BookRequest bookRequest) throws ValidTitleException {
         try {
             Optional<BookLibrary> existingBook = bookRepository.findById(id);
             if (existingBook.isPresent()) {
-                BookLibrary updatedBook = existingBook.get();
-                // Validate inputs
-                bookInfoValidations.isBookTitleAlreadyExists(bookRequest.getTitle());
-                // Update BookLibrary entity with new values
-                if (bookRequest.getTitle() != null && !bookRequest.getTitle().equals(updatedBook.getTitle())) {
+                BookLibrary current = existingBook.get();
+                // Validate the fields that change
+                if (bookRequest.getTitle() != null && !bookRequest.getTitle().equals(current.getTitle())) {
                     bookInfoValidations.validateTitle(bookRequest.getTitle());
-                    updatedBook.setTitle(bookRequest.getTitle());
                 }
-                if (bookRequest.getAuthor() != null && !bookRequest.getAuthor().equals(updatedBook.getAuthor())) {
+                if (bookRequest.getAuthor() != null && !bookRequest.getAuthor().equals(current.getAuthor())) {
                     bookInfoValidations.validateAuthor(bookRequest.getAuthor());
-                    updatedBook.setAuthor(bookRequest.getAuthor());
-                }
-                if (bookRequest.getIsbn() != null) {
-                    updatedBook.setIsbn(bookRequest.getIsbn());
                 }
-                if (bookRequest.getPublicationYear() != null && !bookRequest.getPublicationYear().equals(updatedBook.getPublicationYear())) {
+                if (bookRequest.getPublicationYear() != null && !bookRequest.getPublicationYear().equals(current.getPublicationYear())) {
                     bookInfoValidations.validatePublicationYear(bookRequest.getPublicationYear());
-                    updatedBook.setPublicationYear(bookRequest.getPublicationYear());
                 }
-                if (bookRequest.getQuantity() != null) {
-                    updatedBook.setQuantity(bookRequest.getQuantity());
-                }
-                // Save Updated Book entity, Map and return Updated BookResponse
-                BookLibrary savedBook = bookRepository.save(updatedBook);
-                BookResponse updatedResponse = modelMapper.map(savedBook, BookResponse.class);
+                String title = bookRequest.getTitle() != null ? bookRequest.getTitle() : current.getTitle();
+                // Update the managed BookLibrary entity with new values while holding the claim of its title
+                BookLibrary savedBook = bookTitleClaims.rename(id, title, current.getNormalizedTitle(),
+                        () -> bookShards.callOnShardOf(id, () -> transactionTemplate.execute(status -> {
+                            BookLibrary updatedBook = bookRepository.findById(id).orElseThrow(() -> new NotFoundException(
+                                    "Error Occurred while updating Book: Book with id " + id + " not found and cannot be updated"));
+                            if (!Objects.equals(updatedBook.getNormalizedTitle(), current.getNormalizedTitle())
+                                    || !Objects.equals(updatedBook.getPublicationYear(), current.getPublicationYear())) {
+                                throw new ConcurrentUpdateException("Error Occurred while updating Book: Book with id " + id
+                                        + " was changed concurrently, please retry");
+                            }
+                            updatedBook.setTitle(title);
+                            if (bookRequest.getAuthor() != null) {
+                                updatedBook.setAuthor(bookRequest.getAuthor());
+                            }
+                            if (bookRequest.getIsbn() != null) {
+                                updatedBook.setIsbn(bookRequest.getIsbn());
+                            }
+                            if (bookRequest.getPublicationYear() != null) {
+                                updatedBook.setPublicationYear(bookRequest.getPublicationYear());
+                            }
+                            if (bookRequest.getQuantity() != null) {
+                                updatedBook.setQuantity(bookRequest.getQuantity());
+                            }
+                            return updatedBook;
+                        })), saved -> true);
+                // Map and return Updated BookResponse
+                bookSearchIndex.index(savedBook);
+                bookFacetHistogram.index(savedBook);
+                titleBloomFilter.put(savedBook.getNormalizedTitle());
+                searchResultCache.publicationYearsChanged(catalogVersion.increment(),
+                        Arrays.asList(current.getPublicationYear(), savedBook.getPublicationYear()));
+                bookResponseCache.invalidate(id);
+                BookResponse updatedResponse = bookMapper.mapBookLibraryToBookResponse(savedBook);
+                bookChangeFeed.publish(BookChangeResponse.of(BookChangeResponse.ChangeType.UPDATED, updatedResponse, savedBook.getUpdatedDate()));
                 log.info("Book successfully updated");
                 return updatedResponse;
             }else {
-                throw new NotFoundException("Book with id " + id + " not found and cannot be updated");
+                log.debug("Book with id {} not found and cannot be updated", id);
+                throw new NotFoundException("Error Occurred while updating Book: Book with id " + id + " not found and cannot be updated");
             }
-        }catch (Exception ex) {
+        }catch (NotFoundException | ConcurrentUpdateException | AlreadyExistsException | ValidTitleException
+                | ValidAuthorException | ValidPublicationYearException ex) {
+            // Misses, conflicts and invalid requests already carry their final message and status
+            throw ex;
+        }catch (RuntimeException ex) {
             // Log the specific exception details
-            log.error("Error while updating Book: {}", ex.getMessage());
-            throw new NotFoundException("Error Occurred while updating Book: " + ex.getMessage());
+            log.error("Error while updating Book with id {}", id, ex);
+            throw ex;
         }
     }
 
+    /**
+     * This is a method that partially updates a book: only the non-null fields of the request are applied.
+     * The current state of the book is taken from the bookResponseCache (loaded into it on a miss), the fields that
+     * actually change are validated, and a new title is claimed through the bookTitleClaims while the update runs,
+     * so it stays unique across the shards; a title taken by another book is reported as an AlreadyExistsException.
+     * The changed columns are then written in one conditional UPDATE that only applies if the book has not changed
+     * since it was read; otherwise the patch is recomputed from the fresh state, up to MAX_PATCH_ATTEMPTS times.
+     * The new state is built from the known state and the changes, so the book is never read back.
+     * If the book does not exist, it throws a NotFoundException; if it still changed under every attempt, a
+     * ConcurrentUpdateException. Invalid fields and a taken title are reported with their own exceptions, and any other
+     * error is logged with its stack trace and propagated as it is.
+     * @param  id           the ID of the book to be patched
+     * @param  bookRequest  the fields of the book to change; null fields are left unchanged
+     * @return              the response containing the patched book details
+     */
+    @Override
+    public BookResponse patchBook(Long id, BookRequest bookRequest) throws ValidTitleException {
+        try {
+            for (int attempt = 1; attempt <= MAX_PATCH_ATTEMPTS; attempt++) {
+                VersionedBookResponse current = bookResponseCache.get(id, this::loadVersionedBookResponse);
+                if (current == null) {
+                    log.debug("Book with id {} does not exist", id);
+                    throw new NotFoundException("Error Occurred while patching Book: Book with id " + id + " does not exist");
+                }
+                BookResponse book = current.getResponse();
+                // Validate only the fields that change
+                Map<String, Object> changes = new LinkedHashMap<>();
+                if (bookRequest.getTitle() != null && !bookRequest.getTitle().equals(book.getTitle())) {
+                    bookInfoValidations.validateTitle(bookRequest.getTitle());
+                    String normalizedTitle = BookLibrary.normalizeTitle(bookRequest.getTitle());
+                    if (!normalizedTitle.equals(BookLibrary.normalizeTitle(book.getTitle()))) {
+                        changes.put("normalizedTitle", normalizedTitle);
+                    }
+                    changes.put("title", bookRequest.getTitle());
+                }
+                if (bookRequest.getAuthor() != null && !bookRequest.getAuthor().equals(book.getAuthor())) {
+                    bookInfoValidations.validateAuthor(bookRequest.getAuthor());
+                    changes.put("author", bookRequest.getAuthor());
+                }
+                if (bookRequest.getIsbn() != null && !bookRequest.getIsbn().equals(book.getIsbn())) {
+                    changes.put("isbn", bookRequest.getIsbn());
+                }
+                if (bookRequest.getPublicationYear() != null && !bookRequest.getPublicationYear().equals(book.getPublicationYear())) {
+                    bookInfoValidations.validatePublicationYear(bookRequest.getPublicationYear());
+                    changes.put("publicationYear", bookRequest.getPublicationYear());
+                }
+                if (bookRequest.getQuantity() != null && !bookRequest.getQuantity().equals(book.getQuantity())) {
+                    if (bookRequest.getQuantity() < 0) {
+                        throw new InvalidQuantityException("The quantity cannot be negative");
+                    }
+                    changes.put("quantity", bookRequest.getQuantity());
+                }
+                if (changes.isEmpty()) {
+                    log.info("Book with id {} already up to date", id);
+                    return book;
+                }
+                // Write the changed columns only if the book is still in the state they were computed from,
+                // holding the claim of the new title if it changes
+                changes.put("updatedDate", LocalDateTime.now().truncatedTo(ChronoUnit.MICROS));
+                int patched = bookTitleClaims.rename(id, (String) changes.getOrDefault("title", book.getTitle()),
+                        BookLibrary.normalizeTitle(book.getTitle()),
+                        () -> bookRepository.patchChangedColumns(id, current.getUpdatedDate(), changes), count -> count == 1);
+                if (patched == 1) {
+                    BookLibrary patchedBook = new BookLibrary(id,
+                            (String) changes.getOrDefault("title", book.getTitle()),
+                            (String) changes.getOrDefault("author", book.getAuthor()),
+                            (String) changes.getOrDefault("isbn", book.getIsbn()),
+                            (Integer) changes.getOrDefault("quantity", book.getQuantity()),
+                            (Year) changes.getOrDefault("publicationYear", book.getPublicationYear()));
+                    if (changes.containsKey("title") || changes.containsKey("author") || changes.containsKey("isbn")) {
+                        bookSearchIndex.index(patchedBook);
+                    }
+                    if (changes.containsKey("author") || changes.containsKey("publicationYear")) {
+                        bookFacetHistogram.index(patchedBook);
+                    }
+                    if (changes.containsKey("normalizedTitle")) {
+                        titleBloomFilter.put((String) changes.get("normalizedTitle"));
+                    }
+                    searchResultCache.publicationYearsChanged(catalogVersion.increment(),
+                            Arrays.asList(book.getPublicationYear(), patchedBook.getPublicationYear()));
+                    bookResponseCache.invalidate(id);
+                    log.info("Book with id {} successfully patched: {}", id, changes.keySet());
+                    BookResponse patchedResponse = new BookResponse(id, patchedBook.getTitle(), patchedBook.getAuthor(),
+                            patchedBook.getIsbn(), patchedBook.getQuantity(), patchedBook.getPublicationYear());
+                    bookChangeFeed.publish(BookChangeResponse.of(BookChangeResponse.ChangeType.UPDATED, patchedResponse,
+                            (LocalDateTime) changes.get("updatedDate")));
+                    return patchedResponse;
+                }
+                // The book was changed or deleted concurrently, so drop the stale copy and start over
+                bookResponseCache.invalidate(id);
+            }
+            throw new ConcurrentUpdateException("Error Occurred while patching Book: Book with id " + id + " kept changing concurrently and could not be patched");
+        }catch (NotFoundException | ConcurrentUpdateException | InvalidQuantityException | AlreadyExistsException
+                | ValidTitleException | ValidAuthorException | ValidPublicationYearException ex) {
+            // Misses, conflicts and invalid requests already carry their final message and status
+            throw ex;
+        }catch (RuntimeException ex) {
+            // Log the specific exception details
+            log.error("Error while patching Book with id {}", id, ex);
+            throw ex;
+        }
+    }
+
+    /**
+     * This is a method that lends copies of a book, taking them out of its stock.
+     * The stock is changed with a conditional atomic update that never lets it drop below zero,
+     * and concurrent changes to the same book are merged into one update by the stockUpdateCombiner,
+     * so no update is lost however many branches lend the same book at once.
+     * If the book does not exist, it throws a NotFoundException; if too few copies are in stock, an OutOfStockException.
+     * @param  id      the unique ID of the book
+     * @param  copies  the number of copies to lend, at least one and at most MAX_COPIES_PER_CHANGE
+     * @return         the response containing the number of copies that remain in stock
+     */
+    @Override
+    public StockResponse checkoutBook(Long id, int copies) {
+        return changeStock(id, copies, -copies);
+    }
+
+    /**
+     * This is a method that takes returned copies of a book back into its stock.
+     * It goes through the same atomic, combined update as checkoutBook.
+     * If the book does not exist, it throws a NotFoundException.
+     * @param  id      the unique ID of the book
+     * @param  copies  the number of copies returned, at least one and at most MAX_COPIES_PER_CHANGE
+     * @return         the response containing the number of copies now in stock
+     */
+    @Override
+    public StockResponse returnBook(Long id, int copies) {
+        return changeStock(id, copies, copies);
+    }
+
+    private StockResponse changeStock(Long id, int copies, int delta) {
+        if (copies < 1) {
+            throw new InvalidQuantityException("The number of copies must be at least 1");
+        }
+        if (copies > MAX_COPIES_PER_CHANGE) {
+            throw new InvalidQuantityException("The number of copies must be at most " + MAX_COPIES_PER_CHANGE);
+        }
+        StockUpdate stockUpdate = stockUpdateCombiner.apply(id, delta);
+        int remaining = stockUpdate.getRemainingQuantity();
+        searchResultCache.publicationYearsChanged(catalogVersion.increment(),
+                Collections.singletonList(bookFacetHistogram.publicationYearOf(id)));
+        bookResponseCache.invalidate(id);
+        bookChangeFeed.publish(BookChangeResponse.builder()
+                .type(BookChangeResponse.ChangeType.STOCK_CHANGED)
+                .bookId(id)
+                .quantity(remaining)
+                .changedAt(stockUpdate.getUpdatedDate())
+                .build());
+        log.info("Stock of Book with id {} changed by {}: {} copies remaining", id, delta, remaining);
+        return StockResponse.builder()
+                .bookId(id)
+                .copies(copies)
+                .remainingQuantity(remaining)
+                .build();
+    }
+
     /**
      * This implementation defines a method that deletes a book by its unique ID.
+     * A BookTombstone is written in the same transaction, so clients syncing through the changes API learn about the deletion.
+     * The book is locked first, so the deletion is only published once it has actually removed the book;
+     * if the book does not exist, nothing is written or published and it throws a NotFoundException.
      * If the deletion is successful, it logs the deletion success status and returns an empty ApiResponse object.
-     * If there is an error, it logs the exception details and throws a custom NotFoundException with the error message.
+     * If there is an error, it logs the exception details and propagates the exception.
      * @param  id  the unique ID of the book to be deleted
      * @return     an ApiResponse object indicating the success of the operation
      */
     @Override
     public ApiResponse deleteBookById(Long id) {
         try {
-            // Delete Book entity by UniqueId
-            bookRepository.deleteById(id);
+            // Lock the Book, record its Tombstone and delete Book entity by UniqueId, all on the shard of the id
+            LocalDateTime deletedDate = LocalDateTime.now().truncatedTo(ChronoUnit.MICROS);
+            bookShards.callOnShardOf(id, () -> {
+                transactionTemplate.executeWithoutResult(status -> {
+                    if (bookRepository.lockExistingIds(List.of(id)).isEmpty()) {
+                        log.debug("Book with id {} does not exist and cannot be deleted", id);
+                        throw new NotFoundException("Error Occurred while deleting Book: Book with id " + id + " does not exist");
+                    }
+                    bookRepository.insertTombstones(List.of(id), deletedDate);
+                    bookRepository.deleteById(id);
+                });
+                return null;
+            });
+            bookTitleClaims.release(List.of(id));
+            Year publicationYear = bookFacetHistogram.publicationYearOf(id);
+            bookSearchIndex.remove(id);
+            bookFacetHistogram.remove(id);
+            searchResultCache.publicationYearsChanged(catalogVersion.increment(), Collections.singletonList(publicationYear));
+            bookResponseCache.invalidate(id);
+            bookChangeFeed.publish(new BookChangeResponse(id, deletedDate));
             log.info("Book successfully deleted with id: " + id);
-        } catch (Exception ex) {
+        } catch (NotFoundException ex) {
+            // A miss already carries its final message, so it is not logged again
+            throw ex;
+        } catch (RuntimeException ex) {
             // Log the specific exception details
-            log.error("Error while deleting Book: {}", ex.getMessage());
-            throw new NotFoundException("Error Occurred while deleting Book: " + ex.getMessage());
+            log.error("Error while deleting Book with id {}", id, ex);
+            throw ex;
         }
         return ApiResponse.builder()
                 .status(HttpStatus.OK)
                 .dateTime(LocalDateTime.now())
                 .build();
     }
+
+    /**
+     * This is a method that deletes a list of books by their unique IDs in bulk.
+     * Duplicate ids are ignored, and the remaining ones are deleted with one set-based DELETE per chunk,
+     * each in its own transaction, so no entity is loaded before it is removed.
+     * After every chunk, the deleted ids are dropped from the search index, the facet histogram and the book cache.
+     * Every chunk first locks the books of its ids that still exist, then writes their BookTombstones and deletes them,
+     * so a DELETED event is only published, and counted, for a book this call actually deleted.
+     * On a sharded catalog the ids are chunked per shard, so every chunk is deleted in one transaction on one shard.
+     * If a chunk fails, it logs the error and propagates the exception; the chunks deleted before it stay deleted.
+     * @param  ids  the unique IDs of the books to delete
+     * @return      the number of distinct ids requested and the number of books actually deleted
+     */
+    @Override
+    public BulkDeleteResponse deleteBooksByIds(List<Long> ids) {
+        List<Long> distinctIds = ids.stream().filter(Objects::nonNull).distinct().collect(Collectors.toList());
+        return deleteInChunks(distinctIds);
+    }
+
+    /**
+     * This is a method that deletes every book matching a predicate: a publication year, an author (ignoring case), or both.
+     * The ids of the matching books are resolved with one projection query, then deleted like deleteBooksByIds.
+     * Books added after the ids have been resolved are not deleted.
+     * If neither criterion is given, it throws a DeleteCriteriaRequiredException instead of deleting the whole catalog.
+     * @param  publicationYear  the publication year of the books to delete, or null to match any year
+     * @param  author           the author of the books to delete, or null to match any author
+     * @return                  the number of books matched and the number of books actually deleted
+     */
+    @Override
+    public BulkDeleteResponse deleteBooksByPredicate(Year publicationYear, String author) {
+        boolean byAuthor = author != null && !author.isBlank();
+        if (publicationYear == null && !byAuthor) {
+            throw new DeleteCriteriaRequiredException("A publication year or an author is required to delete Books by predicate");
+        }
+        List<Long> ids;
+        if (publicationYear != null && byAuthor) {
+            ids = bookRepository.findIdsByPublicationYearAndAuthor(publicationYear, author);
+        } else if (publicationYear != null) {
+            ids = bookRepository.findIdsByPublicationYear(publicationYear);
+        } else {
+            ids = bookRepository.findIdsByAuthor(author);
+        }
+        return deleteInChunks(ids);
+    }
+
+    private BulkDeleteResponse deleteInChunks(List<Long> ids) {
+        int deletedCount = 0;
+        try {
+            // Chunk the ids of every shard apart, so each chunk is deleted in one transaction on one shard
+            Map<Integer, List<Long>> idsByShard = ids.stream()
+                    .collect(Collectors.groupingBy(bookShards::shardOf, TreeMap::new, Collectors.toList()));
+            for (List<Long> shardIds : idsByShard.values()) {
+                for (int from = 0; from < shardIds.size(); from += DELETE_CHUNK_SIZE) {
+                    List<Long> chunk = shardIds.subList(from, Math.min(from + DELETE_CHUNK_SIZE, shardIds.size()));
+                    LocalDateTime deletedDate = LocalDateTime.now().truncatedTo(ChronoUnit.MICROS);
+                    // Lock the books that still exist, so exactly these are tombstoned, deleted and published
+                    List<Long> deleted = bookShards.callOnShardOf(chunk.get(0), () -> transactionTemplate.execute(status -> {
+                        List<Long> existing = bookRepository.lockExistingIds(chunk);
+                        if (!existing.isEmpty()) {
+                            bookRepository.insertTombstones(existing, deletedDate);
+                            bookRepository.deleteAllByIdIn(existing);
+                        }
+                        return existing;
+                    }));
+                    if (deleted == null || deleted.isEmpty()) {
+                        continue;
+                    }
+                    deletedCount += deleted.size();
+                    bookTitleClaims.release(deleted);
+                    Set<Year> publicationYears = new HashSet<>();
+                    deleted.forEach(id -> publicationYears.add(bookFacetHistogram.publicationYearOf(id)));
+                    searchResultCache.publicationYearsChanged(catalogVersion.increment(), publicationYears);
+                    for (Long id : deleted) {
+                        bookSearchIndex.remove(id);
+                        bookFacetHistogram.remove(id);
+                        bookResponseCache.invalidate(id);
+                        bookChangeFeed.publish(new BookChangeResponse(id, deletedDate));
+                    }
+                }
+            }
+        } catch (RuntimeException ex) {
+            // Log the specific exception details
+            log.error("Error while deleting Books after {} deletions", deletedCount, ex);
+            throw ex;
+        }
+        log.info("{} of {} Books successfully deleted in bulk", deletedCount, ids.size());
+        return BulkDeleteResponse.builder()
+                .requestedCount(ids.size())
+                .deletedCount(deletedCount)
+                .build();
+    }
+
+    /**
+     * This is a method that returns the books added, updated or deleted after the given cursor, oldest first,
+     * so clients keeping a copy of the catalog only fetch what changed since their last sync.
+     * Changes are read from the (updatedDate, id) index and the tombstones of deleted books, see BookChangeLog.
+     * If the cursor is older than the retained tombstones, it throws a ChangesExpiredException.
+     * @param  cursor  the nextCursor of the previous call, or null for a full sync
+     * @param  limit   the maximum number of changes to return
+     * @return         the changes, the cursor to pass next time and whether more changes are available right away
+     */
+    @Override
+    public BookChangesResponse getChangesSince(String cursor, int limit) {
+        BookChangesResponse changes = bookChangeLog.changesSince(cursor, limit);
+        log.info("{} Book changes retrieved", changes.getChangeCount());
+        return changes;
+    }
+
+    /**
+     * This is a method that subscribes to the server-sent events pushed for every committed add, update and delete.
+     * A reconnecting client resumes after its Last-Event-ID while that event is still buffered, see BookChangeFeed.
+     * If too many clients are already subscribed, it throws a ChangeFeedFullException.
+     * @param  lastEventId  the Last-Event-ID header of a reconnecting client, or null
+     * @return              the emitter the events are written to
+     */
+    @Override
+    public SseEmitter streamChanges(String lastEventId) {
+        return bookChangeFeed.subscribe(lastEventId);
+    }
+
+    /**
+     * This is a method that writes the whole catalog to the configured snapshot file,
+     * which is restored automatically on the next start of the application.
+     * If snapshots are disabled or the file cannot be written, it throws a SnapshotException.
+     * @return  the location, book count, size and duration of the new snapshot
+     */
+    @Override
+    public SnapshotResponse saveCatalogSnapshot() {
+        return catalogSnapshot.save();
+    }
+
+    /**
+     * Returns the hit, miss and eviction counters of the getBookById cache, so it can be sized from real traffic.
+     * @return  the current statistics of the book response cache
+     */
+    @Override
+    public CacheStatsResponse getBookCacheStats() {
+        return bookResponseCache.stats();
+    }
+
+    // Returns the catalog version, the validator of every page and search result, of the data this request reads.
+    @Override
+    public long getCatalogVersion() {
+        return replicaRouting.readableCatalogVersion();
+    }
 }
@@ -0,0 +1,17 @@
+package com.mobilise.BookManagementSystem.service.inventory;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.time.LocalDateTime;
+
+/**
+ * The outcome of one stock change: the stock right after it, and the updatedDate written to the book by the UPDATE
+ * that applied it, so the STOCK_CHANGED event carries the same time as the row the changes API reads.
+ */
+@Getter
+@AllArgsConstructor
+public class StockUpdate {
+    private int remainingQuantity;
+    private LocalDateTime updatedDate;
+}
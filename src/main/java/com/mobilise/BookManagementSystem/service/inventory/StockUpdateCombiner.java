@@ -0,0 +1,183 @@
+package com.mobilise.BookManagementSystem.service.inventory;
+
+import com.mobilise.BookManagementSystem.exception.NotFoundException;
+import com.mobilise.BookManagementSystem.exception.OutOfStockException;
+import com.mobilise.BookManagementSystem.repository.BookRepository;
+import com.mobilise.BookManagementSystem.service.shard.BookShards;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Applies stock changes (checkouts and returns) with flat combining, so that a burst of concurrent changes to a popular
+ * book costs one conditional UPDATE instead of one row-lock round trip per change.
+ * Every change is queued on a stripe chosen by the book id. The first caller that finds the stripe idle becomes its
+ * combiner: it drains the queue, merges the changes per book and writes each book once, in its own transaction.
+ * The other callers wait for their result, and take over the stripe if it becomes idle while their change is still queued.
+ * <p>
+ * Within a merged group, returns are applied before checkouts. This is a valid order because the changes were concurrent,
+ * and it lets a return satisfy a checkout that arrived in the same burst.
+ * If the merged change would drop the stock below zero, the row is locked and the checkouts are granted one by one,
+ * in arrival order, until the stock runs out; the rest fail with an OutOfStockException.
+ * Every write of a group stamps the book with one updatedDate taken before its transaction, which is reported to the
+ * callers together with their remaining stock.
+ */
+@Slf4j
+@Component
+public class StockUpdateCombiner {
+    // Changes merged by one combiner pass, so that a combiner under sustained load eventually returns to its own caller
+    private static final int MAX_CHANGES_PER_PASS = 1024;
+    // How long a waiting caller sleeps before checking whether it has to take over an idle stripe
+    private static final long WAIT_MICROS = 200;
+
+    private final BookRepository bookRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final BookShards bookShards;
+    private final Stripe[] stripes;
+
+    public StockUpdateCombiner(BookRepository bookRepository, TransactionTemplate transactionTemplate, BookShards bookShards,
+                               @Value("${book.inventory.stripes:64}") int stripeCount) {
+        this.bookRepository = bookRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.bookShards = bookShards;
+        this.stripes = new Stripe[Integer.highestOneBit(Math.max(1, stripeCount - 1)) << 1];
+        for (int i = 0; i < stripes.length; i++) {
+            stripes[i] = new Stripe();
+        }
+    }
+
+    /**
+     * Adds delta copies to the stock of a book (removes them when delta is negative) and waits until the change is committed.
+     * @param  bookId  the id of the book
+     * @param  delta   the number of copies to add, or to remove when negative
+     * @return         the stock of the book right after this change and the updatedDate written with it
+     * @throws NotFoundException    if the book does not exist
+     * @throws OutOfStockException  if removing the copies would drop the stock below zero
+     */
+    public StockUpdate apply(Long bookId, int delta) {
+        Stripe stripe = stripes[Long.hashCode(bookId * 0x9E3779B97F4A7C15L) & (stripes.length - 1)];
+        StockChange change = new StockChange(bookId, delta);
+        stripe.queue.add(change);
+        boolean interrupted = false;
+        while (!change.result.isDone()) {
+            if (stripe.busy.compareAndSet(false, true)) {
+                try {
+                    combine(stripe);
+                } finally {
+                    stripe.busy.set(false);
+                }
+            } else {
+                try {
+                    change.result.get(WAIT_MICROS, TimeUnit.MICROSECONDS);
+                } catch (TimeoutException | ExecutionException ignored) {
+                    // Either still queued, so check the stripe again, or done, which ends the loop
+                } catch (InterruptedException e) {
+                    // The change is already queued and will be written, so wait for it and restore the flag afterwards
+                    interrupted = true;
+                }
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+        try {
+            return change.result.join();
+        } catch (CompletionException e) {
+            throw e.getCause() instanceof RuntimeException cause ? cause : e;
+        }
+    }
+
+    // Drains up to MAX_CHANGES_PER_PASS changes from the stripe and writes each book once.
+    private void combine(Stripe stripe) {
+        Map<Long, List<StockChange>> changesByBook = new LinkedHashMap<>();
+        StockChange change;
+        for (int i = 0; i < MAX_CHANGES_PER_PASS && (change = stripe.queue.poll()) != null; i++) {
+            changesByBook.computeIfAbsent(change.bookId, id -> new ArrayList<>()).add(change);
+        }
+        changesByBook.forEach(this::write);
+    }
+
+    // Writes the merged changes of one book in one transaction on its shard, and completes them only once it has committed.
+    private void write(Long bookId, List<StockChange> changes) {
+        List<StockChange> ordered = new ArrayList<>(changes.size());
+        changes.stream().filter(c -> c.delta >= 0).forEach(ordered::add);
+        changes.stream().filter(c -> c.delta < 0).forEach(ordered::add);
+        LocalDateTime updatedDate = LocalDateTime.now().truncatedTo(ChronoUnit.MICROS);
+        try {
+            // Summed with addExact, so a group that overflows fails all of its callers instead of writing a wrapped delta
+            int netDelta = ordered.stream().mapToInt(c -> c.delta).reduce(0, Math::addExact);
+            List<Runnable> completions = bookShards.callOnShardOf(bookId, () -> transactionTemplate.execute(status -> {
+                List<Runnable> outcomes = new ArrayList<>(ordered.size());
+                if (bookRepository.adjustQuantity(bookId, netDelta, updatedDate) == 1) {
+                    // Fast path: the whole group fits in the stock; replay it to report each caller's remaining stock
+                    int stock = bookRepository.findQuantityById(bookId).orElseThrow() - netDelta;
+                    for (StockChange c : ordered) {
+                        int remaining = stock += c.delta;
+                        outcomes.add(() -> c.result.complete(new StockUpdate(remaining, updatedDate)));
+                    }
+                    return outcomes;
+                }
+                // Slow path: lock the row by applying the returns, then grant the checkouts in arrival order
+                int returned = ordered.stream().filter(c -> c.delta >= 0).mapToInt(c -> c.delta).reduce(0, Math::addExact);
+                if (bookRepository.adjustQuantity(bookId, returned, updatedDate) == 0) {
+                    NotFoundException notFound = new NotFoundException("Book with id " + bookId + " does not exist");
+                    ordered.forEach(c -> outcomes.add(() -> c.result.completeExceptionally(notFound)));
+                    return outcomes;
+                }
+                int stock = bookRepository.findQuantityById(bookId).orElseThrow() - returned;
+                int granted = 0;
+                for (StockChange c : ordered) {
+                    if (c.delta >= 0 || stock + c.delta >= 0) {
+                        int remaining = stock += c.delta;
+                        granted = c.delta < 0 ? Math.addExact(granted, c.delta) : granted;
+                        outcomes.add(() -> c.result.complete(new StockUpdate(remaining, updatedDate)));
+                    } else {
+                        int available = stock;
+                        outcomes.add(() -> c.result.completeExceptionally(new OutOfStockException(
+                                "Only " + available + " copies of book with id " + bookId + " are in stock")));
+                    }
+                }
+                if (granted != 0) {
+                    bookRepository.adjustQuantity(bookId, granted, updatedDate);
+                }
+                return outcomes;
+            }));
+            completions.forEach(Runnable::run);
+        } catch (Exception e) {
+            log.error("Error while updating the stock of Book with id {}: {}", bookId, e.getMessage());
+            changes.forEach(c -> c.result.completeExceptionally(e));
+        }
+    }
+
+    private static class Stripe {
+        private final Queue<StockChange> queue = new ConcurrentLinkedQueue<>();
+        private final AtomicBoolean busy = new AtomicBoolean();
+    }
+
+    private static class StockChange {
+        private final Long bookId;
+        private final int delta;
+        private final CompletableFuture<StockUpdate> result = new CompletableFuture<>();
+
+        private StockChange(Long bookId, int delta) {
+            this.bookId = bookId;
+            this.delta = delta;
+        }
+    }
+}
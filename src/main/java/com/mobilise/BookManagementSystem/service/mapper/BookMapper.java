@@ -3,29 +3,26 @@ package com.mobilise.BookManagementSystem.service.mapper;
 import com.mobilise.BookManagementSystem.dto.request.BookRequest;
 import com.mobilise.BookManagementSystem.dto.response.BookResponse;
 import com.mobilise.BookManagementSystem.entity.BookLibrary;
-import lombok.extern.slf4j.Slf4j;
-import org.springframework.stereotype.Component;
+import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
 
-import java.time.Year;
-
-@Component
-@Slf4j
-public class BookMapper {
+/**
+ * Book mappings generated at compile time by MapStruct (see the generated BookMapperImpl),
+ * so no reflection is involved when a book is mapped.
+ */
+@Mapper(componentModel = "spring")
+public interface BookMapper {
     /**
      * Maps a BookRequest object to a BookLibrary object.
      *
      * @param  bookRequest  the BookRequest object to be mapped
      * @return              the mapped BookLibrary object
      */
-    public BookLibrary mapBookRequestToBookLibrary(BookRequest bookRequest) {
-        BookLibrary bookLibrary = new BookLibrary();
-        bookLibrary.setTitle(bookRequest.getTitle());
-        bookLibrary.setAuthor(bookRequest.getAuthor());
-        bookLibrary.setIsbn(bookRequest.getIsbn());
-        bookLibrary.setQuantity(bookRequest.getQuantity());
-        bookLibrary.setPublicationYear(bookRequest.getPublicationYear());
-        return bookLibrary;
-    }
+    @Mapping(target = "id", ignore = true)
+    @Mapping(target = "normalizedTitle", ignore = true)
+    @Mapping(target = "createdDate", ignore = true)
+    @Mapping(target = "updatedDate", ignore = true)
+    BookLibrary mapBookRequestToBookLibrary(BookRequest bookRequest);
 
     /**
      * Maps a BookLibrary object to a BookResponse object.
@@ -33,14 +30,5 @@ public class BookMapper {
      * @param  bookLibrary  the BookLibrary object to map
      * @return              the resulting BookResponse object
      */
-    public BookResponse mapBookLibraryToBookResponse(BookLibrary bookLibrary) {
-        BookResponse bookResponse = new BookResponse();
-        bookResponse.setId(bookLibrary.getId());
-        bookResponse.setTitle(bookLibrary.getTitle());
-        bookResponse.setAuthor(bookLibrary.getAuthor());
-        bookResponse.setIsbn(bookLibrary.getIsbn());
-        bookResponse.setQuantity(bookLibrary.getQuantity());
-        bookResponse.setPublicationYear(bookLibrary.getPublicationYear());
-        return bookResponse;
-    }
+    BookResponse mapBookLibraryToBookResponse(BookLibrary bookLibrary);
 }
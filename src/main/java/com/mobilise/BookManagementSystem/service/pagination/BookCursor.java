@@ -0,0 +1,63 @@
+package com.mobilise.BookManagementSystem.service.pagination;
+
+import com.mobilise.BookManagementSystem.dto.response.BookResponse;
+import com.mobilise.BookManagementSystem.exception.InvalidCursorException;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Year;
+import java.util.Base64;
+
+/**
+ * Position of a keyset walk over the book catalog: the sort key, the sort value of the last
+ * seen book and its id. It is exchanged with clients as an opaque URL-safe Base64 token.
+ */
+@Getter
+@AllArgsConstructor
+public class BookCursor {
+    private static final String SEPARATOR = "\n";
+
+    private final BookSortKey sortKey;
+    private final Long lastId;
+    private final String lastValue;
+
+    // Builds the cursor that points just after the given book.
+    public static BookCursor after(BookResponse book, BookSortKey sortKey) {
+        String value = switch (sortKey) {
+            case ID -> String.valueOf(book.getId());
+            case TITLE -> book.getTitle();
+            case PUBLICATION_YEAR -> String.valueOf(book.getPublicationYear().getValue());
+        };
+        return new BookCursor(sortKey, book.getId(), value);
+    }
+
+    /**
+     * Decodes a token previously returned as nextCursor.
+     * An invalid or tampered token results in an InvalidCursorException.
+     * @param  token  the opaque cursor token
+     * @return        the decoded cursor
+     */
+    public static BookCursor decode(String token) {
+        try {
+            String decoded = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            String[] parts = decoded.split(SEPARATOR, 3);
+            BookCursor cursor = new BookCursor(BookSortKey.valueOf(parts[0]), Long.valueOf(parts[1]), parts[2]);
+            if (cursor.sortKey == BookSortKey.PUBLICATION_YEAR) {
+                cursor.getLastPublicationYear();
+            }
+            return cursor;
+        } catch (RuntimeException e) {
+            throw new InvalidCursorException("Invalid pagination cursor: " + token);
+        }
+    }
+
+    public String encode() {
+        String raw = sortKey.name() + SEPARATOR + lastId + SEPARATOR + lastValue;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public Year getLastPublicationYear() {
+        return Year.of(Integer.parseInt(lastValue));
+    }
+}
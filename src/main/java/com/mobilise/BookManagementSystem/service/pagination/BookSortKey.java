@@ -0,0 +1,34 @@
+package com.mobilise.BookManagementSystem.service.pagination;
+
+import com.mobilise.BookManagementSystem.exception.InvalidCursorException;
+
+import java.util.Arrays;
+
+/**
+ * The columns a keyset (cursor) walk over the book catalog can be ordered by.
+ * Every key is combined with the book id as a tie-breaker, so the walk order is always total.
+ */
+public enum BookSortKey {
+    ID("id"),
+    TITLE("title"),
+    PUBLICATION_YEAR("publicationYear");
+
+    private final String property;
+
+    BookSortKey(String property) {
+        this.property = property;
+    }
+
+    public String getProperty() {
+        return property;
+    }
+
+    // Resolves a sort key from its entity property name, e.g. "publicationYear".
+    public static BookSortKey fromProperty(String property) {
+        return Arrays.stream(values())
+                .filter(key -> key.property.equalsIgnoreCase(property))
+                .findFirst()
+                .orElseThrow(() -> new InvalidCursorException("Unsupported sort key: " + property
+                        + ". Supported sort keys are id, title and publicationYear"));
+    }
+}
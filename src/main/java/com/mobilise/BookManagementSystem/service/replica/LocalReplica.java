@@ -0,0 +1,112 @@
+package com.mobilise.BookManagementSystem.service.replica;
+
+import com.mobilise.BookManagementSystem.service.cache.CatalogVersion;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.ContextClosedEvent;
+import org.springframework.context.event.EventListener;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Local stand-in for a read replica: a second embedded H2 database holding a copy of the book_library table of the
+ * primary, refreshed every sync interval while the catalog changes. The copy is pulled through an H2 linked table
+ * and replaced within one replica transaction, so replica reads see either the previous or the new copy.
+ * After every refresh, the catalog version the copy includes is reported to ReplicaRouting, which derives the
+ * replica lag from it; the sync interval therefore sets how far behind the replica can fall.
+ * A full copy per refresh is only meant for exercising the routing locally; a production replica is kept up to date
+ * by the database's own replication and would report its position the same way.
+ */
+@Slf4j
+public class LocalReplica {
+    private final DataSource replicaDataSource;
+    private final String primaryUrl;
+    private final String primaryUsername;
+    private final String primaryPassword;
+    private final CatalogVersion catalogVersion;
+    private final ReplicaRouting replicaRouting;
+    private final Duration syncInterval;
+    private final ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "book-replica-sync");
+        thread.setDaemon(true);
+        return thread;
+    });
+    // Only touched by the sync thread
+    private long copiedVersion = -1;
+
+    public LocalReplica(DataSource replicaDataSource, String primaryUrl, String primaryUsername, String primaryPassword,
+                        CatalogVersion catalogVersion, ReplicaRouting replicaRouting, Duration syncInterval) {
+        this.replicaDataSource = replicaDataSource;
+        this.primaryUrl = primaryUrl;
+        this.primaryUsername = primaryUsername;
+        this.primaryPassword = primaryPassword;
+        this.catalogVersion = catalogVersion;
+        this.replicaRouting = replicaRouting;
+        this.syncInterval = syncInterval;
+    }
+
+    // Starts refreshing once the schema exists and a snapshot, if any, has been restored into the primary.
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        executor.execute(this::createSchema);
+        executor.scheduleWithFixedDelay(this::refresh, 0, syncInterval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    @EventListener(ContextClosedEvent.class)
+    public void stop() {
+        executor.shutdownNow();
+    }
+
+    private void createSchema() {
+        try (Connection connection = replicaDataSource.getConnection(); Statement statement = connection.createStatement()) {
+            statement.execute("CREATE LINKED TABLE IF NOT EXISTS primary_book_library('org.h2.Driver', " + quote(primaryUrl) + ", "
+                    + quote(primaryUsername) + ", " + quote(primaryPassword) + ", 'BOOK_LIBRARY') READONLY");
+            statement.execute("CREATE TABLE IF NOT EXISTS book_library AS SELECT * FROM primary_book_library WITH NO DATA");
+            statement.execute("ALTER TABLE book_library ALTER COLUMN id SET NOT NULL");
+            statement.execute("ALTER TABLE book_library ADD CONSTRAINT IF NOT EXISTS pk_book_library PRIMARY KEY (id)");
+        } catch (SQLException e) {
+            log.error("Error while creating the local replica schema: {}", e.getMessage());
+        }
+    }
+
+    // Copies the primary table if the catalog changed since the last copy, then reports the version the replica holds.
+    private void refresh() {
+        long asOfMillis = System.currentTimeMillis();
+        long version = catalogVersion.current();
+        try {
+            if (version != copiedVersion) {
+                long start = System.nanoTime();
+                try (Connection connection = replicaDataSource.getConnection(); Statement statement = connection.createStatement()) {
+                    connection.setAutoCommit(false);
+                    try {
+                        statement.executeUpdate("DELETE FROM book_library");
+                        int copied = statement.executeUpdate("INSERT INTO book_library SELECT * FROM primary_book_library");
+                        connection.commit();
+                        log.debug("Local replica refreshed: {} books in {} ms", copied, (System.nanoTime() - start) / 1_000_000);
+                    } catch (SQLException e) {
+                        connection.rollback();
+                        throw e;
+                    } finally {
+                        connection.setAutoCommit(true);
+                    }
+                }
+                copiedVersion = version;
+            }
+            replicaRouting.replicaApplied(version, asOfMillis);
+        } catch (SQLException e) {
+            // The replica keeps its previous copy and falls behind, so reads move to the primary once the lag exceeds the tolerance
+            log.error("Error while refreshing the local replica: {}", e.getMessage());
+        }
+    }
+
+    private static String quote(String value) {
+        return "'" + (value == null ? "" : value.replace("'", "''")) + "'";
+    }
+}
@@ -0,0 +1,36 @@
+package com.mobilise.BookManagementSystem.service.replica;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.util.Map;
+
+/**
+ * Sends the connections of read-only transactions to the replica pool while ReplicaRouting allows it,
+ * and every other connection to the primary pool.
+ * It must be wrapped in a LazyConnectionDataSourceProxy, so that the connection is only fetched once the
+ * transaction, and with it the read-only flag, has been set up.
+ */
+public class ReadWriteRoutingDataSource extends AbstractRoutingDataSource {
+    private enum Route { PRIMARY, REPLICA }
+
+    private final ReplicaRouting replicaRouting;
+
+    public ReadWriteRoutingDataSource(DataSource primaryDataSource, DataSource replicaDataSource, ReplicaRouting replicaRouting) {
+        this.replicaRouting = replicaRouting;
+        setTargetDataSources(Map.of(Route.PRIMARY, primaryDataSource, Route.REPLICA, replicaDataSource));
+        setDefaultTargetDataSource(primaryDataSource);
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            return replicaRouting.isReplicaReadable() ? Route.REPLICA : Route.PRIMARY;
+        }
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            replicaRouting.markWritten();
+        }
+        return Route.PRIMARY;
+    }
+}
@@ -0,0 +1,136 @@
+package com.mobilise.BookManagementSystem.service.replica;
+
+import com.mobilise.BookManagementSystem.service.cache.CatalogVersion;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.AllArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Decides whether a read-only transaction may be served by the read replica instead of the primary database.
+ * A read goes to the replica only if the replica is at most book.datasource.replica.max-lag behind the primary,
+ * the current request has not written anything yet (read-your-writes stickiness), and the replica has applied
+ * every catalog version the request depends on; anything else goes to the primary.
+ * The replica reports its progress with replicaApplied; until it has done so once, every read goes to the primary.
+ * The per-request state is kept in a ThreadLocal that must be cleared at the end of every request.
+ */
+@Component
+public class ReplicaRouting implements MeterBinder {
+    // Sent on every write response, and accepted on requests that must see at least that catalog version
+    public static final String CATALOG_VERSION_HEADER = "X-Catalog-Version";
+
+    private final CatalogVersion catalogVersion;
+    private final boolean enabled;
+    private final long maxLagMillis;
+    private final ThreadLocal<RequestState> requestState = ThreadLocal.withInitial(RequestState::new);
+    private volatile ReplicaPosition position;
+
+    public ReplicaRouting(CatalogVersion catalogVersion,
+                          @Value("${book.datasource.replica.enabled:false}") boolean enabled,
+                          @Value("${book.datasource.replica.max-lag:2s}") Duration maxLag) {
+        this.catalogVersion = catalogVersion;
+        this.enabled = enabled;
+        this.maxLagMillis = maxLag.toMillis();
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Returns true if the read-only transaction starting now may use the replica.
+     * @return  true if the replica is within the lag tolerance and has applied every version the request depends on
+     */
+    public boolean isReplicaReadable() {
+        return enabled && isReadable(position, requestState.get());
+    }
+
+    private boolean isReadable(ReplicaPosition position, RequestState state) {
+        return !state.written && position != null && position.version >= state.requiredVersion
+                && lagMillis(position) <= maxLagMillis;
+    }
+
+    // Called for write requests and for every connection of a read-write transaction, so the rest of the request reads from the primary.
+    public void markWritten() {
+        if (enabled) {
+            requestState.get().written = true;
+        }
+    }
+
+    /**
+     * Makes the rest of the current request read data at least as new as the given catalog version,
+     * from the replica once it has applied that version and from the primary until then.
+     * @param  version  the catalog version the request depends on
+     */
+    public void requireVersion(long version) {
+        if (enabled) {
+            RequestState state = requestState.get();
+            state.requiredVersion = Math.max(state.requiredVersion, version);
+        }
+    }
+
+    /**
+     * Returns the catalog version of the data the rest of the current request reads, used as the validator of
+     * pages and search results: the version applied by the replica if the request reads from it, and otherwise the
+     * current version. The request is then pinned to at least that version, so the data is never older than its label.
+     * @return  the catalog version that labels the data read by the rest of the request
+     */
+    public long readableCatalogVersion() {
+        long current = catalogVersion.current();
+        if (!enabled) {
+            return current;
+        }
+        ReplicaPosition position = this.position;
+        RequestState state = requestState.get();
+        long version = isReadable(position, state) ? position.version : current;
+        state.requiredVersion = Math.max(state.requiredVersion, version);
+        return version;
+    }
+
+    /**
+     * Records that the replica holds every write whose catalog version was visible when its copy was taken.
+     * @param  version     the catalog version read before the replica copy was taken
+     * @param  asOfMillis  the time the version was read, in epoch milliseconds
+     */
+    public void replicaApplied(long version, long asOfMillis) {
+        position = new ReplicaPosition(version, asOfMillis);
+    }
+
+    // The replica is current while no write has happened since its copy; otherwise it lags since the copy was taken.
+    private long lagMillis(ReplicaPosition position) {
+        return catalogVersion.current() == position.version ? 0 : System.currentTimeMillis() - position.asOfMillis;
+    }
+
+    public void clear() {
+        requestState.remove();
+    }
+
+    // Publishes the replica lag as the book.replica.lag gauge, NaN until the replica has reported its first copy.
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        if (enabled) {
+            TimeGauge.builder("book.replica.lag", this, TimeUnit.MILLISECONDS, routing -> {
+                        ReplicaPosition current = routing.position;
+                        return current == null ? Double.NaN : routing.lagMillis(current);
+                    })
+                    .description("Time the read replica lags behind the primary database")
+                    .register(registry);
+        }
+    }
+
+    @AllArgsConstructor
+    private static class ReplicaPosition {
+        private final long version;
+        private final long asOfMillis;
+    }
+
+    private static class RequestState {
+        private boolean written;
+        private long requiredVersion;
+    }
+}
@@ -0,0 +1,195 @@
+package com.mobilise.BookManagementSystem.service.search;
+
+import com.mobilise.BookManagementSystem.entity.BookLibrary;
+import com.mobilise.BookManagementSystem.repository.BookRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Stream;
+
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class BookSearchIndex {
+    private static final int GRAM_SIZE = 3;
+    private static final int MIN_STALE_ENTRIES_FOR_COMPACTION = 1024;
+
+    private final BookRepository bookRepository;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    // Trigram key -> sorted ids of the books whose title, author or isbn contain that trigram
+    private final Map<Long, PostingList> postings = new HashMap<>();
+    // Book id -> lower-cased [title, author, isbn], used to verify candidates and to rebuild postings
+    private final Map<Long, String[]> documents = new HashMap<>();
+    // Number of updates and removals whose old trigrams may still be referenced by the postings
+    private long staleEntries;
+    private volatile boolean ready;
+
+    /**
+     * Builds the trigram index from every BookLibrary row once the application has started.
+     * Rows are streamed as SearchDocument projections, so no entity is hydrated during the build.
+     * Until the build completes, isReady returns false and callers should fall back to the database search.
+     */
+    @Transactional(readOnly = true)
+    @EventListener(ApplicationReadyEvent.class)
+    public void buildIndex() {
+        lock.writeLock().lock();
+        try (Stream<SearchDocument> rows = bookRepository.streamSearchDocuments()) {
+            postings.clear();
+            documents.clear();
+            staleEntries = 0;
+            rows.forEach(row -> addDocument(row.getId(), row.getTitle(), row.getAuthor(), row.getIsbn()));
+            ready = true;
+            log.info("Book search index built with {} books and {} trigrams", documents.size(), postings.size());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    // Adds a new book to the index, or replaces the indexed values of an existing one.
+    public void index(BookLibrary book) {
+        lock.writeLock().lock();
+        try {
+            addDocument(book.getId(), book.getTitle(), book.getAuthor(), book.getIsbn());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Removes a book from the index. Its posting entries are dropped lazily during compaction.
+    public void remove(Long id) {
+        lock.writeLock().lock();
+        try {
+            if (documents.remove(id) != null) {
+                staleEntries++;
+                compactIfNeeded();
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Resolves the ids of the books whose title, author or isbn contain the search text, ignoring case.
+     * This matches the semantics of BookRepository.searchByTitleOrAuthorOrIsbn.
+     * The posting lists of every trigram of the search text are intersected starting from the shortest one,
+     * and each candidate is then verified against its indexed values, so stale postings never leak into the result.
+     * Search texts shorter than a trigram are answered by scanning the in-memory documents.
+     * @param  searchText  the text to search for
+     * @return             the ids of the matching books in ascending order
+     */
+    public List<Long> search(String searchText) {
+        String query = normalize(searchText);
+        lock.readLock().lock();
+        try {
+            if (query.length() < GRAM_SIZE) {
+                return scanDocuments(query);
+            }
+            List<PostingList> lists = new ArrayList<>();
+            for (int i = 0; i + GRAM_SIZE <= query.length(); i++) {
+                PostingList list = postings.get(trigramKey(query, i));
+                if (list == null) {
+                    return List.of();
+                }
+                lists.add(list);
+            }
+            lists.sort(Comparator.comparingInt(PostingList::size));
+            PostingList smallest = lists.get(0);
+            List<Long> ids = new ArrayList<>();
+            for (int i = 0; i < smallest.size(); i++) {
+                long id = smallest.get(i);
+                if (containsInAll(lists, id) && matches(documents.get(id), query)) {
+                    ids.add(id);
+                }
+            }
+            return ids;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void addDocument(Long id, String title, String author, String isbn) {
+        String[] values = {normalize(title), normalize(author), normalize(isbn)};
+        if (documents.put(id, values) != null) {
+            staleEntries++;
+        }
+        for (String value : values) {
+            for (int i = 0; i + GRAM_SIZE <= value.length(); i++) {
+                postings.computeIfAbsent(trigramKey(value, i), key -> new PostingList()).add(id);
+            }
+        }
+        compactIfNeeded();
+    }
+
+    // Rebuilds the postings from the live documents once stale entries make up a quarter of the index.
+    private void compactIfNeeded() {
+        if (staleEntries < MIN_STALE_ENTRIES_FOR_COMPACTION || staleEntries * 4 < documents.size()) {
+            return;
+        }
+        postings.clear();
+        documents.forEach((id, values) -> {
+            for (String value : values) {
+                for (int i = 0; i + GRAM_SIZE <= value.length(); i++) {
+                    postings.computeIfAbsent(trigramKey(value, i), key -> new PostingList()).add(id);
+                }
+            }
+        });
+        staleEntries = 0;
+        log.info("Book search index compacted to {} trigrams", postings.size());
+    }
+
+    private List<Long> scanDocuments(String query) {
+        List<Long> ids = new ArrayList<>();
+        documents.forEach((id, values) -> {
+            if (matches(values, query)) {
+                ids.add(id);
+            }
+        });
+        ids.sort(null);
+        return ids;
+    }
+
+    private static boolean containsInAll(List<PostingList> lists, long id) {
+        for (int i = 1; i < lists.size(); i++) {
+            if (!lists.get(i).contains(id)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // A null value never matches, just like LOWER(NULL) LIKE '%x%' in the database query.
+    private static boolean matches(String[] values, String query) {
+        if (values == null) {
+            return false;
+        }
+        for (String value : values) {
+            if (!value.isEmpty() && value.contains(query)) {
+                return true;
+            }
+        }
+        return query.isEmpty();
+    }
+
+    private static long trigramKey(String value, int offset) {
+        return ((long) value.charAt(offset) << 32) | ((long) value.charAt(offset + 1) << 16) | value.charAt(offset + 2);
+    }
+
+    private static String normalize(String value) {
+        return value == null ? "" : value.toLowerCase(Locale.ROOT);
+    }
+}
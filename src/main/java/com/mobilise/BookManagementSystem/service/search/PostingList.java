@@ -0,0 +1,49 @@
+package com.mobilise.BookManagementSystem.service.search;
+
+import java.util.Arrays;
+
+/**
+ * A sorted, growable list of book ids that contain a given trigram.
+ * Ids are kept in ascending order so that appends of newly generated ids are O(1)
+ * and intersections can be computed with a linear merge or a binary search.
+ */
+class PostingList {
+    private long[] ids = new long[4];
+    private int size;
+
+    // Adds the id if it is not already present, keeping the list sorted.
+    void add(long id) {
+        if (size == 0 || ids[size - 1] < id) {
+            ensureCapacity();
+            ids[size++] = id;
+            return;
+        }
+        int position = Arrays.binarySearch(ids, 0, size, id);
+        if (position >= 0) {
+            return;
+        }
+        int insertAt = -position - 1;
+        ensureCapacity();
+        System.arraycopy(ids, insertAt, ids, insertAt + 1, size - insertAt);
+        ids[insertAt] = id;
+        size++;
+    }
+
+    boolean contains(long id) {
+        return Arrays.binarySearch(ids, 0, size, id) >= 0;
+    }
+
+    long get(int index) {
+        return ids[index];
+    }
+
+    int size() {
+        return size;
+    }
+
+    private void ensureCapacity() {
+        if (size == ids.length) {
+            ids = Arrays.copyOf(ids, ids.length + (ids.length >> 1));
+        }
+    }
+}
@@ -0,0 +1,125 @@
+package com.mobilise.BookManagementSystem.service.search;
+
+import com.mobilise.BookManagementSystem.dto.response.BookResponse;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Lets concurrent identical searches share one execution: the first caller of a key runs the search, and callers
+ * arriving while it runs wait for its result instead of running their own query. Nothing is cached; a caller arriving
+ * after the execution finished starts a new one.
+ * The key includes the catalog version the caller reads (see ReplicaRouting.readableCatalogVersion), so a caller never
+ * joins an execution that started before a write it must see.
+ * The shared execution runs in its own read-only transaction, so waiting callers hold no database connection.
+ * The shared result is unmodifiable, since every caller returns the same list.
+ */
+@Component
+public class SearchCoalescer implements MeterBinder {
+    public enum SearchKind { SEARCH_TEXT, PUBLICATION_YEAR }
+
+    private final TransactionTemplate readOnlyTransaction;
+    private final Map<FlightKey, CompletableFuture<List<BookResponse>>> flights = new ConcurrentHashMap<>();
+    private final Map<SearchKind, LongAdder> requests = new EnumMap<>(SearchKind.class);
+    private final Map<SearchKind, LongAdder> executions = new EnumMap<>(SearchKind.class);
+
+    public SearchCoalescer(PlatformTransactionManager transactionManager) {
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        for (SearchKind kind : SearchKind.values()) {
+            requests.put(kind, new LongAdder());
+            executions.put(kind, new LongAdder());
+        }
+    }
+
+    /**
+     * Returns the result of the search, running it unless an identical search is already running.
+     * If the shared execution fails, every caller waiting for it receives the same exception.
+     * @param  kind            the kind of search, reported in the metrics
+     * @param  key             the normalized search criteria; searches with equal keys must return equal results
+     * @param  catalogVersion  the catalog version the caller reads
+     * @param  search          runs the search, called in a read-only transaction
+     * @return                 the unmodifiable search result
+     */
+    public List<BookResponse> execute(SearchKind kind, String key, long catalogVersion, Supplier<List<BookResponse>> search) {
+        requests.get(kind).increment();
+        FlightKey flightKey = new FlightKey(kind, key, catalogVersion);
+        CompletableFuture<List<BookResponse>> flight = new CompletableFuture<>();
+        CompletableFuture<List<BookResponse>> running = flights.putIfAbsent(flightKey, flight);
+        if (running != null) {
+            return join(running);
+        }
+        executions.get(kind).increment();
+        try {
+            List<BookResponse> result = Collections.unmodifiableList(readOnlyTransaction.execute(status -> search.get()));
+            flight.complete(result);
+            return result;
+        } catch (RuntimeException | Error ex) {
+            flight.completeExceptionally(ex);
+            throw ex;
+        } finally {
+            flights.remove(flightKey, flight);
+        }
+    }
+
+    private static List<BookResponse> join(CompletableFuture<List<BookResponse>> running) {
+        try {
+            return running.join();
+        } catch (CompletionException ex) {
+            if (ex.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw ex;
+        }
+    }
+
+    // Publishes book.search.requests and book.search.executions per kind of search, and their ratio as book.search.fan.in.
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        for (SearchKind kind : SearchKind.values()) {
+            String tag = kind.name().toLowerCase(Locale.ROOT);
+            LongAdder kindRequests = requests.get(kind);
+            LongAdder kindExecutions = executions.get(kind);
+            FunctionCounter.builder("book.search.requests", kindRequests, LongAdder::sum)
+                    .description("Searches requested, including those answered by an identical running search")
+                    .tag("search", tag)
+                    .register(registry);
+            FunctionCounter.builder("book.search.executions", kindExecutions, LongAdder::sum)
+                    .description("Searches actually executed against the catalog")
+                    .tag("search", tag)
+                    .register(registry);
+            Gauge.builder("book.search.fan.in", () -> {
+                        long executed = kindExecutions.sum();
+                        return executed == 0 ? Double.NaN : (double) kindRequests.sum() / executed;
+                    })
+                    .description("Searches requested per search executed since startup")
+                    .tag("search", tag)
+                    .register(registry);
+        }
+    }
+
+    @EqualsAndHashCode
+    @AllArgsConstructor
+    private static class FlightKey {
+        private final SearchKind kind;
+        private final String key;
+        private final long catalogVersion;
+    }
+}
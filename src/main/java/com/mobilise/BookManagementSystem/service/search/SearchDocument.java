@@ -0,0 +1,17 @@
+package com.mobilise.BookManagementSystem.service.search;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Lightweight projection of the searchable columns of a BookLibrary row.
+ * It is used to build the search index at startup without hydrating full entities.
+ */
+@Getter
+@AllArgsConstructor
+public class SearchDocument {
+    private Long id;
+    private String title;
+    private String author;
+    private String isbn;
+}
@@ -0,0 +1,244 @@
+package com.mobilise.BookManagementSystem.service.shard;
+
+import com.zaxxer.hikari.HikariDataSource;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.context.spi.CurrentTenantIdentifierResolver;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntFunction;
+import java.util.function.Supplier;
+import java.util.stream.IntStream;
+
+/**
+ * Partitions the book_library table across book.sharding.shard-count databases.
+ * Shard k owns the id range [k * id-range-size + 1, (k + 1) * id-range-size]: every shard has its own
+ * book_library_seq starting at the beginning of its range, so the shard of a book is known from its id alone.
+ * New books are placed on the shard chosen by the hash of their normalized title, so two concurrent creations of the
+ * same title always meet on the same shard, where the unique index rejects the second one.
+ * <p>
+ * Shard 0 is the spring.datasource database; the others are created from book.sharding.url-template and receive a
+ * copy of the schema Hibernate created on shard 0. Every shard is a Hibernate tenant (see ShardingConfig), and the
+ * shard used by the sessions of the current thread is selected with callOn.
+ * With a single shard, which is the default, sharding is disabled and everything runs on the spring.datasource database.
+ */
+@Slf4j
+@Component
+public class BookShards implements CurrentTenantIdentifierResolver<String>, SmartInitializingSingleton, DisposableBean {
+    // Matches the allocationSize of the book_library_seq generator of BookLibrary
+    public static final int ID_ALLOCATION_SIZE = 50;
+
+    // The shard selected for the sessions of the current thread, null when no shard has been selected
+    private static final ThreadLocal<Integer> CURRENT_SHARD = new ThreadLocal<>();
+
+    private final int shardCount;
+    private final long idRangeSize;
+    private final List<DataSource> dataSources = new ArrayList<>();
+    private final List<HikariDataSource> ownedDataSources = new ArrayList<>();
+    private final ExecutorService executor;
+    private boolean schemasCreated;
+
+    public BookShards(DataSource dataSource,
+                      @Value("${book.sharding.shard-count:1}") int shardCount,
+                      @Value("${book.sharding.id-range-size:1099511627776}") long idRangeSize,
+                      @Value("${book.sharding.url-template:jdbc:h2:mem:shard%d;DB_CLOSE_ON_EXIT=FALSE}") String urlTemplate,
+                      @Value("${book.sharding.username:sa}") String username,
+                      @Value("${book.sharding.password:}") String password,
+                      @Value("${book.sharding.maximum-pool-size:10}") int maximumPoolSize,
+                      @Value("${book.datasource.replica.enabled:false}") boolean replicaEnabled) {
+        if (shardCount < 1) {
+            throw new IllegalStateException("book.sharding.shard-count must be at least 1");
+        }
+        if (shardCount > 1 && replicaEnabled) {
+            throw new IllegalStateException("book.sharding and book.datasource.replica cannot be enabled together");
+        }
+        this.shardCount = shardCount;
+        this.idRangeSize = idRangeSize;
+        dataSources.add(dataSource);
+        for (int shard = 1; shard < shardCount; shard++) {
+            HikariDataSource shardDataSource = DataSourceBuilder.create().type(HikariDataSource.class)
+                    .url(String.format(urlTemplate, shard)).username(username).password(password).build();
+            shardDataSource.setPoolName("shard-" + shard);
+            shardDataSource.setMaximumPoolSize(maximumPoolSize);
+            dataSources.add(shardDataSource);
+            ownedDataSources.add(shardDataSource);
+        }
+        AtomicInteger threads = new AtomicInteger();
+        this.executor = shardCount == 1 ? null : Executors.newFixedThreadPool(shardCount * 2, runnable -> {
+            Thread thread = new Thread(runnable, "book-shard-" + threads.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    public boolean isEnabled() {
+        return shardCount > 1;
+    }
+
+    public int getShardCount() {
+        return shardCount;
+    }
+
+    public DataSource getDataSource(int shard) {
+        return dataSources.get(shard);
+    }
+
+    /**
+     * Returns the shard that owns the given id; ids outside every range belong to the nearest shard.
+     * @param  id  the id of a book
+     * @return     the shard holding the book
+     */
+    public int shardOf(long id) {
+        return (int) Math.min(Math.max(0, (id - 1) / idRangeSize), shardCount - 1);
+    }
+
+    /**
+     * Returns the shard a new book with the given normalized title is created on.
+     * @param  normalizedTitle  the normalized title, see BookLibrary.normalizeTitle
+     * @return                  the shard the book is created on
+     */
+    public int shardForTitle(String normalizedTitle) {
+        return Math.floorMod(normalizedTitle.hashCode() * 0x9E3779B9, shardCount);
+    }
+
+    public Integer currentShard() {
+        return CURRENT_SHARD.get();
+    }
+
+    /**
+     * Runs the action with the given shard selected for the current thread, then restores the previous selection.
+     * Sessions opened by the action, including the repository's own transactions, use the connections of that shard.
+     * @param  shard   the shard to select
+     * @param  action  the action to run
+     * @return         the result of the action
+     */
+    public <T> T callOn(int shard, Supplier<T> action) {
+        Integer previous = CURRENT_SHARD.get();
+        CURRENT_SHARD.set(shard);
+        try {
+            return action.get();
+        } finally {
+            if (previous == null) {
+                CURRENT_SHARD.remove();
+            } else {
+                CURRENT_SHARD.set(previous);
+            }
+        }
+    }
+
+    // Runs the action on the shard holding the given book; without sharding, it simply runs the action.
+    public <T> T callOnShardOf(long id, Supplier<T> action) {
+        return isEnabled() ? callOn(shardOf(id), action) : action.get();
+    }
+
+    // Runs the action on the shard new books with the given normalized title are created on; without sharding, it simply runs the action.
+    public <T> T callOnShardForTitle(String normalizedTitle, Supplier<T> action) {
+        return isEnabled() ? callOn(shardForTitle(normalizedTitle), action) : action.get();
+    }
+
+    /**
+     * Runs the action on every shard in parallel, each on its own thread without a surrounding transaction.
+     * @param  action  the action to run, receiving the shard it runs on
+     * @return         the results, in shard order
+     */
+    public <T> List<T> fanOut(IntFunction<T> action) {
+        return fanOut(IntStream.range(0, shardCount).boxed().toList(), action);
+    }
+
+    /**
+     * Runs the action on the given shards in parallel, each on its own thread without a surrounding transaction.
+     * @param  shards  the shards to run the action on
+     * @param  action  the action to run, receiving the shard it runs on
+     * @return         the results, in the order of the given shards
+     */
+    public <T> List<T> fanOut(Collection<Integer> shards, IntFunction<T> action) {
+        List<Future<T>> futures = new ArrayList<>(shards.size());
+        for (int shard : shards) {
+            futures.add(executor.submit(() -> callOn(shard, () -> action.apply(shard))));
+        }
+        List<T> results = new ArrayList<>(shards.size());
+        try {
+            for (Future<T> future : futures) {
+                results.add(future.get());
+            }
+        } catch (InterruptedException e) {
+            futures.forEach(future -> future.cancel(true));
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for the shards", e);
+        } catch (ExecutionException e) {
+            futures.forEach(future -> future.cancel(true));
+            throw e.getCause() instanceof RuntimeException cause ? cause : new IllegalStateException(e.getCause());
+        }
+        return results;
+    }
+
+    /**
+     * Moves the book_library_seq sequence of a shard past the given id, and at least to the start of the shard's range,
+     * so new books on that shard never reuse an id or leave the shard's range.
+     * @param  shard  the shard whose sequence is moved
+     * @param  maxId  the highest id stored on the shard
+     */
+    public void restartIdSequence(int shard, long maxId) {
+        long next = Math.max(maxId, (long) shard * idRangeSize) + ID_ALLOCATION_SIZE;
+        new JdbcTemplate(getDataSource(shard)).execute("ALTER SEQUENCE book_library_seq RESTART WITH " + next);
+    }
+
+    // The tenant identifier of the sessions opened by the current thread.
+    @Override
+    public String resolveCurrentTenantIdentifier() {
+        Integer shard = CURRENT_SHARD.get();
+        return String.valueOf(shard == null ? 0 : shard);
+    }
+
+    @Override
+    public boolean validateExistingCurrentSessions() {
+        return false;
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        createSchemas();
+    }
+
+    /**
+     * Copies the schema of shard 0, which Hibernate has created by now, to every other shard and moves each shard's
+     * sequence to the start of its id range. Called again by a snapshot restore, which needs the shards; runs once.
+     */
+    public synchronized void createSchemas() {
+        if (!isEnabled() || schemasCreated) {
+            return;
+        }
+        List<String> ddl = new JdbcTemplate(getDataSource(0))
+                .queryForList("SCRIPT NODATA NOPASSWORDS NOSETTINGS", String.class).stream()
+                .filter(statement -> !statement.startsWith("--") && !statement.startsWith("CREATE USER"))
+                .toList();
+        for (int shard = 1; shard < shardCount; shard++) {
+            JdbcTemplate shardTemplate = new JdbcTemplate(getDataSource(shard));
+            ddl.forEach(shardTemplate::execute);
+            restartIdSequence(shard, 0);
+        }
+        schemasCreated = true;
+        log.info("Book catalog sharded across {} databases of {} ids each", shardCount, idRangeSize);
+    }
+
+    @Override
+    public void destroy() {
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+        ownedDataSources.forEach(HikariDataSource::close);
+    }
+}
@@ -0,0 +1,130 @@
+package com.mobilise.BookManagementSystem.service.shard;
+
+import com.mobilise.BookManagementSystem.entity.BookLibrary;
+import com.mobilise.BookManagementSystem.exception.AlreadyExistsException;
+import com.mobilise.BookManagementSystem.repository.BookRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * Keeps titles unique across the shards with a BookTitleClaim per book on the shard its title hashes to.
+ * A new book is created on that shard, so its claim is written in the transaction that creates it. A renamed book
+ * stays on the shard of its id, so its new title is claimed first, in a transaction of its own on the title's shard,
+ * and the update only runs once the claim is held; the old claim is released once the update has been applied.
+ * Two creations or renames to the same title therefore always collide on one shard, whatever the shard of their books.
+ * <p>
+ * A claim left behind by a failed release keeps its title taken until it is removed by hand; the failure is logged.
+ * Without sharding every method simply runs the given action, the unique index of the single database being enough,
+ * and a violation of that index by a rename is reported as an AlreadyExistsException too.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class BookTitleClaims {
+    private final BookShards bookShards;
+    private final BookRepository bookRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    /**
+     * Creates new books whose titles are all created on the same shard, in one transaction on that shard,
+     * together with their claims on a sharded catalog.
+     * @param  books  the new books, to be saved by the action
+     * @param  save   saves the books; runs in the transaction of the claims
+     * @throws AlreadyExistsException  if one of the titles is already claimed; none of the books is then created
+     */
+    public void create(List<BookLibrary> books, Runnable save) {
+        if (!bookShards.isEnabled()) {
+            save.run();
+            return;
+        }
+        try {
+            bookShards.callOnShardForTitle(BookLibrary.normalizeTitle(books.get(0).getTitle()), () -> {
+                transactionTemplate.executeWithoutResult(status -> {
+                    save.run();
+                    bookRepository.insertTitleClaims(books.stream().map(BookLibrary::getId).toList());
+                });
+                return null;
+            });
+        } catch (DataIntegrityViolationException ex) {
+            throw alreadyExists(books.size() == 1 ? books.get(0).getTitle() : "of one of the books");
+        }
+    }
+
+    /**
+     * Runs the update that renames a book, holding the claim of the new title while it runs.
+     * @param  bookId              the id of the renamed book
+     * @param  title               the new title, as requested
+     * @param  previousNormalized  the normalized title of the book before the update
+     * @param  update              writes the new title on the book's shard
+     * @param  applied             tells from the result of the update whether it has been applied
+     * @return                     the result of the update
+     * @throws AlreadyExistsException  if another book holds the new title; the update is then not run
+     */
+    public <T> T rename(Long bookId, String title, String previousNormalized, Supplier<T> update, Predicate<T> applied) {
+        String normalizedTitle = BookLibrary.normalizeTitle(title);
+        if (!bookShards.isEnabled()) {
+            try {
+                return update.get();
+            } catch (DataIntegrityViolationException ex) {
+                throw alreadyExists(title);
+            }
+        }
+        if (normalizedTitle.equals(previousNormalized)) {
+            return update.get();
+        }
+        try {
+            onTitleShard(normalizedTitle, () -> bookRepository.insertTitleClaim(normalizedTitle, bookId));
+        } catch (DataIntegrityViolationException ex) {
+            throw alreadyExists(title);
+        }
+        T result;
+        try {
+            result = update.get();
+        } catch (RuntimeException ex) {
+            release(normalizedTitle, bookId);
+            throw ex;
+        }
+        release(applied.test(result) ? previousNormalized : normalizedTitle, bookId);
+        return result;
+    }
+
+    /**
+     * Releases the claims of deleted books, on every shard.
+     * @param  bookIds  the ids of the books deleted
+     */
+    public void release(Collection<Long> bookIds) {
+        if (!bookShards.isEnabled() || bookIds.isEmpty()) {
+            return;
+        }
+        try {
+            bookRepository.deleteTitleClaimsByBookIdIn(bookIds);
+        } catch (RuntimeException ex) {
+            log.error("Error while releasing the titles of {} deleted Books, they stay taken", bookIds.size(), ex);
+        }
+    }
+
+    private void release(String normalizedTitle, Long bookId) {
+        try {
+            onTitleShard(normalizedTitle, () -> bookRepository.deleteTitleClaim(normalizedTitle, bookId));
+        } catch (RuntimeException ex) {
+            log.error("Error while releasing the title {} of Book with id {}, it stays taken", normalizedTitle, bookId, ex);
+        }
+    }
+
+    // Runs the claim statement in its own transaction on the shard of the title.
+    private void onTitleShard(String normalizedTitle, Supplier<Integer> statement) {
+        bookShards.callOnShardForTitle(normalizedTitle, () -> transactionTemplate.execute(status -> statement.get()));
+    }
+
+    private static AlreadyExistsException alreadyExists(String title) {
+        return new AlreadyExistsException("Book with this title: " + title + " already exists. Please use a different title");
+    }
+}
@@ -0,0 +1,24 @@
+package com.mobilise.BookManagementSystem.service.shard;
+
+import org.hibernate.engine.jdbc.connections.spi.AbstractDataSourceBasedMultiTenantConnectionProviderImpl;
+
+import javax.sql.DataSource;
+
+// Hands Hibernate the connections of the shard named by the tenant identifier of the session; shard 0 creates the schema.
+public class ShardConnectionProvider extends AbstractDataSourceBasedMultiTenantConnectionProviderImpl<String> {
+    private final transient BookShards bookShards;
+
+    public ShardConnectionProvider(BookShards bookShards) {
+        this.bookShards = bookShards;
+    }
+
+    @Override
+    protected DataSource selectAnyDataSource() {
+        return bookShards.getDataSource(0);
+    }
+
+    @Override
+    protected DataSource selectDataSource(String tenantIdentifier) {
+        return bookShards.getDataSource(Integer.parseInt(tenantIdentifier));
+    }
+}
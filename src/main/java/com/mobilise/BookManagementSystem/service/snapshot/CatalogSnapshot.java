@@ -0,0 +1,224 @@
+package com.mobilise.BookManagementSystem.service.snapshot;
+
+import com.mobilise.BookManagementSystem.dto.response.SnapshotResponse;
+import com.mobilise.BookManagementSystem.entity.BookLibrary;
+import com.mobilise.BookManagementSystem.exception.SnapshotException;
+import com.mobilise.BookManagementSystem.service.shard.BookShards;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.context.event.ContextClosedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.sql.PreparedStatement;
+import java.time.LocalDateTime;
+import java.time.Year;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Saves the BookLibrary table to a CatalogSnapshotFile and restores it on the next start,
+ * so that the in-memory database does not have to be reloaded book by book after a restart.
+ * The snapshot is restored once every singleton, including the schema, has been created and before the web server
+ * starts, so no request sees a partial catalog and the search index, title filter and facet histogram are built
+ * from the restored rows.
+ * Rows are read and written with plain JDBC, in id order, without creating a persistence context.
+ * On a sharded catalog every row is restored to the shard owning its id, and the shards are saved one after the other,
+ * which keeps the snapshot in id order because every shard holds a consecutive id range. The BookTitleClaim of every
+ * restored book is written to the shard of its title along the way.
+ * Snapshots are disabled unless book.snapshot.path is set.
+ */
+@Slf4j
+@Component
+public class CatalogSnapshot implements SmartInitializingSingleton {
+    // Rows sent to the database per JDBC batch while restoring
+    private static final int INSERT_BATCH_SIZE = 5000;
+    // Rows fetched from the database per round trip while saving
+    private static final int FETCH_SIZE = 5000;
+    private static final String SELECT_SQL = "SELECT id, title, author, isbn, quantity, publication_year, created_date, updated_date "
+            + "FROM book_library ORDER BY id";
+    private static final String INSERT_SQL = "INSERT INTO book_library "
+            + "(id, title, normalized_title, author, isbn, quantity, publication_year, created_date, updated_date) "
+            + "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)";
+    private static final String CLAIM_SQL = "INSERT INTO book_title_claim (normalized_title, book_id) VALUES (?, ?)";
+
+    private final BookShards bookShards;
+    // One JdbcTemplate per shard, indexed by shard
+    private final List<JdbcTemplate> jdbcTemplates = new ArrayList<>();
+    private final Path path;
+    private final boolean saveOnShutdown;
+    // Only set once the table holds a complete catalog, so a failed restore is never saved over a good snapshot
+    private volatile boolean savable;
+
+    public CatalogSnapshot(BookShards bookShards,
+                           @Value("${book.snapshot.path:}") String path,
+                           @Value("${book.snapshot.save-on-shutdown:true}") boolean saveOnShutdown) {
+        this.bookShards = bookShards;
+        for (int shard = 0; shard < bookShards.getShardCount(); shard++) {
+            jdbcTemplates.add(new JdbcTemplate(bookShards.getDataSource(shard)));
+        }
+        this.path = path.isBlank() ? null : Path.of(path);
+        this.saveOnShutdown = saveOnShutdown;
+    }
+
+    public boolean isEnabled() {
+        return path != null;
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        restore();
+    }
+
+    /**
+     * Bulk-loads the snapshot into the BookLibrary table, if a snapshot exists and the table is still empty.
+     * The book_library_seq sequence of every shard is then moved past the highest id restored to it, so new books never reuse an id.
+     * @return  the number of books restored
+     * @throws SnapshotException  if the snapshot cannot be read; the startup fails rather than serving a partial catalog
+     */
+    public long restore() {
+        if (!isEnabled()) {
+            return 0;
+        }
+        // The shards need their schema before they can be counted or restored
+        bookShards.createSchemas();
+        long existing = jdbcTemplates.stream()
+                .mapToLong(jdbcTemplate -> jdbcTemplate.queryForObject("SELECT COUNT(*) FROM book_library", Long.class))
+                .sum();
+        if (existing > 0) {
+            log.info("Catalog snapshot {} not restored: the catalog already holds {} books", path, existing);
+            savable = true;
+            return 0;
+        }
+        if (!Files.exists(path)) {
+            log.info("Catalog snapshot {} not found, starting with an empty catalog", path);
+            savable = true;
+            return 0;
+        }
+        long start = System.nanoTime();
+        int shardCount = jdbcTemplates.size();
+        List<List<Object[]>> batches = new ArrayList<>(shardCount);
+        List<List<Object[]>> claimBatches = new ArrayList<>(shardCount);
+        long[] maxIds = new long[shardCount];
+        for (int shard = 0; shard < shardCount; shard++) {
+            batches.add(new ArrayList<>(INSERT_BATCH_SIZE));
+            claimBatches.add(new ArrayList<>(INSERT_BATCH_SIZE));
+        }
+        try {
+            long restored = CatalogSnapshotFile.read(path, CatalogSnapshotFile.DEFAULT_WINDOW_SIZE, book -> {
+                int shard = bookShards.shardOf(book.getId());
+                List<Object[]> batch = batches.get(shard);
+                batch.add(new Object[]{book.getId(), book.getTitle(), book.getNormalizedTitle(), book.getAuthor(),
+                        book.getIsbn(), book.getQuantity(), book.getPublicationYear().getValue(),
+                        book.getCreatedDate(), book.getUpdatedDate()});
+                maxIds[shard] = Math.max(maxIds[shard], book.getId());
+                if (batch.size() == INSERT_BATCH_SIZE) {
+                    jdbcTemplates.get(shard).batchUpdate(INSERT_SQL, batch);
+                    batch.clear();
+                }
+                if (bookShards.isEnabled()) {
+                    int claimShard = bookShards.shardForTitle(book.getNormalizedTitle());
+                    List<Object[]> claimBatch = claimBatches.get(claimShard);
+                    claimBatch.add(new Object[]{book.getNormalizedTitle(), book.getId()});
+                    if (claimBatch.size() == INSERT_BATCH_SIZE) {
+                        jdbcTemplates.get(claimShard).batchUpdate(CLAIM_SQL, claimBatch);
+                        claimBatch.clear();
+                    }
+                }
+            });
+            for (int shard = 0; shard < shardCount; shard++) {
+                if (!batches.get(shard).isEmpty()) {
+                    jdbcTemplates.get(shard).batchUpdate(INSERT_SQL, batches.get(shard));
+                }
+                if (!claimBatches.get(shard).isEmpty()) {
+                    jdbcTemplates.get(shard).batchUpdate(CLAIM_SQL, claimBatches.get(shard));
+                }
+                if (maxIds[shard] > 0) {
+                    bookShards.restartIdSequence(shard, maxIds[shard]);
+                }
+            }
+            savable = true;
+            log.info("Catalog snapshot {} restored: {} books in {} ms", path, restored, (System.nanoTime() - start) / 1_000_000);
+            return restored;
+        } catch (IOException | RuntimeException e) {
+            log.error("Error while restoring catalog snapshot {}: {}", path, e.getMessage());
+            throw new SnapshotException("Error Occurred while restoring catalog snapshot " + path + ": " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Writes the whole BookLibrary table to the snapshot path.
+     * The snapshot is written to a temporary file that replaces the previous snapshot only once it is complete.
+     * @return  the location, book count, size and duration of the new snapshot
+     * @throws SnapshotException  if snapshots are disabled or the snapshot cannot be written
+     */
+    public synchronized SnapshotResponse save() {
+        if (!isEnabled()) {
+            throw new SnapshotException("Catalog snapshots are disabled, set book.snapshot.path to enable them", null);
+        }
+        long start = System.nanoTime();
+        Path temporary = path.resolveSibling(path.getFileName() + ".tmp");
+        try {
+            if (path.toAbsolutePath().getParent() != null) {
+                Files.createDirectories(path.toAbsolutePath().getParent());
+            }
+            long count;
+            try (CatalogSnapshotFile.Writer writer = new CatalogSnapshotFile.Writer(temporary)) {
+                for (JdbcTemplate jdbcTemplate : jdbcTemplates) {
+                    jdbcTemplate.query(connection -> {
+                        PreparedStatement statement = connection.prepareStatement(SELECT_SQL);
+                        statement.setFetchSize(FETCH_SIZE);
+                        return statement;
+                    }, row -> {
+                        BookLibrary book = new BookLibrary(row.getLong(1), row.getString(2), row.getString(3), row.getString(4),
+                                row.getObject(5, Integer.class), Year.of(row.getInt(6)));
+                        book.setCreatedDate(row.getObject(7, LocalDateTime.class));
+                        book.setUpdatedDate(row.getObject(8, LocalDateTime.class));
+                        try {
+                            writer.write(book);
+                        } catch (IOException e) {
+                            throw new UncheckedIOException(e);
+                        }
+                    });
+                }
+                count = writer.getCount();
+            }
+            Files.move(temporary, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            long durationMillis = (System.nanoTime() - start) / 1_000_000;
+            log.info("Catalog snapshot {} saved: {} books in {} ms", path, count, durationMillis);
+            return SnapshotResponse.builder()
+                    .path(path.toAbsolutePath().toString())
+                    .bookCount(count)
+                    .sizeBytes(Files.size(path))
+                    .durationMillis(durationMillis)
+                    .build();
+        } catch (IOException | RuntimeException e) {
+            log.error("Error while saving catalog snapshot {}: {}", path, e.getMessage());
+            try {
+                Files.deleteIfExists(temporary);
+            } catch (IOException ignored) {
+                // The next save truncates the temporary file anyway
+            }
+            throw new SnapshotException("Error Occurred while saving catalog snapshot " + path + ": " + e.getMessage(), e);
+        }
+    }
+
+    // Saves the catalog while the database is still open, unless the startup never got to a complete catalog.
+    @EventListener(ContextClosedEvent.class)
+    public void saveOnShutdown() {
+        if (isEnabled() && saveOnShutdown && savable) {
+            try {
+                save();
+            } catch (SnapshotException e) {
+                // Already logged; the previous snapshot is left in place
+            }
+        }
+    }
+}
@@ -0,0 +1,197 @@
+package com.mobilise.BookManagementSystem.service.snapshot;
+
+import com.mobilise.BookManagementSystem.entity.BookLibrary;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.Year;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.function.Consumer;
+
+/**
+ * Binary file format of a catalog snapshot.
+ * The file starts with a header (the MAGIC bytes, then the number of books as a long) followed by one record per book:
+ * the record length (int), id (long), a null-flags byte, title and author, isbn if present, quantity if present,
+ * publication year (int), then createdDate and updatedDate if present, each as epoch seconds (long) and nanos (int).
+ * Strings are written as an unsigned short byte length followed by their UTF-8 bytes.
+ * The normalized title is not stored: it is derived from the title when the book is restored.
+ * Files are read through memory-mapped windows, so a snapshot of any size is restored without copying it onto the heap.
+ */
+public final class CatalogSnapshotFile {
+    private static final byte[] MAGIC = "BOOKSNP1".getBytes(StandardCharsets.US_ASCII);
+    private static final int HEADER_SIZE = MAGIC.length + Long.BYTES;
+    // Records mapped at a time when reading; a record that does not fit in the rest of a window starts the next one
+    static final int DEFAULT_WINDOW_SIZE = 64 * 1024 * 1024;
+
+    private static final int NO_ISBN = 1;
+    private static final int NO_QUANTITY = 1 << 1;
+    private static final int NO_CREATED_DATE = 1 << 2;
+    private static final int NO_UPDATED_DATE = 1 << 3;
+
+    private CatalogSnapshotFile() {
+    }
+
+    /**
+     * Reads every book of a snapshot file, in the order they were written.
+     * @param  path        the snapshot file
+     * @param  windowSize  the number of bytes mapped at a time
+     * @param  consumer    receives each book; the normalized title is set, the entity is not attached to any session
+     * @return             the number of books read
+     * @throws IOException if the file cannot be read or is not a valid snapshot
+     */
+    public static long read(Path path, int windowSize, Consumer<BookLibrary> consumer) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < HEADER_SIZE) {
+                throw new IOException("Snapshot " + path + " is truncated");
+            }
+            MappedByteBuffer window = channel.map(FileChannel.MapMode.READ_ONLY, 0, Math.min(size, Math.max(windowSize, HEADER_SIZE)));
+            byte[] magic = new byte[MAGIC.length];
+            window.get(magic);
+            if (!Arrays.equals(magic, MAGIC)) {
+                throw new IOException("File " + path + " is not a catalog snapshot");
+            }
+            long expected = window.getLong();
+            long offset = 0;
+            long count = 0;
+            while (count < expected) {
+                if (window.remaining() < Integer.BYTES
+                        || window.remaining() < Integer.BYTES + window.getInt(window.position())) {
+                    // Remap from the start of the record that does not fit in the current window
+                    offset += window.position();
+                    int length = (int) Math.min(size - offset, Math.max(windowSize, recordSize(channel, offset)));
+                    if (length < Integer.BYTES) {
+                        throw new IOException("Snapshot " + path + " is truncated after " + count + " of " + expected + " books");
+                    }
+                    window = channel.map(FileChannel.MapMode.READ_ONLY, offset, length);
+                    if (window.remaining() < Integer.BYTES + window.getInt(0)) {
+                        throw new IOException("Snapshot " + path + " is truncated after " + count + " of " + expected + " books");
+                    }
+                }
+                window.getInt();
+                consumer.accept(readBook(window));
+                count++;
+            }
+            return count;
+        }
+    }
+
+    private static int recordSize(FileChannel channel, long offset) throws IOException {
+        ByteBuffer length = ByteBuffer.allocate(Integer.BYTES);
+        channel.read(length, offset);
+        return length.remaining() == 0 ? Integer.BYTES + length.getInt(0) : Integer.BYTES;
+    }
+
+    private static BookLibrary readBook(ByteBuffer buffer) {
+        long id = buffer.getLong();
+        int flags = buffer.get();
+        String title = readString(buffer);
+        String author = readString(buffer);
+        String isbn = (flags & NO_ISBN) != 0 ? null : readString(buffer);
+        Integer quantity = (flags & NO_QUANTITY) != 0 ? null : buffer.getInt();
+        BookLibrary book = new BookLibrary(id, title, author, isbn, quantity, Year.of(buffer.getInt()));
+        book.setNormalizedTitle(BookLibrary.normalizeTitle(title));
+        book.setCreatedDate((flags & NO_CREATED_DATE) != 0 ? null : readDateTime(buffer));
+        book.setUpdatedDate((flags & NO_UPDATED_DATE) != 0 ? null : readDateTime(buffer));
+        return book;
+    }
+
+    private static String readString(ByteBuffer buffer) {
+        byte[] bytes = new byte[Short.toUnsignedInt(buffer.getShort())];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static LocalDateTime readDateTime(ByteBuffer buffer) {
+        return LocalDateTime.ofEpochSecond(buffer.getLong(), buffer.getInt(), ZoneOffset.UTC);
+    }
+
+    /**
+     * Writes books to a new snapshot file. The book count in the header is only filled in by close,
+     * so callers should write to a temporary file and move it into place once the writer has been closed.
+     */
+    public static class Writer implements Closeable {
+        private final FileChannel channel;
+        private final DataOutputStream output;
+        // Each record is encoded here first, so that its length can be written in front of it
+        private final ByteArrayOutputStream record = new ByteArrayOutputStream(256);
+        private final DataOutputStream recordOutput = new DataOutputStream(record);
+        private long count;
+
+        public Writer(Path path) throws IOException {
+            channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+            OutputStream stream = Channels.newOutputStream(channel);
+            output = new DataOutputStream(new BufferedOutputStream(stream, 1 << 16));
+            output.write(MAGIC);
+            output.writeLong(-1);
+        }
+
+        public void write(BookLibrary book) throws IOException {
+            record.reset();
+            int flags = (book.getIsbn() == null ? NO_ISBN : 0)
+                    | (book.getQuantity() == null ? NO_QUANTITY : 0)
+                    | (book.getCreatedDate() == null ? NO_CREATED_DATE : 0)
+                    | (book.getUpdatedDate() == null ? NO_UPDATED_DATE : 0);
+            recordOutput.writeLong(book.getId());
+            recordOutput.writeByte(flags);
+            writeString(book.getTitle());
+            writeString(book.getAuthor());
+            if (book.getIsbn() != null) {
+                writeString(book.getIsbn());
+            }
+            if (book.getQuantity() != null) {
+                recordOutput.writeInt(book.getQuantity());
+            }
+            recordOutput.writeInt(book.getPublicationYear().getValue());
+            if (book.getCreatedDate() != null) {
+                writeDateTime(book.getCreatedDate());
+            }
+            if (book.getUpdatedDate() != null) {
+                writeDateTime(book.getUpdatedDate());
+            }
+            output.writeInt(record.size());
+            record.writeTo(output);
+            count++;
+        }
+
+        public long getCount() {
+            return count;
+        }
+
+        private void writeString(String value) throws IOException {
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            if (bytes.length > 0xFFFF) {
+                throw new IOException("Value of " + bytes.length + " bytes is too long for a snapshot");
+            }
+            recordOutput.writeShort(bytes.length);
+            recordOutput.write(bytes);
+        }
+
+        private void writeDateTime(LocalDateTime value) throws IOException {
+            recordOutput.writeLong(value.toEpochSecond(ZoneOffset.UTC));
+            recordOutput.writeInt(value.getNano());
+        }
+
+        @Override
+        public void close() throws IOException {
+            try (channel) {
+                output.flush();
+                channel.write(ByteBuffer.allocate(Long.BYTES).putLong(0, count), MAGIC.length);
+                channel.force(true);
+            }
+        }
+    }
+}
@@ -8,13 +8,13 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Component;
 
 import java.time.Year;
-import java.util.Optional;
 
 @Slf4j
 @Component
 @RequiredArgsConstructor
 public class BookInfoValidations {
     private final BookRepository bookRepository;
+    private final TitleBloomFilter titleBloomFilter;
 
 
     // This method checks if the title field is null, empty, or blank, and if so,
@@ -37,13 +37,17 @@ public class BookInfoValidations {
     }
 
 
-    // This Java code snippet checks if a book title already exists in the database
-    // by querying the bookRepository using the provided bookTitle.
-    // If a book with the same title already exists, it logs an error and throws an AlreadyExistsException.
+    // This Java code snippet checks if a book title already exists in the database.
+    // The titleBloomFilter answers the common case of a new title without a query; otherwise the bookRepository
+    // is queried on the indexed normalized title. If a book with the same title already exists,
+    // it logs an error and throws an AlreadyExistsException.
     public void isBookTitleAlreadyExists(String bookTitle) {
-        // Using repository method to find an existing book by unique book title
-        Optional<BookLibrary> existingBookTitle = bookRepository.findBookByTitleIgnoreCase(bookTitle);
-        if (existingBookTitle.isPresent()) {
+        String normalizedTitle = BookLibrary.normalizeTitle(bookTitle);
+        if (normalizedTitle == null || !titleBloomFilter.mightContain(normalizedTitle)) {
+            return;
+        }
+        // Using repository method to find an existing book by unique normalized book title
+        if (bookRepository.existsByNormalizedTitle(normalizedTitle)) {
             log.error("Book with this title: " + bookTitle + " already exists. Please use a different title");
             throw new AlreadyExistsException("Book with this title: " + bookTitle + " already exists. Please use a different title");
         }
@@ -0,0 +1,138 @@
+package com.mobilise.BookManagementSystem.validator;
+
+import com.mobilise.BookManagementSystem.repository.BookRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Stream;
+
+/**
+ * In-memory Bloom filter over the normalized titles of the library.
+ * A negative answer from mightContain is definite, so the common "title does not exist yet" case of the duplicate check
+ * is answered without touching the database. A positive answer may be a false positive and must be confirmed by a query.
+ * Titles are never removed from the filter: a deleted or renamed title only costs a confirming query until the next rebuild.
+ */
+@Slf4j
+@Component
+public class TitleBloomFilter {
+    private final BookRepository bookRepository;
+    private final long expectedInsertions;
+    private final double falsePositiveRate;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final AtomicLong insertions = new AtomicLong();
+    private AtomicLongArray bits;
+    private int bitCount;
+    private int hashCount;
+    private volatile boolean ready;
+
+    public TitleBloomFilter(BookRepository bookRepository,
+                            @Value("${book.title-filter.expected-insertions:1000000}") long expectedInsertions,
+                            @Value("${book.title-filter.false-positive-rate:0.01}") double falsePositiveRate) {
+        this.bookRepository = bookRepository;
+        this.expectedInsertions = expectedInsertions;
+        this.falsePositiveRate = falsePositiveRate;
+        allocate(expectedInsertions);
+    }
+
+    /**
+     * Rebuilds the filter from the normalized titles stored in the database once the application has started.
+     * The filter is sized for at least twice the current number of books, so that it can absorb new titles
+     * without its false positive rate degrading. Until the rebuild completes, mightContain always returns true.
+     */
+    @Transactional(readOnly = true)
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        lock.writeLock().lock();
+        try (Stream<String> titles = bookRepository.streamNormalizedTitles()) {
+            allocate(Math.max(expectedInsertions, bookRepository.count() * 2));
+            insertions.set(0);
+            titles.forEach(this::addBits);
+            ready = true;
+            log.info("Title filter rebuilt with {} titles, {} bits and {} hash functions", insertions.get(), bitCount, hashCount);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Records a normalized title that has just been written to the database.
+    public void put(String normalizedTitle) {
+        if (normalizedTitle == null) {
+            return;
+        }
+        lock.readLock().lock();
+        try {
+            addBits(normalizedTitle);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Returns false only if the normalized title is definitely not stored in the database.
+     * @param  normalizedTitle  the normalized title, see BookLibrary.normalizeTitle
+     * @return                  false if the title does not exist, true if it may exist or the filter is not built yet
+     */
+    public boolean mightContain(String normalizedTitle) {
+        if (!ready) {
+            return true;
+        }
+        lock.readLock().lock();
+        try {
+            long hash = hash(normalizedTitle);
+            int h1 = (int) hash;
+            int h2 = (int) (hash >>> 32);
+            for (int i = 1; i <= hashCount; i++) {
+                int bit = ((h1 + i * h2) & Integer.MAX_VALUE) % bitCount;
+                if ((bits.get(bit >>> 6) & (1L << bit)) == 0) {
+                    return false;
+                }
+            }
+            return true;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void addBits(String normalizedTitle) {
+        long hash = hash(normalizedTitle);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        for (int i = 1; i <= hashCount; i++) {
+            int bit = ((h1 + i * h2) & Integer.MAX_VALUE) % bitCount;
+            long mask = 1L << bit;
+            bits.getAndAccumulate(bit >>> 6, mask, (current, m) -> current | m);
+        }
+        insertions.incrementAndGet();
+    }
+
+    // Sizes the bit array and the number of hash functions for the given capacity and the configured false positive rate.
+    private void allocate(long capacity) {
+        double ln2 = Math.log(2);
+        long optimalBits = (long) Math.ceil(-capacity * Math.log(falsePositiveRate) / (ln2 * ln2));
+        bitCount = (int) Math.max(64, Math.min(optimalBits, Integer.MAX_VALUE - 63L));
+        hashCount = Math.max(1, (int) Math.round((double) bitCount / capacity * ln2));
+        bits = new AtomicLongArray((bitCount + 63) >>> 6);
+    }
+
+    // 64-bit FNV-1a over the characters, finished with a murmur3 mix so both halves are usable as independent hashes.
+    private static long hash(String value) {
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < value.length(); i++) {
+            hash ^= value.charAt(i);
+            hash *= 0x100000001b3L;
+        }
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+}
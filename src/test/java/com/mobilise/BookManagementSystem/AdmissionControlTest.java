@@ -0,0 +1,121 @@
+package com.mobilise.BookManagementSystem;
+
+import com.mobilise.BookManagementSystem.exception.OverloadedException;
+import com.mobilise.BookManagementSystem.service.admission.AdmissionControl;
+import com.mobilise.BookManagementSystem.service.admission.EndpointClass;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class AdmissionControlTest {
+    private static final long FAST = Duration.ofMillis(1).toNanos();
+    private static final long SLOW = Duration.ofSeconds(5).toNanos();
+
+    private final AdmissionControl admissionControl = new AdmissionControl(true,
+            2, Duration.ofMillis(100), 4, Duration.ofMillis(500), 10, Duration.ofSeconds(1), 0.5, Duration.ofSeconds(2));
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+    @BeforeEach
+    public void setUp() {
+        admissionControl.bindTo(registry);
+    }
+
+    // Admits a request and returns its admission time, as the AdmissionControlInterceptor records it.
+    private long acquire(EndpointClass endpointClass) {
+        admissionControl.acquire(endpointClass);
+        return System.nanoTime();
+    }
+
+    private double limit(String endpointClass) {
+        return registry.get("book.admission.limit").tag("class", endpointClass).gauge().value();
+    }
+
+    @Test
+    public void testRequestsOverTheLimitAreRejectedWithRetryAfter() {
+        admissionControl.acquire(EndpointClass.WRITE);
+        admissionControl.acquire(EndpointClass.WRITE);
+        admissionControl.acquire(EndpointClass.WRITE);
+        admissionControl.acquire(EndpointClass.WRITE);
+
+        OverloadedException ex = assertThrows(OverloadedException.class, () -> admissionControl.acquire(EndpointClass.WRITE));
+        assertEquals(2, ex.getRetryAfterSeconds());
+        assertEquals(1.0, registry.get("book.admission.rejected").tag("class", "write").functionCounter().count());
+        assertEquals(4.0, registry.get("book.admission.in.flight").tag("class", "write").gauge().value());
+
+        // A released slot admits the next request
+        admissionControl.release(EndpointClass.WRITE, System.nanoTime(), FAST, false);
+        admissionControl.acquire(EndpointClass.WRITE);
+    }
+
+    @Test
+    public void testSlowOrFailedRequestsShrinkTheLimitAndFastOnesGrowItBack() {
+        admissionControl.release(EndpointClass.SEARCH, acquire(EndpointClass.SEARCH), SLOW, false);
+        assertEquals(5.0, limit("search"));
+        admissionControl.release(EndpointClass.SEARCH, acquire(EndpointClass.SEARCH), FAST, true);
+        assertEquals(2.0, limit("search"));
+
+        // Fast requests only raise the limit while at least half of it is in use
+        long first = acquire(EndpointClass.SEARCH);
+        long second = acquire(EndpointClass.SEARCH);
+        admissionControl.release(EndpointClass.SEARCH, first, FAST, false);
+        assertEquals(3.0, limit("search"));
+        admissionControl.release(EndpointClass.SEARCH, second, FAST, false);
+        assertEquals(3.0, limit("search"));
+    }
+
+    @Test
+    public void testSearchesAreShedBeforePointReads() {
+        admissionControl.acquire(EndpointClass.POINT_READ);
+        admissionControl.acquire(EndpointClass.POINT_READ);
+
+        // Point reads have taken all of their slots, so searches and writes make room for them
+        assertThrows(OverloadedException.class, () -> admissionControl.acquire(EndpointClass.SEARCH));
+        assertThrows(OverloadedException.class, () -> admissionControl.acquire(EndpointClass.WRITE));
+
+        admissionControl.release(EndpointClass.POINT_READ, System.nanoTime(), FAST, false);
+        admissionControl.acquire(EndpointClass.SEARCH);
+        assertEquals(1.0, registry.get("book.admission.rejected").tag("class", "search").functionCounter().count());
+    }
+
+    @Test
+    public void testABurstOfSlowRequestsShrinksTheLimitOnlyOnce() throws Exception {
+        // Ten searches are admitted together, then all finish slow at once, as after one long pause
+        long[] admittedAt = new long[10];
+        for (int i = 0; i < admittedAt.length; i++) {
+            admittedAt[i] = acquire(EndpointClass.SEARCH);
+        }
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(admittedAt.length);
+        try {
+            List<Future<?>> releases = new ArrayList<>();
+            for (long admitted : admittedAt) {
+                releases.add(executor.submit(() -> {
+                    start.await();
+                    admissionControl.release(EndpointClass.SEARCH, admitted, SLOW, false);
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> release : releases) {
+                release.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+        assertEquals(5.0, limit("search"));
+
+        // A request admitted after that decrease starts a new window and may decrease it again
+        admissionControl.release(EndpointClass.SEARCH, acquire(EndpointClass.SEARCH), SLOW, false);
+        assertEquals(2.0, limit("search"));
+    }
+}
@@ -0,0 +1,72 @@
+package com.mobilise.BookManagementSystem;
+
+import com.mobilise.BookManagementSystem.dto.request.BookRequest;
+import com.mobilise.BookManagementSystem.dto.response.BookChangeResponse;
+import com.mobilise.BookManagementSystem.dto.response.BookChangesResponse;
+import com.mobilise.BookManagementSystem.dto.response.BookResponse;
+import com.mobilise.BookManagementSystem.exception.ChangesExpiredException;
+import com.mobilise.BookManagementSystem.exception.ValidTitleException;
+import com.mobilise.BookManagementSystem.service.BookServices;
+import com.mobilise.BookManagementSystem.service.changes.ChangeCursor;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.time.LocalDateTime;
+import java.time.Year;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = "book.changes.settle-time=0s")
+public class BookChangesTest {
+    @Autowired
+    private BookServices bookServices;
+
+    // Walks the changes made so far and returns the cursor after the last one.
+    private String currentCursor() throws InterruptedException {
+        BookChangesResponse changes;
+        String cursor = null;
+        do {
+            changes = bookServices.getChangesSince(cursor, 5000);
+            cursor = changes.getNextCursor();
+        } while (changes.isHasMore());
+        Thread.sleep(2); // Later changes get a later updatedDate than the cursor
+        return cursor;
+    }
+
+    @Test
+    public void testChangesSinceReturnLatestStateAndDeletionsInOrder() throws InterruptedException, ValidTitleException {
+        String cursor = currentCursor();
+        BookResponse kept = bookServices.addNewBook(new BookRequest("Changes Kept Book", "Change Author", "1", 3, Year.of(2010)));
+        BookResponse removed = bookServices.addNewBook(new BookRequest("Changes Removed Book", "Change Author", "2", 1, Year.of(2011)));
+        bookServices.patchBook(kept.getId(), new BookRequest("Changes Renamed Book", null, null, null, null));
+        bookServices.deleteBookById(removed.getId());
+
+        BookChangesResponse changes = bookServices.getChangesSince(cursor, 500);
+        List<BookChangeResponse> all = changes.getChanges();
+        assertFalse(changes.isHasMore());
+        assertEquals(2, all.size());
+        assertEquals(BookChangeResponse.ChangeType.UPDATED, all.get(0).getType());
+        assertEquals("Changes Renamed Book", all.get(0).getBook().getTitle());
+        assertEquals(BookChangeResponse.ChangeType.DELETED, all.get(1).getType());
+        assertEquals(removed.getId(), all.get(1).getBookId());
+
+        // A small limit pages through the same changes
+        BookChangesResponse first = bookServices.getChangesSince(cursor, 1);
+        assertTrue(first.isHasMore());
+        assertEquals(kept.getId(), first.getChanges().get(0).getBookId());
+        BookChangesResponse second = bookServices.getChangesSince(first.getNextCursor(), 1);
+        assertEquals(removed.getId(), second.getChanges().get(0).getBookId());
+
+        // Nothing changed after the returned cursor
+        assertEquals(0, bookServices.getChangesSince(changes.getNextCursor(), 500).getChangeCount());
+        bookServices.deleteBookById(kept.getId());
+    }
+
+    @Test
+    public void testCursorOlderThanTheTombstonesIsRejected() {
+        String expired = new ChangeCursor(LocalDateTime.of(2001, 1, 1, 0, 0), 1L).encode();
+        assertThrows(ChangesExpiredException.class, () -> bookServices.getChangesSince(expired, 500));
+    }
+}
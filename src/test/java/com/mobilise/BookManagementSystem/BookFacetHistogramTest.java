@@ -0,0 +1,49 @@
+package com.mobilise.BookManagementSystem;
+
+import com.mobilise.BookManagementSystem.dto.response.FacetResponse;
+import com.mobilise.BookManagementSystem.entity.BookLibrary;
+import com.mobilise.BookManagementSystem.repository.BookRepository;
+import com.mobilise.BookManagementSystem.service.facet.BookFacetHistogram;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Year;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.mock;
+
+public class BookFacetHistogramTest {
+    private BookFacetHistogram bookFacetHistogram;
+
+    @BeforeEach
+    public void setUp() {
+        bookFacetHistogram = new BookFacetHistogram(mock(BookRepository.class));
+        bookFacetHistogram.index(new BookLibrary(1L, "Mobilise HERO Nigeria", "J.J Bennett", "ISBN12345", 10, Year.of(2012)));
+        bookFacetHistogram.index(new BookLibrary(2L, "Mobilise eSIM Nigeria", "Ada Obi", null, 10, Year.of(2020)));
+        bookFacetHistogram.index(new BookLibrary(3L, "Spring in Action", "Ada Obi", "ISBN999", 3, Year.of(2020)));
+    }
+
+    @Test
+    public void testSnapshotCountsBooksPerYearAndAuthor() {
+        FacetResponse facets = bookFacetHistogram.snapshot(10);
+
+        assertEquals(3, facets.getTotalBooks());
+        assertEquals(Map.of(Year.of(2012), 1L, Year.of(2020), 2L), facets.getPublicationYears());
+        assertEquals(List.of("Ada Obi", "J.J Bennett"), List.copyOf(facets.getAuthors().keySet())); // Most frequent author first
+        assertEquals(List.of("Ada Obi"), List.copyOf(bookFacetHistogram.snapshot(1).getAuthors().keySet()));
+    }
+
+    @Test
+    public void testUpdateAndRemoveMoveTheCounts() {
+        bookFacetHistogram.index(new BookLibrary(2L, "Mobilise eSIM Nigeria", "Ada Obi", null, 10, Year.of(2012)));
+        bookFacetHistogram.remove(3L);
+        bookFacetHistogram.remove(4L); // Unknown ids are ignored
+
+        FacetResponse facets = bookFacetHistogram.snapshot(10);
+        assertEquals(2, facets.getTotalBooks());
+        assertEquals(Map.of(Year.of(2012), 2L), facets.getPublicationYears()); // Empty year buckets are dropped
+        assertEquals(Map.of("J.J Bennett", 1L, "Ada Obi", 1L), facets.getAuthors());
+    }
+}
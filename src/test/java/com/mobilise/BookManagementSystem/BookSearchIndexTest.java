@@ -0,0 +1,47 @@
+package com.mobilise.BookManagementSystem;
+
+import com.mobilise.BookManagementSystem.entity.BookLibrary;
+import com.mobilise.BookManagementSystem.repository.BookRepository;
+import com.mobilise.BookManagementSystem.service.search.BookSearchIndex;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Year;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.mock;
+
+public class BookSearchIndexTest {
+    private BookSearchIndex bookSearchIndex;
+
+    @BeforeEach
+    public void setUp() {
+        bookSearchIndex = new BookSearchIndex(mock(BookRepository.class));
+        bookSearchIndex.index(new BookLibrary(1L, "Mobilise HERO Nigeria", "J.J Bennett", "ISBN12345", 10, Year.of(2012)));
+        bookSearchIndex.index(new BookLibrary(2L, "Mobilise eSIM Nigeria", "Ada Obi", null, 10, Year.of(2020)));
+        bookSearchIndex.index(new BookLibrary(3L, "Spring in Action", "Craig Walls", "ISBN999", 3, Year.of(2022)));
+    }
+
+    @Test
+    public void testSearchMatchesTitleAuthorOrIsbnIgnoringCase() {
+        assertEquals(List.of(1L, 2L), bookSearchIndex.search("nigeria")); // Title match on two books
+        assertEquals(List.of(3L), bookSearchIndex.search("WALLS")); // Author match ignoring case
+        assertEquals(List.of(1L, 3L), bookSearchIndex.search("isbn")); // Isbn match, null isbn never matches
+        assertEquals(List.of(), bookSearchIndex.search("hero action")); // Trigrams from different books are not a match
+    }
+
+    @Test
+    public void testSearchWithShortTextScansDocuments() {
+        assertEquals(List.of(1L, 2L), bookSearchIndex.search("ni"));
+    }
+
+    @Test
+    public void testUpdateAndRemoveAreReflectedInSearch() {
+        bookSearchIndex.index(new BookLibrary(1L, "Mobilise Heroes Ghana", "J.J Bennett", "ISBN12345", 10, Year.of(2012)));
+        bookSearchIndex.remove(2L);
+
+        assertEquals(List.of(), bookSearchIndex.search("nigeria")); // Old title of book 1 and removed book 2 are gone
+        assertEquals(List.of(1L), bookSearchIndex.search("ghana"));
+    }
+}
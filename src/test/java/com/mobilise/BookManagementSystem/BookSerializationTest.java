@@ -0,0 +1,61 @@
+package com.mobilise.BookManagementSystem;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.mobilise.BookManagementSystem.config.SerializationConfig;
+import com.mobilise.BookManagementSystem.dto.response.ApiResponse;
+import com.mobilise.BookManagementSystem.dto.response.BookResponse;
+import com.mobilise.BookManagementSystem.dto.response.PaginatedBookResponse;
+import com.mobilise.BookManagementSystem.util.ApiResponseUtils;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.time.Year;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class BookSerializationTest {
+    private final ObjectMapper beanMapper = mapper().build();
+    private final ObjectMapper jsonMapper = mapper().modulesToInstall(new SerializationConfig().bookSerializationModule()).build();
+    private final ObjectMapper cborMapper = mapper().modulesToInstall(new SerializationConfig().bookSerializationModule())
+            .factory(new CBORFactory()).build();
+
+    @Test
+    public void testSerializersMatchTheBeanSerializer() throws Exception {
+        ApiResponse single = ApiResponseUtils.buildSuccessResponse(
+                new BookResponse(1L, "Mobilise HERO Nigeria", "J.J Bennett", null, null, Year.of(2012)), HttpStatus.OK);
+        ApiResponse page = ApiResponseUtils.buildSuccessResponse(PaginatedBookResponse.builder()
+                .contents(List.of(new BookResponse(1L, "Mobilise HERO Nigeria", "J.J Bennett", "ISBN12345", 10, Year.of(2012)),
+                        new BookResponse(2L, "Spring in Action", "Craig Walls", null, 3, null)))
+                .pageElementCount(2)
+                .pageSize(2)
+                .nextCursor("abc")
+                .build(), HttpStatus.OK);
+
+        assertEquals(beanMapper.writeValueAsString(single), jsonMapper.writeValueAsString(single));
+        assertEquals(beanMapper.writeValueAsString(page), jsonMapper.writeValueAsString(page));
+    }
+
+    @Test
+    public void testCborCarriesTheSameDocumentAsJson() throws Exception {
+        PaginatedBookResponse page = PaginatedBookResponse.builder()
+                .contents(List.of(new BookResponse(1L, "Mobilise HERO Nigeria", "J.J Bennett", "ISBN12345", 10, Year.of(2012))))
+                .pageElementCount(1)
+                .pageSize(10)
+                .build();
+
+        byte[] cbor = cborMapper.writeValueAsBytes(page);
+        JsonNode decoded = cborMapper.readTree(cbor);
+
+        assertEquals(beanMapper.readTree(beanMapper.writeValueAsString(page)), decoded);
+    }
+
+    // Same Jackson defaults as the application context
+    private static Jackson2ObjectMapperBuilder mapper() {
+        return Jackson2ObjectMapperBuilder.json().featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+    }
+}
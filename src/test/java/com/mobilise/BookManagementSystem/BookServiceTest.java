@@ -1,31 +1,76 @@
 package com.mobilise.BookManagementSystem;
 
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.mobilise.BookManagementSystem.dto.request.BookRequest;
 import com.mobilise.BookManagementSystem.dto.response.ApiResponse;
+import com.mobilise.BookManagementSystem.dto.response.BatchBookResponse;
+import com.mobilise.BookManagementSystem.dto.response.BookChangeResponse;
 import com.mobilise.BookManagementSystem.dto.response.BookResponse;
+import com.mobilise.BookManagementSystem.dto.response.BulkDeleteResponse;
+import com.mobilise.BookManagementSystem.dto.response.MultiGetBookItemResponse;
+import com.mobilise.BookManagementSystem.dto.response.MultiGetBookResponse;
 import com.mobilise.BookManagementSystem.dto.response.PaginatedBookResponse;
+import com.mobilise.BookManagementSystem.dto.response.StockResponse;
 import com.mobilise.BookManagementSystem.entity.BookLibrary;
+import com.mobilise.BookManagementSystem.exception.ConcurrentUpdateException;
+import com.mobilise.BookManagementSystem.exception.DeleteCriteriaRequiredException;
+import com.mobilise.BookManagementSystem.exception.FacetsNotReadyException;
+import com.mobilise.BookManagementSystem.exception.InvalidQuantityException;
 import com.mobilise.BookManagementSystem.exception.NotFoundException;
+import com.mobilise.BookManagementSystem.exception.TooManyIdsException;
 import com.mobilise.BookManagementSystem.exception.ValidTitleException;
 import com.mobilise.BookManagementSystem.repository.BookRepository;
 import com.mobilise.BookManagementSystem.service.impl.BookServiceImpl;
+import com.mobilise.BookManagementSystem.service.cache.BookResponseCache;
+import com.mobilise.BookManagementSystem.service.cache.CatalogVersion;
+import com.mobilise.BookManagementSystem.service.cache.SearchResultCache;
+import com.mobilise.BookManagementSystem.service.cache.VersionedBookResponse;
+import com.mobilise.BookManagementSystem.service.changes.BookChangeFeed;
+import com.mobilise.BookManagementSystem.service.changes.BookChangeLog;
+import com.mobilise.BookManagementSystem.service.facet.BookFacetHistogram;
+import com.mobilise.BookManagementSystem.service.inventory.StockUpdate;
+import com.mobilise.BookManagementSystem.service.inventory.StockUpdateCombiner;
 import com.mobilise.BookManagementSystem.service.mapper.BookMapper;
+import com.mobilise.BookManagementSystem.service.pagination.BookCursor;
+import com.mobilise.BookManagementSystem.service.pagination.BookSortKey;
+import com.mobilise.BookManagementSystem.service.replica.ReplicaRouting;
+import com.mobilise.BookManagementSystem.service.search.BookSearchIndex;
+import com.mobilise.BookManagementSystem.service.search.SearchCoalescer;
+import com.mobilise.BookManagementSystem.service.shard.BookShards;
+import com.mobilise.BookManagementSystem.service.shard.BookTitleClaims;
+import com.mobilise.BookManagementSystem.service.snapshot.CatalogSnapshot;
 import com.mobilise.BookManagementSystem.validator.BookInfoValidations;
+import com.mobilise.BookManagementSystem.validator.TitleBloomFilter;
+import jakarta.persistence.EntityManager;
 import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
-import org.mockito.Mockito;
-import org.modelmapper.ModelMapper;
+import org.mockito.Spy;
 import org.springframework.boot.test.context.SpringBootTest;
-import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.SliceImpl;
 import org.springframework.http.HttpStatus;
-
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDateTime;
 import java.time.Year;
 import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
-import java.util.stream.Stream;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+import java.util.stream.LongStream;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.BDDMockito.given;
@@ -42,7 +87,44 @@ public class BookServiceTest {
     @Mock
     private BookMapper bookMapper;
     @Mock
-    private ModelMapper modelMapper;
+    private BookSearchIndex bookSearchIndex;
+    @Mock
+    private EntityManager entityManager;
+    @Mock
+    private TransactionTemplate transactionTemplate;
+    // A real mapper, so the export writes actual JSON
+    @Spy
+    private ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+    @Mock
+    private TitleBloomFilter titleBloomFilter;
+    @Spy
+    private BookResponseCache bookResponseCache = new BookResponseCache(100, Duration.ofMinutes(10));
+    @Spy
+    private CatalogVersion catalogVersion = new CatalogVersion();
+    @Mock
+    private StockUpdateCombiner stockUpdateCombiner;
+    @Mock
+    private BookFacetHistogram bookFacetHistogram;
+    @Mock
+    private CatalogSnapshot catalogSnapshot;
+    // Routing disabled, as without a replica, so getCatalogVersion reports the current catalog version
+    @Spy
+    private ReplicaRouting replicaRouting = new ReplicaRouting(catalogVersion, false, Duration.ofSeconds(2));
+    @Mock
+    private BookChangeLog bookChangeLog;
+    @Mock
+    private BookChangeFeed bookChangeFeed;
+    // Runs every search itself, in a transaction of a mocked manager
+    @Spy
+    private SearchCoalescer searchCoalescer = new SearchCoalescer(mock(PlatformTransactionManager.class));
+    @Spy
+    private SearchResultCache searchResultCache = new SearchResultCache(1000, Duration.ofMinutes(1));
+    // A single shard, so every call runs on the mocked repository as it is
+    @Spy
+    private BookShards bookShards = new BookShards(mock(DataSource.class), 1, 1099511627776L, "", "sa", "", 10, false);
+    // Without sharding the claims run every write as it is
+    @Spy
+    private BookTitleClaims bookTitleClaims = new BookTitleClaims(bookShards, mock(BookRepository.class), mock(TransactionTemplate.class));
 
     @Test
     public void testAddNewBook() throws ValidTitleException {
@@ -80,24 +162,56 @@ public class BookServiceTest {
         assertEquals(Year.of(2022), response.getPublicationYear()); // Assert that the publication year of the response is 2022
     }
 
+    @Test
+    public void testAddNewBooks() {
+        // Set up test data: a valid book, a title repeated in the batch and a title that already exists
+        BookRequest first = new BookRequest("First Title", "Sample Author", "1", 5, Year.of(2022));
+        BookRequest repeated = new BookRequest("first title", "Sample Author", "2", 5, Year.of(2022));
+        BookRequest existing = new BookRequest("Existing Title", "Sample Author", "3", 5, Year.of(2022));
+        BookLibrary bookLibrary = new BookLibrary(1L, "First Title", "Sample Author", "1", 5, Year.of(2022));
+
+        // Mock behavior
+        given(titleBloomFilter.mightContain(anyString())).willReturn(true);
+        given(bookRepository.findExistingTitles(List.of("first title", "existing title"))).willReturn(List.of("existing title"));
+        given(bookMapper.mapBookRequestToBookLibrary(first)).willReturn(bookLibrary);
+        given(bookMapper.mapBookLibraryToBookResponse(bookLibrary)).willReturn(new BookResponse(1L, "First Title", "Sample Author", "1", 5, Year.of(2022)));
+        doAnswer(invocation -> {
+            invocation.<Consumer<Object>>getArgument(0).accept(null); // Run the chunk callback as the transaction would
+            return null;
+        }).when(transactionTemplate).executeWithoutResult(any());
+
+        // Call the method
+        BatchBookResponse response = bookServiceImpl.addNewBooks(List.of(first, repeated, existing));
+
+        // Verify that only the valid book is saved, in one batch
+        verify(bookRepository).saveAll(List.of(bookLibrary));
+        verify(bookInfoValidations, never()).isBookTitleAlreadyExists(anyString());
+
+        // Assertions for the response
+        assertEquals(3, response.getRequestedCount());
+        assertEquals(1, response.getCreatedCount());
+        assertEquals(2, response.getFailedCount());
+        assertTrue(response.getItems().get(0).isCreated());
+        assertFalse(response.getItems().get(1).isCreated()); // Repeated in the batch
+        assertFalse(response.getItems().get(2).isCreated()); // Already exists in the database
+    }
+
     @Test
     public void testGetAllBooksWithPagination() {
         // Set up test data
         int pageNo = 1;
         int pageSize = 10;
-        Page<BookLibrary> mockPage = Mockito.mock(Page.class);
+        Slice<BookResponse> emptySlice = new SliceImpl<>(Collections.emptyList(), PageRequest.of(pageNo, pageSize), false);
 
         // Mock behavior
-        given(bookRepository.findAll(PageRequest.of(pageNo, pageSize))).willReturn(mockPage);
-        given(mockPage.getNumberOfElements()).willReturn(0); // Set the number of elements in the mock page to 0
-        given(mockPage.getSize()).willReturn(pageSize); // Set the page size of the mock page
-        given(mockPage.stream()).willReturn(Stream.empty()); // Mock stream to return an empty stream
+        given(bookRepository.findAllBookResponses(PageRequest.of(pageNo, pageSize))).willReturn(emptySlice);
 
         // Call the method
         PaginatedBookResponse response = bookServiceImpl.getAllBooksWithPagination(pageNo, pageSize);
 
         // Verify interactions
-        verify(bookRepository).findAll(PageRequest.of(pageNo, pageSize)); // Verify that findAll is called with the correct Pageable object
+        verify(bookRepository).findAllBookResponses(PageRequest.of(pageNo, pageSize)); // Verify that the projection query is called with the correct Pageable object
+        verify(bookRepository, never()).count(); // Verify that no COUNT query is issued
 
         // Assertions for the response
         assertNotNull(response); // Assert that the response is not null
@@ -106,6 +220,65 @@ public class BookServiceTest {
     }
 
 
+    @Test
+    public void testGetAllBooksWithCursor() {
+        // Set up test data
+        int pageSize = 1;
+        BookResponse bookResponse = new BookResponse(5L, "Sample Title", "Sample Author", "123456789", 5, Year.of(2022));
+        String cursor = BookCursor.after(new BookResponse(4L, "Previous", "Author", null, 1, Year.of(2021)), BookSortKey.ID).encode();
+
+        // Mock behavior for a slice that has a following slice
+        given(bookRepository.findNextById(4L, PageRequest.of(0, pageSize)))
+                .willReturn(new SliceImpl<>(List.of(bookResponse), PageRequest.of(0, pageSize), true));
+
+        // Call the method
+        PaginatedBookResponse response = bookServiceImpl.getAllBooksWithCursor(cursor, pageSize, "id");
+
+        // Verify that the seek query is used and no count query is issued
+        verify(bookRepository).findNextById(4L, PageRequest.of(0, pageSize));
+        verify(bookRepository, never()).count();
+
+        // Assertions for the response
+        assertEquals(1, response.getContents().size());
+        assertEquals(5L, BookCursor.decode(response.getNextCursor()).getLastId()); // Next cursor points after the last book
+    }
+
+    @Test
+    public void testExportCatalog() throws IOException {
+        // Set up test data
+        List<BookLibrary> books = List.of(
+                new BookLibrary(1L, "First Title", "First Author", "111111111", 5, Year.of(2020)),
+                new BookLibrary(2L, "Second Title", "Second Author", "222222222", 3, Year.of(2021)),
+                new BookLibrary(3L, "Third Title", "Third Author", "333333333", 0, Year.of(2022)));
+        AtomicBoolean streamClosed = new AtomicBoolean();
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+
+        // Mock behavior
+        given(bookRepository.streamAllBooks()).willReturn(books.stream().onClose(() -> streamClosed.set(true)));
+        given(bookMapper.mapBookLibraryToBookResponse(any(BookLibrary.class))).willAnswer(invocation -> {
+            BookLibrary book = invocation.getArgument(0);
+            return new BookResponse(book.getId(), book.getTitle(), book.getAuthor(), book.getIsbn(), book.getQuantity(), book.getPublicationYear());
+        });
+
+        // Call the method
+        bookServiceImpl.exportCatalog(outputStream);
+
+        // Verify that every book is written as one JSON object per line, in id order, and then detached
+        String export = outputStream.toString(StandardCharsets.UTF_8);
+        assertTrue(export.endsWith("\n"));
+        String[] lines = export.split("\n");
+        assertEquals(3, lines.length);
+        for (int i = 0; i < lines.length; i++) {
+            JsonNode line = objectMapper.readTree(lines[i]);
+            assertTrue(line.isObject());
+            assertEquals(books.get(i).getId(), line.get("id").asLong());
+            assertEquals(books.get(i).getTitle(), line.get("title").asText());
+            verify(entityManager).detach(books.get(i));
+        }
+        // The stream holds a connection and a cursor, so it must be closed once written
+        assertTrue(streamClosed.get());
+    }
+
     @Test
     public void testGetBookById() {
         // Set up test data
@@ -133,6 +306,122 @@ public class BookServiceTest {
         assertEquals(Year.of(2022), response.getPublicationYear());
     }
 
+    @Test
+    public void testGetBookById_IsCachedUntilUpdated() throws ValidTitleException {
+        // Set up test data
+        Long bookId = 1L;
+        BookLibrary bookLibrary = new BookLibrary(1L, "Sample Title", "Sample Author", "123456789", 5, Year.of(2022));
+
+        // Mock behavior
+        given(bookRepository.findById(bookId)).willReturn(Optional.of(bookLibrary));
+        given(bookMapper.mapBookLibraryToBookResponse(bookLibrary)).willReturn(new BookResponse(1L, "Sample Title", "Sample Author", "123456789", 5, Year.of(2022)));
+        given(transactionTemplate.execute(any())).willAnswer(invocation ->
+                invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+
+        // Call the method twice, then update the book and call it again
+        bookServiceImpl.getBookById(bookId);
+        bookServiceImpl.getBookById(bookId);
+        bookServiceImpl.updateBook(bookId, new BookRequest(null, null, null, 7, null));
+        bookServiceImpl.getBookById(bookId);
+
+        // Verify that the repeated read is served from the cache and the update invalidates it
+        verify(bookResponseCache).invalidate(bookId);
+        verify(bookRepository, times(4)).findById(bookId); // First read, both reads of the update and read after the update
+        verify(bookRepository, never()).save(any()); // The update is written by dirty checking of the managed book
+        assertEquals(1, bookResponseCache.stats().getHitCount());
+        assertEquals(2, bookResponseCache.stats().getMissCount());
+    }
+
+    @Test
+    public void testGetBooksByIds_ReturnsRequestOrderAndMarksMissingIds() {
+        // Set up test data
+        BookLibrary first = new BookLibrary(1L, "First Title", "Sample Author", "1", 5, Year.of(2022));
+        BookLibrary second = new BookLibrary(2L, "Second Title", "Sample Author", "2", 3, Year.of(2021));
+
+        // Mock behavior: book 1 is already cached, books 2 and 3 are loaded with one IN query in request order, and book 3 does not exist
+        given(bookRepository.findById(1L)).willReturn(Optional.of(first));
+        given(bookRepository.findAllByIdIn(List.of(3L, 2L))).willReturn(List.of(second));
+        given(bookMapper.mapBookLibraryToBookResponse(first)).willReturn(new BookResponse(1L, "First Title", "Sample Author", "1", 5, Year.of(2022)));
+        given(bookMapper.mapBookLibraryToBookResponse(second)).willReturn(new BookResponse(2L, "Second Title", "Sample Author", "2", 3, Year.of(2021)));
+        bookServiceImpl.getBookById(1L);
+
+        // Call the method
+        MultiGetBookResponse response = bookServiceImpl.getBooksByIds(List.of(3L, 2L, 1L, 2L));
+
+        // Verify that only the misses are loaded, in a single query
+        verify(bookRepository).findAllByIdIn(List.of(3L, 2L));
+        assertEquals(4, response.getRequestedCount());
+        assertEquals(3, response.getFoundCount());
+        assertEquals(1, response.getMissingCount());
+        assertEquals(List.of(3L, 2L, 1L, 2L), response.getItems().stream().map(MultiGetBookItemResponse::getId).toList());
+        assertFalse(response.getItems().get(0).isFound());
+        assertNull(response.getItems().get(0).getBook());
+        assertEquals("Second Title", response.getItems().get(1).getBook().getTitle());
+        assertEquals("First Title", response.getItems().get(2).getBook().getTitle());
+
+        // The loaded book is now cached, the missing one is not
+        bookServiceImpl.getBooksByIds(List.of(2L, 3L));
+        verify(bookRepository).findAllByIdIn(List.of(3L));
+    }
+
+    @Test
+    public void testGetBooksByIds_DoesNotCacheBooksLoadedDuringAWrite() {
+        // Set up test data
+        BookLibrary book = new BookLibrary(1L, "First Title", "Sample Author", "1", 5, Year.of(2022));
+
+        // Mock behavior: a write to the catalog commits while the books are being loaded
+        given(bookRepository.findAllByIdIn(List.of(1L))).willAnswer(invocation -> {
+            catalogVersion.increment();
+            return List.of(book);
+        });
+        given(bookMapper.mapBookLibraryToBookResponse(book)).willReturn(new BookResponse(1L, "First Title", "Sample Author", "1", 5, Year.of(2022)));
+
+        // Call the method twice
+        assertEquals(1, bookServiceImpl.getBooksByIds(List.of(1L)).getFoundCount());
+        assertEquals(1, bookServiceImpl.getBooksByIds(List.of(1L)).getFoundCount());
+
+        // Verify that the possibly stale book is returned but never cached
+        verify(bookRepository, times(2)).findAllByIdIn(List.of(1L));
+        assertNull(bookResponseCache.peek(1L));
+    }
+
+    @Test
+    public void testGetBooksByIds_TooManyIds() {
+        List<Long> ids = LongStream.rangeClosed(1, 501).boxed().toList();
+
+        assertThrows(TooManyIdsException.class, () -> bookServiceImpl.getBooksByIds(ids));
+        verifyNoInteractions(bookRepository);
+    }
+
+    @Test
+    public void testGetVersionedBookById() throws ValidTitleException {
+        // Set up test data
+        Long bookId = 1L;
+        LocalDateTime updatedDate = LocalDateTime.of(2024, 5, 1, 10, 30);
+        BookLibrary bookLibrary = new BookLibrary(1L, "Sample Title", "Sample Author", "123456789", 5, Year.of(2022));
+        bookLibrary.setUpdatedDate(updatedDate);
+        BookResponse bookResponse = new BookResponse(1L, "Sample Title", "Sample Author", "123456789", 5, Year.of(2022));
+
+        // Mock behavior
+        given(bookRepository.findById(bookId)).willReturn(Optional.of(bookLibrary));
+        given(bookMapper.mapBookLibraryToBookResponse(bookLibrary)).willReturn(bookResponse);
+        given(transactionTemplate.execute(any())).willAnswer(invocation ->
+                invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+
+        // Call the method before and after the book is cached, then update the book
+        VersionedBookResponse loaded = bookServiceImpl.getVersionedBookById(bookId);
+        VersionedBookResponse cached = bookServiceImpl.getVersionedBookById(bookId);
+        long versionBeforeUpdate = bookServiceImpl.getCatalogVersion();
+        bookServiceImpl.updateBook(bookId, new BookRequest(null, null, null, 7, null));
+
+        // Verify that the date and the body come from the one cached entry and that the update moves the catalog version
+        assertEquals(updatedDate, loaded.getUpdatedDate());
+        assertEquals(bookResponse, loaded.getResponse());
+        assertSame(loaded, cached);
+        verify(bookRepository, times(3)).findById(bookId);
+        assertTrue(bookServiceImpl.getCatalogVersion() > versionBeforeUpdate);
+    }
+
     @Test
     public void testGetBookById_WhenBookNotFound() {
         // Set up test data
@@ -142,10 +431,14 @@ public class BookServiceTest {
         given(bookRepository.findById(bookId)).willReturn(Optional.empty());
 
         // Call the method and expect an exception
-        assertThrows(NotFoundException.class, () -> bookServiceImpl.getBookById(bookId));
+        NotFoundException exception = assertThrows(NotFoundException.class, () -> bookServiceImpl.getBookById(bookId));
 
         // Verify interactions
         verify(bookRepository).findById(bookId);
+
+        // The miss is thrown once, with its final message and without a stack trace
+        assertEquals("Error Occurred while retrieving Book: Book with id 1 does not exist", exception.getMessage());
+        assertEquals(0, exception.getStackTrace().length);
     }
 
 
@@ -153,19 +446,18 @@ public class BookServiceTest {
     public void testSearchBookByTitleOrAuthorOrIsbn() {
         // Set up test data
         String searchText = "Sample";
-        BookLibrary bookLibrary = new BookLibrary(1L, "Sample Title", "Sample Author", "123456789", 5, Year.of(2022));
-        List<BookLibrary> bookList = Collections.singletonList(bookLibrary);
+        BookResponse bookResponse = new BookResponse(1L, "Sample Title", "Sample Author", "123456789", 5, Year.of(2022));
+        List<BookResponse> bookList = Collections.singletonList(bookResponse);
 
         // Mock behavior
         given(bookRepository.searchByTitleOrAuthorOrIsbn(searchText, searchText, searchText)).willReturn(bookList);
-        given(modelMapper.map(bookLibrary, BookResponse.class)).willReturn(new BookResponse(1L, "Sample Title", "Sample Author", "123456789", 5, Year.of(2022)));
 
         // Call the method
         List<BookResponse> responses = bookServiceImpl.searchBookByTitleOrAuthorOrIsbn(searchText);
 
         // Verify interactions
         verify(bookRepository).searchByTitleOrAuthorOrIsbn(searchText, searchText, searchText);
-        verify(modelMapper).map(bookLibrary, BookResponse.class);
+        verifyNoInteractions(bookMapper); // Rows are projected straight into BookResponse objects
 
         // Assertions for the response
         assertNotNull(responses); // Assert that the response list is not null
@@ -179,23 +471,45 @@ public class BookServiceTest {
         assertEquals(Year.of(2022), response.getPublicationYear()); // Assert the publication year of the response
     }
 
+    @Test
+    public void testSearchBookByTitleOrAuthorOrIsbn_UsesSearchIndex() {
+        // Set up test data
+        String searchText = "Sample";
+        BookResponse bookResponse = new BookResponse(1L, "Sample Title", "Sample Author", "123456789", 5, Year.of(2022));
+
+        // Mock behavior for a built search index
+        given(bookSearchIndex.isReady()).willReturn(true);
+        given(bookSearchIndex.search(searchText)).willReturn(List.of(1L));
+        given(bookRepository.findBookResponsesByIdIn(List.of(1L))).willReturn(List.of(bookResponse));
+
+        // Call the method
+        List<BookResponse> responses = bookServiceImpl.searchBookByTitleOrAuthorOrIsbn(searchText);
+
+        // Verify that only the matching rows are loaded and the LIKE scan is skipped
+        verify(bookRepository).findBookResponsesByIdIn(List.of(1L));
+        verify(bookRepository, never()).searchByTitleOrAuthorOrIsbn(anyString(), anyString(), anyString());
+
+        // Assertions for the response
+        assertEquals(1, responses.size());
+        assertEquals(1L, responses.get(0).getId());
+    }
+
     @Test
     public void testSearchBookByPublicationYear() {
         // Set up test data
         Year publicationYear = Year.of(2022);
-        BookLibrary bookLibrary = new BookLibrary(1L, "Sample Title", "Sample Author", "123456789", 5, publicationYear);
-        List<BookLibrary> bookList = Collections.singletonList(bookLibrary);
+        BookResponse bookResponse = new BookResponse(1L, "Sample Title", "Sample Author", "123456789", 5, publicationYear);
+        List<BookResponse> bookList = Collections.singletonList(bookResponse);
 
         // Mock behavior
         given(bookRepository.findAllBooksByPublicationYear(publicationYear)).willReturn(bookList);
-        given(modelMapper.map(bookLibrary, BookResponse.class)).willReturn(new BookResponse(1L, "Sample Title", "Sample Author", "123456789", 5, publicationYear));
 
         // Call the method
         List<BookResponse> responses = bookServiceImpl.searchBookByPublicationYear(publicationYear);
 
         // Verify interactions
         verify(bookRepository).findAllBooksByPublicationYear(publicationYear);
-        verify(modelMapper).map(bookLibrary, BookResponse.class);
+        verifyNoInteractions(bookMapper); // Rows are projected straight into BookResponse objects
 
         // Assertions for the response
         assertNotNull(responses); // Assert that the response list is not null
@@ -209,6 +523,32 @@ public class BookServiceTest {
         assertEquals(publicationYear, response.getPublicationYear()); // Assert the publication year of the response
     }
 
+    @Test
+    public void testSearchBookByPublicationYear_CachedUntilTheYearChanges() {
+        // Set up test data: one book in 2021 and one in 2022
+        Year changedYear = Year.of(2021);
+        Year otherYear = Year.of(2022);
+        given(bookRepository.findAllBooksByPublicationYear(changedYear))
+                .willReturn(List.of(new BookResponse(1L, "Changed", "Sample Author", "1", 5, changedYear)));
+        given(bookRepository.findAllBooksByPublicationYear(otherYear))
+                .willReturn(List.of(new BookResponse(2L, "Other", "Sample Author", "2", 5, otherYear)));
+        given(bookFacetHistogram.publicationYearOf(1L)).willReturn(changedYear);
+        given(stockUpdateCombiner.apply(1L, 1)).willReturn(new StockUpdate(6, LocalDateTime.of(2024, 1, 1, 12, 0)));
+
+        // Repeated searches are served from the cache
+        bookServiceImpl.searchBookByPublicationYear(changedYear);
+        bookServiceImpl.searchBookByPublicationYear(otherYear);
+        bookServiceImpl.searchBookByPublicationYear(otherYear);
+        verify(bookRepository, times(1)).findAllBooksByPublicationYear(otherYear);
+
+        // A write to a 2021 book only invalidates the 2021 results
+        bookServiceImpl.returnBook(1L, 1);
+        bookServiceImpl.searchBookByPublicationYear(changedYear);
+        bookServiceImpl.searchBookByPublicationYear(otherYear);
+        verify(bookRepository, times(2)).findAllBooksByPublicationYear(changedYear);
+        verify(bookRepository, times(1)).findAllBooksByPublicationYear(otherYear);
+    }
+
     @Test
     public void testUpdateBook() {
         // Set up test data
@@ -222,16 +562,112 @@ public class BookServiceTest {
         assertThrows(NotFoundException.class, () -> bookServiceImpl.updateBook(bookId, bookRequest));
     }
 
+    @Test
+    public void testPatchBook_WritesOnlyChangedColumns() throws ValidTitleException {
+        // Set up test data
+        Long bookId = 1L;
+        LocalDateTime updatedDate = LocalDateTime.of(2024, 1, 1, 12, 0);
+        BookLibrary book = new BookLibrary(bookId, "Mobilise HERO Nigeria", "J.J Bennett", "ISBN12345", 10, Year.of(2012));
+        book.setUpdatedDate(updatedDate);
+        BookRequest patchRequest = new BookRequest("Mobilise HERO Nigeria", null, null, 7, null);
+
+        // Mock behavior
+        given(bookRepository.findById(bookId)).willReturn(Optional.of(book));
+        given(bookMapper.mapBookLibraryToBookResponse(book)).willReturn(new BookResponse(bookId, "Mobilise HERO Nigeria", "J.J Bennett", "ISBN12345", 10, Year.of(2012)));
+        given(bookRepository.patchChangedColumns(eq(bookId), eq(updatedDate), anyMap())).willReturn(1);
+
+        // Call the method
+        BookResponse response = bookServiceImpl.patchBook(bookId, patchRequest);
+
+        // Verify that only the quantity is written, the unchanged title is not checked and the book is not read back
+        verify(bookRepository).patchChangedColumns(eq(bookId), eq(updatedDate),
+                argThat(changes -> changes.keySet().equals(Set.of("quantity", "updatedDate"))));
+        verify(bookInfoValidations, never()).isBookTitleAlreadyExists(anyString());
+        verify(bookRepository, times(1)).findById(bookId);
+        assertEquals(7, response.getQuantity());
+        assertEquals("J.J Bennett", response.getAuthor());
+    }
+
+    @Test
+    public void testPatchBook_WhenBookNotFound() {
+        // Mock behavior to return empty optional when findById is called
+        given(bookRepository.findById(1L)).willReturn(Optional.empty());
+
+        // Call the method and assert the exception
+        assertThrows(NotFoundException.class, () -> bookServiceImpl.patchBook(1L, new BookRequest()));
+        verify(bookRepository, never()).patchChangedColumns(any(), any(), anyMap());
+    }
+
+    @Test
+    public void testPatchBook_ReportsInvalidFieldsAndConflictsWithTheirOwnExceptions() {
+        // Mock behavior: the book changes again before every conditional update
+        BookLibrary book = new BookLibrary(1L, "Mobilise HERO Nigeria", "J.J Bennett", "ISBN12345", 10, Year.of(2012));
+        given(bookRepository.findById(1L)).willReturn(Optional.of(book));
+        given(bookMapper.mapBookLibraryToBookResponse(book)).willReturn(new BookResponse(1L, "Mobilise HERO Nigeria", "J.J Bennett", "ISBN12345", 10, Year.of(2012)));
+        given(bookRepository.patchChangedColumns(eq(1L), any(), anyMap())).willReturn(0);
+
+        // Call the method and assert the exceptions
+        assertThrows(InvalidQuantityException.class, () -> bookServiceImpl.patchBook(1L, new BookRequest(null, null, null, -1, null)));
+        assertThrows(ConcurrentUpdateException.class, () -> bookServiceImpl.patchBook(1L, new BookRequest(null, null, null, 7, null)));
+        verify(bookRepository, times(3)).patchChangedColumns(eq(1L), any(), anyMap());
+    }
+
+    @Test
+    public void testGetBookFacets_WhileTheHistogramIsBuilding() {
+        // Mock behavior: the histogram is still being built
+        given(bookFacetHistogram.isReady()).willReturn(false);
+
+        // Call the method and assert that the client is asked to retry instead of being told nothing exists
+        FacetsNotReadyException exception = assertThrows(FacetsNotReadyException.class, () -> bookServiceImpl.getBookFacets(10));
+        assertEquals(1, exception.getRetryAfterSeconds());
+        verify(bookFacetHistogram, never()).snapshot(anyInt());
+    }
+
+    @Test
+    public void testCheckoutAndReturnBook() {
+        // Mock behavior
+        LocalDateTime updatedDate = LocalDateTime.of(2024, 1, 1, 12, 0);
+        given(stockUpdateCombiner.apply(1L, -2)).willReturn(new StockUpdate(3, updatedDate));
+        given(stockUpdateCombiner.apply(1L, 1)).willReturn(new StockUpdate(4, updatedDate.plusSeconds(1)));
+
+        // Call the methods
+        StockResponse checkout = bookServiceImpl.checkoutBook(1L, 2);
+        StockResponse returned = bookServiceImpl.returnBook(1L, 1);
+
+        // Verify that the stock changes go through the combiner and invalidate the cached book
+        assertEquals(3, checkout.getRemainingQuantity());
+        assertEquals(4, returned.getRemainingQuantity());
+        verify(bookResponseCache, times(2)).invalidate(1L);
+        // The events carry the updatedDate written to the book, not a time of their own
+        verify(bookChangeFeed).publish(argThat(change -> Integer.valueOf(3).equals(change.getQuantity()) && change.getChangedAt().equals(updatedDate)));
+        verify(bookChangeFeed).publish(argThat(change -> Integer.valueOf(4).equals(change.getQuantity()) && change.getChangedAt().equals(updatedDate.plusSeconds(1))));
+        assertThrows(InvalidQuantityException.class, () -> bookServiceImpl.checkoutBook(1L, 0));
+        assertThrows(InvalidQuantityException.class, () -> bookServiceImpl.returnBook(1L, Integer.MAX_VALUE));
+        verify(stockUpdateCombiner).apply(1L, -2);
+        verify(stockUpdateCombiner).apply(1L, 1);
+        verifyNoMoreInteractions(stockUpdateCombiner); // The invalid changes never reach the combiner
+    }
+
     @Test
     public void testDeleteBookById_Success() {
         // Set up test data
         Long bookId = 1L;
+        // Mock behavior to run the delete transaction inline
+        doAnswer(invocation -> {
+            invocation.<Consumer<Object>>getArgument(0).accept(null);
+            return null;
+        }).when(transactionTemplate).executeWithoutResult(any());
+        given(bookRepository.lockExistingIds(List.of(bookId))).willReturn(List.of(bookId));
 
         // Call the method
         ApiResponse response = bookServiceImpl.deleteBookById(bookId);
 
-        // Verify interactions
-        verify(bookRepository).deleteById(bookId);
+        // Verify interactions: the tombstone is written before the delete and the deletion is published
+        InOrder inOrder = inOrder(bookRepository);
+        inOrder.verify(bookRepository).insertTombstones(eq(List.of(bookId)), any());
+        inOrder.verify(bookRepository).deleteById(bookId);
+        verify(bookChangeFeed).publish(argThat(change -> change.getType() == BookChangeResponse.ChangeType.DELETED
+                && change.getBookId().equals(bookId)));
 
         // Assertions for the response
         assertNotNull(response); // Assert that the response is not null
@@ -246,17 +682,74 @@ public class BookServiceTest {
         // Set up test data
         Long bookId = 1L;
         String errorMessage = "Error occurred while deleting the book";
+        // Mock behavior to run the delete transaction inline
+        doAnswer(invocation -> {
+            invocation.<Consumer<Object>>getArgument(0).accept(null);
+            return null;
+        }).when(transactionTemplate).executeWithoutResult(any());
+
+        given(bookRepository.lockExistingIds(List.of(bookId))).willReturn(List.of(bookId));
 
         // Mock behavior to throw an exception
         doThrow(new RuntimeException(errorMessage)).when(bookRepository).deleteById(bookId);
 
-        // Call the method and catch the exception
-        Exception exception = assertThrows(NotFoundException.class, () -> bookServiceImpl.deleteBookById(bookId));
+        // Call the method and catch the exception, which is propagated as a server error rather than a miss
+        Exception exception = assertThrows(RuntimeException.class, () -> bookServiceImpl.deleteBookById(bookId));
 
         // Verify interactions
         verify(bookRepository).deleteById(bookId);
 
         // Assertions for the exception
-        assertEquals("Error Occurred while deleting Book: " + errorMessage, exception.getMessage());
+        assertFalse(exception instanceof NotFoundException);
+        assertEquals(errorMessage, exception.getMessage());
+        verifyNoInteractions(bookChangeFeed); // Nothing is published for a failed delete
+    }
+
+    @Test
+    public void testDeleteBookById_WhenBookNotFound() {
+        // Mock behavior to run the delete transaction inline, in which the book is not found
+        doAnswer(invocation -> {
+            invocation.<Consumer<Object>>getArgument(0).accept(null);
+            return null;
+        }).when(transactionTemplate).executeWithoutResult(any());
+        given(bookRepository.lockExistingIds(List.of(1L))).willReturn(List.of());
+
+        // Call the method and assert the exception
+        assertThrows(NotFoundException.class, () -> bookServiceImpl.deleteBookById(1L));
+
+        // Verify that nothing is written or published for a book that does not exist
+        verify(bookRepository, never()).insertTombstones(any(), any());
+        verify(bookRepository, never()).deleteById(any());
+        verifyNoInteractions(bookChangeFeed);
+    }
+
+    @Test
+    public void testDeleteBooksByIds() {
+        // Mock behavior to run the chunk transaction inline
+        given(transactionTemplate.execute(any())).willAnswer(invocation ->
+                invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+        given(bookRepository.lockExistingIds(List.of(1L, 2L, 3L))).willReturn(List.of(1L, 3L));
+
+        // Call the method with a repeated id and one id that does not exist
+        BulkDeleteResponse response = bookServiceImpl.deleteBooksByIds(List.of(1L, 2L, 1L, 3L));
+
+        // Verify that one set-based delete ran and only the deleted books left the in-memory structures
+        verify(bookRepository, never()).deleteById(any());
+        verify(bookRepository).insertTombstones(eq(List.of(1L, 3L)), any());
+        verify(bookRepository).deleteAllByIdIn(List.of(1L, 3L));
+        verify(bookSearchIndex).remove(3L);
+        verify(bookFacetHistogram).remove(1L);
+        verify(bookResponseCache).invalidate(1L);
+        verify(bookSearchIndex, never()).remove(2L);
+        verify(bookChangeFeed, times(2)).publish(any());
+        verify(bookChangeFeed, never()).publish(argThat(change -> change.getBookId().equals(2L)));
+        assertEquals(3, response.getRequestedCount());
+        assertEquals(2, response.getDeletedCount());
+    }
+
+    @Test
+    public void testDeleteBooksByPredicate_RequiresCriteria() {
+        assertThrows(DeleteCriteriaRequiredException.class, () -> bookServiceImpl.deleteBooksByPredicate(null, " "));
+        verifyNoInteractions(bookRepository);
     }
 }
@@ -0,0 +1,46 @@
+package com.mobilise.BookManagementSystem;
+
+import com.mobilise.BookManagementSystem.dto.request.BookRequest;
+import com.mobilise.BookManagementSystem.dto.response.BookResponse;
+import com.mobilise.BookManagementSystem.exception.ValidTitleException;
+import com.mobilise.BookManagementSystem.repository.BookRepository;
+import com.mobilise.BookManagementSystem.service.BookServices;
+import com.mobilise.BookManagementSystem.validator.BookInfoValidations;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+
+import java.time.Year;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+
+@SpringBootTest
+public class BookUpdateConsistencyTest {
+    @Autowired
+    private BookServices bookServices;
+    @Autowired
+    private BookRepository bookRepository;
+    @SpyBean
+    private BookInfoValidations bookInfoValidations;
+
+    @Test
+    public void testUpdateKeepsAStockChangeMadeWhileItRuns() throws ValidTitleException {
+        BookResponse book = bookServices.addNewBook(new BookRequest("Interleaved Update Book", "First Author", "1", 5, Year.of(2015)));
+        // Lend two copies after the update has read the book and before it writes it
+        doAnswer(invocation -> {
+            bookServices.checkoutBook(book.getId(), 2);
+            return invocation.callRealMethod();
+        }).when(bookInfoValidations).validateAuthor(eq("Second Author"));
+
+        BookResponse updated = bookServices.updateBook(book.getId(), new BookRequest(null, "Second Author", null, null, null));
+
+        // The update only wrote the author, so the checkout is not undone by a stale quantity
+        assertEquals("Second Author", updated.getAuthor());
+        assertEquals(3, updated.getQuantity());
+        assertEquals(3, bookRepository.findById(book.getId()).orElseThrow().getQuantity());
+        bookServices.deleteBookById(book.getId());
+    }
+}
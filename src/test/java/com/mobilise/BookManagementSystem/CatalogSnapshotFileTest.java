@@ -0,0 +1,72 @@
+package com.mobilise.BookManagementSystem;
+
+import com.mobilise.BookManagementSystem.entity.BookLibrary;
+import com.mobilise.BookManagementSystem.service.snapshot.CatalogSnapshotFile;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.Year;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CatalogSnapshotFileTest {
+    @TempDir
+    private Path directory;
+
+    @Test
+    public void testSnapshotRoundTripAcrossMappedWindows() throws IOException {
+        Path path = directory.resolve("catalog.snapshot");
+        List<BookLibrary> books = new ArrayList<>();
+        for (long id = 1; id <= 500; id++) {
+            BookLibrary book = new BookLibrary(id, "Mobilise Book " + id, "Ada Obi", id % 2 == 0 ? null : "ISBN" + id,
+                    id % 3 == 0 ? null : (int) id, Year.of(2001 + (int) (id % 20)));
+            book.setCreatedDate(LocalDateTime.of(2024, 1, 1, 12, 0, 0, 123456000));
+            book.setUpdatedDate(id % 5 == 0 ? null : LocalDateTime.of(2024, 2, 1, 12, 0));
+            books.add(book);
+        }
+        try (CatalogSnapshotFile.Writer writer = new CatalogSnapshotFile.Writer(path)) {
+            for (BookLibrary book : books) {
+                writer.write(book);
+            }
+        }
+
+        // A window smaller than a few records forces the reader to remap many times
+        List<BookLibrary> restored = new ArrayList<>();
+        long count = CatalogSnapshotFile.read(path, 100, restored::add);
+
+        assertEquals(500, count);
+        for (int i = 0; i < books.size(); i++) {
+            BookLibrary expected = books.get(i);
+            BookLibrary actual = restored.get(i);
+            assertEquals(expected.getId(), actual.getId());
+            assertEquals(expected.getTitle(), actual.getTitle());
+            assertEquals("mobilise book " + expected.getId(), actual.getNormalizedTitle());
+            assertEquals(expected.getAuthor(), actual.getAuthor());
+            assertEquals(expected.getIsbn(), actual.getIsbn());
+            assertEquals(expected.getQuantity(), actual.getQuantity());
+            assertEquals(expected.getPublicationYear(), actual.getPublicationYear());
+            assertEquals(expected.getCreatedDate(), actual.getCreatedDate());
+            assertEquals(expected.getUpdatedDate(), actual.getUpdatedDate());
+        }
+    }
+
+    @Test
+    public void testTruncatedSnapshotIsRejected() throws IOException {
+        Path path = directory.resolve("catalog.snapshot");
+        try (CatalogSnapshotFile.Writer writer = new CatalogSnapshotFile.Writer(path)) {
+            writer.write(new BookLibrary(1L, "Mobilise Book", "Ada Obi", null, 1, Year.of(2020)));
+            writer.write(new BookLibrary(2L, "Spring in Action", "Craig Walls", null, 1, Year.of(2022)));
+        }
+        byte[] bytes = Files.readAllBytes(path);
+        Files.write(path, Arrays.copyOf(bytes, bytes.length - 5));
+
+        assertThrows(IOException.class, () -> CatalogSnapshotFile.read(path, 1 << 20, book -> { }));
+    }
+}
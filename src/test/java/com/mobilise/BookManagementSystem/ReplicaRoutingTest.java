@@ -0,0 +1,90 @@
+package com.mobilise.BookManagementSystem;
+
+import com.mobilise.BookManagementSystem.service.cache.CatalogVersion;
+import com.mobilise.BookManagementSystem.service.replica.ReplicaRouting;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class ReplicaRoutingTest {
+    private CatalogVersion catalogVersion;
+    private ReplicaRouting replicaRouting;
+
+    @BeforeEach
+    public void setUp() {
+        catalogVersion = new CatalogVersion();
+        replicaRouting = new ReplicaRouting(catalogVersion, true, Duration.ofSeconds(2));
+    }
+
+    @AfterEach
+    public void tearDown() {
+        replicaRouting.clear();
+    }
+
+    @Test
+    public void testReadsUseTheReplicaOnlyOnceItHasReportedACopy() {
+        assertFalse(replicaRouting.isReplicaReadable());
+
+        replicaRouting.replicaApplied(catalogVersion.current(), System.currentTimeMillis());
+
+        assertTrue(replicaRouting.isReplicaReadable());
+    }
+
+    @Test
+    public void testReadsMoveToThePrimaryWhenTheReplicaLagsBeyondTheTolerance() {
+        long version = catalogVersion.current();
+        replicaRouting.replicaApplied(version, System.currentTimeMillis() - 1000);
+        assertTrue(replicaRouting.isReplicaReadable()); // Current, however old the copy is
+
+        catalogVersion.increment();
+        assertTrue(replicaRouting.isReplicaReadable()); // One second behind, within the tolerance
+
+        replicaRouting.replicaApplied(version, System.currentTimeMillis() - 3000);
+        assertFalse(replicaRouting.isReplicaReadable());
+    }
+
+    @Test
+    public void testRequestsReadTheirOwnWritesFromThePrimary() {
+        replicaRouting.replicaApplied(catalogVersion.current(), System.currentTimeMillis());
+
+        replicaRouting.markWritten();
+        assertFalse(replicaRouting.isReplicaReadable());
+
+        // The stickiness ends with the request
+        replicaRouting.clear();
+        assertTrue(replicaRouting.isReplicaReadable());
+    }
+
+    @Test
+    public void testRequiredVersionPinsReadsToThePrimaryUntilTheReplicaHasApplied() {
+        long applied = catalogVersion.current();
+        replicaRouting.replicaApplied(applied, System.currentTimeMillis());
+        long written = catalogVersion.increment();
+
+        // The page is labelled with the version the replica holds
+        assertEquals(applied, replicaRouting.readableCatalogVersion());
+        assertTrue(replicaRouting.isReplicaReadable());
+
+        replicaRouting.requireVersion(written);
+        assertFalse(replicaRouting.isReplicaReadable());
+        assertEquals(written, replicaRouting.readableCatalogVersion());
+
+        replicaRouting.replicaApplied(written, System.currentTimeMillis());
+        assertTrue(replicaRouting.isReplicaReadable());
+    }
+
+    @Test
+    public void testDisabledRoutingAlwaysReadsFromThePrimary() {
+        ReplicaRouting disabled = new ReplicaRouting(catalogVersion, false, Duration.ofSeconds(2));
+        disabled.replicaApplied(catalogVersion.current() - 1, System.currentTimeMillis());
+
+        assertFalse(disabled.isReplicaReadable());
+        assertEquals(catalogVersion.current(), disabled.readableCatalogVersion());
+    }
+}
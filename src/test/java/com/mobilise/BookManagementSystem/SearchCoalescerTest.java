@@ -0,0 +1,104 @@
+package com.mobilise.BookManagementSystem;
+
+import com.mobilise.BookManagementSystem.dto.response.BookResponse;
+import com.mobilise.BookManagementSystem.service.search.SearchCoalescer;
+import com.mobilise.BookManagementSystem.service.search.SearchCoalescer.SearchKind;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Year;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+
+public class SearchCoalescerTest {
+    private static final List<BookResponse> RESULT = List.of(new BookResponse(1L, "Trending", "Author", "1", 1, Year.of(2020)));
+
+    private final SearchCoalescer searchCoalescer = new SearchCoalescer(mock(PlatformTransactionManager.class));
+    private final AtomicInteger executions = new AtomicInteger();
+    private final CountDownLatch release = new CountDownLatch(1);
+
+    // A search that blocks until released, so every concurrent caller arrives while it runs
+    private final Supplier<List<BookResponse>> slowSearch = () -> {
+        executions.incrementAndGet();
+        try {
+            release.await(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return RESULT;
+    };
+
+    private List<Future<List<BookResponse>>> searchConcurrently(int callers, long catalogVersion) throws InterruptedException {
+        ExecutorService executor = Executors.newFixedThreadPool(callers);
+        List<Future<List<BookResponse>>> results = new ArrayList<>();
+        for (int i = 0; i < callers; i++) {
+            results.add(executor.submit(() -> searchCoalescer.execute(SearchKind.SEARCH_TEXT, "trending", catalogVersion, slowSearch)));
+        }
+        executor.shutdown();
+        return results;
+    }
+
+    @Test
+    public void testConcurrentIdenticalSearchesShareOneExecution() throws Exception {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        searchCoalescer.bindTo(registry);
+
+        List<Future<List<BookResponse>>> results = searchConcurrently(20, 1L);
+        Thread.sleep(200);
+        release.countDown();
+
+        for (Future<List<BookResponse>> result : results) {
+            assertEquals(RESULT, result.get(10, TimeUnit.SECONDS));
+        }
+        assertEquals(1, executions.get());
+        assertEquals(20.0, registry.get("book.search.fan.in").tag("search", "search_text").gauge().value());
+        // The next search runs again, since nothing is cached
+        searchCoalescer.execute(SearchKind.SEARCH_TEXT, "trending", 1L, slowSearch);
+        assertEquals(2, executions.get());
+    }
+
+    @Test
+    public void testSearchesOfDifferentCatalogVersionsAreNotShared() throws Exception {
+        List<Future<List<BookResponse>>> before = searchConcurrently(1, 1L);
+        Thread.sleep(100);
+        List<Future<List<BookResponse>>> after = searchConcurrently(1, 2L);
+        Thread.sleep(100);
+        release.countDown();
+
+        before.get(0).get(10, TimeUnit.SECONDS);
+        after.get(0).get(10, TimeUnit.SECONDS);
+        assertEquals(2, executions.get());
+    }
+
+    @Test
+    public void testFailureIsPassedToEveryWaitingCaller() throws Exception {
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        Future<?> leader = executor.submit(() -> searchCoalescer.execute(SearchKind.PUBLICATION_YEAR, "2020", 1L, () -> {
+            slowSearch.get();
+            throw new IllegalStateException("Database unavailable");
+        }));
+        Thread.sleep(100);
+        Future<?> follower = Executors.newSingleThreadExecutor().submit(() ->
+                searchCoalescer.execute(SearchKind.PUBLICATION_YEAR, "2020", 1L, slowSearch));
+        Thread.sleep(100);
+        release.countDown();
+
+        Exception leaderFailure = assertThrows(Exception.class, () -> leader.get(10, TimeUnit.SECONDS));
+        Exception followerFailure = assertThrows(Exception.class, () -> follower.get(10, TimeUnit.SECONDS));
+        assertInstanceOf(IllegalStateException.class, leaderFailure.getCause());
+        assertSame(leaderFailure.getCause(), followerFailure.getCause());
+        assertEquals(1, executions.get());
+        executor.shutdown();
+    }
+}
@@ -0,0 +1,171 @@
+package com.mobilise.BookManagementSystem;
+
+import com.mobilise.BookManagementSystem.dto.request.BookRequest;
+import com.mobilise.BookManagementSystem.dto.response.BatchBookItemResponse;
+import com.mobilise.BookManagementSystem.dto.response.BatchBookResponse;
+import com.mobilise.BookManagementSystem.dto.response.BookResponse;
+import com.mobilise.BookManagementSystem.dto.response.BulkDeleteResponse;
+import com.mobilise.BookManagementSystem.entity.BookLibrary;
+import com.mobilise.BookManagementSystem.exception.AlreadyExistsException;
+import com.mobilise.BookManagementSystem.exception.BookCreationException;
+import com.mobilise.BookManagementSystem.exception.ValidTitleException;
+import com.mobilise.BookManagementSystem.repository.BookRepository;
+import com.mobilise.BookManagementSystem.service.BookServices;
+import com.mobilise.BookManagementSystem.service.shard.BookShards;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Year;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = {
+        "book.sharding.shard-count=3",
+        "book.sharding.url-template=jdbc:h2:mem:shardtest%d;DB_CLOSE_ON_EXIT=FALSE",
+        "spring.datasource.url=jdbc:h2:mem:shardtest0;DB_CLOSE_ON_EXIT=FALSE"
+})
+public class ShardRoutingTest {
+    @Autowired
+    private BookRepository bookRepository;
+    @Autowired
+    private BookShards bookShards;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+    @Autowired
+    private BookServices bookServices;
+
+    private final List<Long> savedIds = new ArrayList<>();
+
+    @AfterEach
+    public void tearDown() {
+        // Each shard's delete runs in a transaction on that shard, as in BookServiceImpl.deleteInChunks
+        transactionTemplate.executeWithoutResult(status -> bookRepository.deleteAllByIdIn(savedIds));
+        bookRepository.deleteTitleClaimsByBookIdIn(savedIds);
+    }
+
+    private List<BookLibrary> saveBooks(int count) {
+        List<BookLibrary> books = IntStream.range(0, count)
+                .mapToObj(i -> new BookLibrary(null, "Sharded Book " + i, "Shard Author", "978000" + i, i, Year.of(2001 + i % 2)))
+                .toList();
+        List<BookLibrary> saved = bookRepository.saveAll(books);
+        saved.forEach(book -> savedIds.add(book.getId()));
+        return saved;
+    }
+
+    @Test
+    public void testNewBooksAreStoredOnTheShardOfTheirTitleWithinItsIdRange() {
+        List<BookLibrary> saved = saveBooks(30);
+
+        Set<Integer> usedShards = new HashSet<>();
+        for (BookLibrary book : saved) {
+            int shard = bookShards.shardForTitle(book.getNormalizedTitle());
+            assertEquals(shard, bookShards.shardOf(book.getId()));
+            assertEquals(book.getTitle(), bookRepository.findById(book.getId()).orElseThrow().getTitle());
+            usedShards.add(shard);
+        }
+        assertEquals(3, usedShards.size());
+        assertEquals(30, bookRepository.count());
+    }
+
+    @Test
+    public void testFanOutQueriesMergeEveryShardInIdOrder() {
+        List<Long> ids = saveBooks(30).stream().map(BookLibrary::getId).sorted().toList();
+
+        List<Long> byYear = bookRepository.findAllBooksByPublicationYear(Year.of(2001)).stream().map(BookResponse::getId).toList();
+        assertEquals(15, byYear.size());
+        assertEquals(byYear.stream().sorted().toList(), byYear);
+
+        List<Long> searched = bookRepository.searchByTitleOrAuthorOrIsbn("sharded", "sharded", "sharded").stream()
+                .map(BookResponse::getId).toList();
+        assertEquals(ids, searched);
+
+        List<Long> paged = new ArrayList<>();
+        Slice<BookResponse> page;
+        int pageNo = 0;
+        do {
+            page = bookRepository.findAllBookResponses(PageRequest.of(pageNo++, 7));
+            page.forEach(book -> paged.add(book.getId()));
+        } while (page.hasNext());
+        assertEquals(ids, paged);
+    }
+
+    @Test
+    public void testTitlesStayUniqueAcrossShards() {
+        BookLibrary saved = saveBooks(1).get(0);
+
+        assertTrue(bookRepository.existsByNormalizedTitle("sharded book 0"));
+        assertEquals(List.of("sharded book 0"), bookRepository.findExistingTitles(List.of("sharded book 0", "missing")));
+        // A second book with the same title is routed to the same shard, where the unique index rejects it
+        BookLibrary duplicate = new BookLibrary(null, saved.getTitle().toUpperCase(), "Other Author", "1", 1, Year.of(2001));
+        assertThrows(DataIntegrityViolationException.class, () -> bookRepository.save(duplicate));
+    }
+
+    @Test
+    public void testBatchChunksAreCreatedOrRejectedPerShard() {
+        // Saved behind the title filter's back, so the batch only finds the clash when inserting
+        BookLibrary clash = saveBooks(1).get(0);
+        int clashShard = bookShards.shardOf(clash.getId());
+        List<BookRequest> requests = new ArrayList<>();
+        requests.add(new BookRequest(clash.getTitle(), "Batch Author", "1", 1, Year.of(2001)));
+        IntStream.range(0, 30).forEach(i -> requests.add(new BookRequest("Sharded Batch " + i, "Batch Author", "1", 1, Year.of(2001))));
+
+        BatchBookResponse response = bookServices.addNewBooks(requests);
+        response.getItems().stream().filter(BatchBookItemResponse::isCreated).forEach(item -> savedIds.add(item.getBook().getId()));
+
+        // Only the chunk of the clashing shard fails, and none of its books is left behind
+        for (int i = 0; i < requests.size(); i++) {
+            String normalizedTitle = BookLibrary.normalizeTitle(requests.get(i).getTitle());
+            boolean onClashShard = bookShards.shardForTitle(normalizedTitle) == clashShard;
+            assertEquals(!onClashShard, response.getItems().get(i).isCreated());
+            assertEquals(!onClashShard || i == 0, bookRepository.existsByNormalizedTitle(normalizedTitle));
+        }
+        assertTrue(response.getCreatedCount() > 0);
+    }
+
+    @Test
+    public void testRenamedTitlesStayUniqueAcrossShards() throws ValidTitleException {
+        BookResponse book = bookServices.addNewBook(new BookRequest("Renamed Book", "Shard Author", "1", 1, Year.of(2001)));
+        savedIds.add(book.getId());
+        // A title created on another shard than the one the book lives on
+        String title = IntStream.range(0, 100).mapToObj(i -> "Renamed Title " + i)
+                .filter(candidate -> bookShards.shardForTitle(BookLibrary.normalizeTitle(candidate)) != bookShards.shardOf(book.getId()))
+                .findFirst().orElseThrow();
+
+        bookServices.patchBook(book.getId(), new BookRequest(title, null, null, null, null));
+
+        // The new title is claimed on its own shard, so creating it there collides with the renamed book
+        assertThrows(BookCreationException.class,
+                () -> bookServices.addNewBook(new BookRequest(title.toUpperCase(), "Other Author", "1", 1, Year.of(2001))));
+        BookResponse other = bookServices.addNewBook(new BookRequest("Other Renamed Book", "Shard Author", "1", 1, Year.of(2001)));
+        savedIds.add(other.getId());
+        assertThrows(AlreadyExistsException.class, () -> bookServices.patchBook(other.getId(), new BookRequest(title, null, null, null, null)));
+        // The old title has been released
+        BookResponse reused = bookServices.addNewBook(new BookRequest("Renamed Book", "Shard Author", "1", 1, Year.of(2001)));
+        savedIds.add(reused.getId());
+        assertEquals(1, bookRepository.findExistingTitles(List.of(BookLibrary.normalizeTitle(title))).size());
+    }
+
+    @Test
+    public void testBulkDeletesOnlyCountBooksThatExisted() {
+        List<Long> ids = new ArrayList<>(saveBooks(30).stream().map(BookLibrary::getId).toList());
+        ids.add(999L);
+
+        BulkDeleteResponse response = bookServices.deleteBooksByIds(ids);
+
+        assertEquals(31, response.getRequestedCount());
+        assertEquals(30, response.getDeletedCount());
+        assertEquals(0, bookRepository.count());
+        assertEquals(0, bookServices.deleteBooksByIds(ids).getDeletedCount());
+    }
+}
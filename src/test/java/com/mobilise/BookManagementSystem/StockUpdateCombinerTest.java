@@ -0,0 +1,156 @@
+package com.mobilise.BookManagementSystem;
+
+import com.mobilise.BookManagementSystem.exception.NotFoundException;
+import com.mobilise.BookManagementSystem.exception.OutOfStockException;
+import com.mobilise.BookManagementSystem.repository.BookRepository;
+import com.mobilise.BookManagementSystem.service.inventory.StockUpdateCombiner;
+import com.mobilise.BookManagementSystem.service.shard.BookShards;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.mock;
+
+public class StockUpdateCombinerTest {
+    private static final Long BOOK_ID = 1L;
+
+    private final AtomicInteger stock = new AtomicInteger();
+    // Once entered, the write waits for this gate, so that further changes queue up behind it
+    private final CountDownLatch writing = new CountDownLatch(1);
+    private volatile CountDownLatch writeGate;
+    private StockUpdateCombiner stockUpdateCombiner;
+
+    @BeforeEach
+    public void setUp() {
+        BookRepository bookRepository = mock(BookRepository.class);
+        TransactionTemplate transactionTemplate = mock(TransactionTemplate.class);
+        // Transactions on the book row are serialized, like the row lock taken by the UPDATE
+        Object rowLock = new Object();
+        given(transactionTemplate.execute(any())).willAnswer(invocation -> {
+            synchronized (rowLock) {
+                return invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null);
+            }
+        });
+        given(bookRepository.adjustQuantity(eq(BOOK_ID), anyInt(), any())).willAnswer(invocation -> {
+            writing.countDown();
+            if (writeGate != null) {
+                writeGate.await();
+            }
+            int delta = invocation.getArgument(1);
+            if (delta < 0 && stock.get() + delta < 0) {
+                return 0;
+            }
+            // Like the INTEGER column, the stock rejects a value it cannot hold
+            stock.set(Math.addExact(stock.get(), delta));
+            return 1;
+        });
+        given(bookRepository.findQuantityById(BOOK_ID)).willAnswer(invocation -> Optional.of(stock.get()));
+        BookShards singleShard = new BookShards(mock(DataSource.class), 1, 1L << 40, "", "sa", "", 10, false);
+        stockUpdateCombiner = new StockUpdateCombiner(bookRepository, transactionTemplate, singleShard, 4);
+    }
+
+    @Test
+    public void testConcurrentCheckoutsNeverOversell() throws Exception {
+        stock.set(500);
+        Set<Integer> remainingReported = ConcurrentHashMap.newKeySet();
+        AtomicInteger outOfStock = new AtomicInteger();
+
+        // 16 threads try to lend 800 copies of a book that has 500
+        runConcurrently(16, 50, () -> {
+            try {
+                remainingReported.add(stockUpdateCombiner.apply(BOOK_ID, -1).getRemainingQuantity());
+            } catch (OutOfStockException e) {
+                outOfStock.incrementAndGet();
+            }
+        });
+
+        // Every copy is lent exactly once, and every successful checkout saw a different remaining stock
+        assertEquals(0, stock.get());
+        assertEquals(500, remainingReported.size());
+        assertEquals(300, outOfStock.get());
+    }
+
+    @Test
+    public void testConcurrentCheckoutsAndReturnsLoseNoUpdate() throws Exception {
+        stock.set(0);
+
+        // Every thread returns a copy and then lends one, so its own return always covers its checkout
+        runConcurrently(8, 500, () -> {
+            stockUpdateCombiner.apply(BOOK_ID, 1);
+            stockUpdateCombiner.apply(BOOK_ID, -1);
+        });
+
+        assertEquals(0, stock.get());
+    }
+
+    @Test
+    public void testUnknownBookIsNotFound() {
+        assertThrows(NotFoundException.class, () -> stockUpdateCombiner.apply(2L, -1));
+    }
+
+    @Test
+    public void testMergedChangesThatOverflowFailWithoutWriting() throws Exception {
+        stock.set(1);
+        writeGate = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(3);
+        try {
+            // Two returns that each fit in the stock queue up behind a checkout and are merged into one write
+            Future<?> checkout = executor.submit(() -> stockUpdateCombiner.apply(BOOK_ID, -1));
+            assertTrue(writing.await(5, TimeUnit.SECONDS));
+            Future<?> first = executor.submit(() -> stockUpdateCombiner.apply(BOOK_ID, Integer.MAX_VALUE));
+            Future<?> second = executor.submit(() -> stockUpdateCombiner.apply(BOOK_ID, Integer.MAX_VALUE));
+            Thread.sleep(200);
+            writeGate.countDown();
+            checkout.get(5, TimeUnit.SECONDS);
+
+            // Their sum overflows, so both fail and the stock is left as the checkout wrote it
+            for (Future<?> result : List.of(first, second)) {
+                ExecutionException exception = assertThrows(ExecutionException.class, () -> result.get(5, TimeUnit.SECONDS));
+                assertInstanceOf(ArithmeticException.class, exception.getCause());
+            }
+            assertEquals(0, stock.get());
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    private static void runConcurrently(int threads, int iterations, Runnable task) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                futures.add(executor.submit(() -> {
+                    for (int i = 0; i < iterations; i++) {
+                        task.run();
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+}